@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.benchmarks;
+
+import com.uber.sdk.core.auth.AccessToken;
+import com.uber.sdk.core.auth.AccessTokenAuthenticator;
+import com.uber.sdk.core.auth.InMemoryAccessTokenStorage;
+import com.uber.sdk.core.client.internal.ApiInterceptor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Connection;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Runs {@link ApiInterceptor} against a chain that answers immediately, from several threads sharing one
+ * interceptor as the threads of an OkHttp dispatcher do.
+ *
+ * Run with {@code -PjmhProfilers=gc} to compare {@code gc.alloc.rate.norm} for requests that need signing and
+ * requests already carrying the headers, which proceed without being rebuilt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class ApiInterceptorBenchmark {
+
+    @Param({"false", "true"})
+    boolean signed;
+
+    private ApiInterceptor interceptor;
+    private Request request;
+
+    @Setup
+    public void setUp() throws IOException {
+        LocalSessionConfiguration configuration = new LocalSessionConfiguration(HttpUrl.parse("http://localhost/"));
+        AccessToken accessToken = new AccessToken(2592000, Collections.<com.uber.sdk.core.auth.Scope>emptySet(),
+                "accessToken", "refreshToken", "Bearer");
+        interceptor = new ApiInterceptor(new AccessTokenAuthenticator(configuration,
+                new InMemoryAccessTokenStorage(accessToken)));
+
+        request = new Request.Builder().url("http://localhost/v1.2/products").build();
+        if (signed) {
+            request = interceptor.intercept(new ImmediateChain(request)).request();
+        }
+    }
+
+    @Benchmark
+    public Response intercept() throws IOException {
+        return interceptor.intercept(new ImmediateChain(request));
+    }
+
+    static final class ImmediateChain implements Interceptor.Chain {
+        private final Request request;
+
+        ImmediateChain(Request request) {
+            this.request = request;
+        }
+
+        @Override
+        public Request request() {
+            return request;
+        }
+
+        @Override
+        public Response proceed(Request request) {
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .build();
+        }
+
+        @Override
+        public Connection connection() {
+            return null;
+        }
+    }
+}
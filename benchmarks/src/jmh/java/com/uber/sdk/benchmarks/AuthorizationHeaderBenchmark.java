@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.benchmarks;
+
+import com.uber.sdk.core.auth.AccessToken;
+import com.uber.sdk.core.auth.AccessTokenAuthenticator;
+import com.uber.sdk.core.auth.InMemoryAccessTokenStorage;
+import com.uber.sdk.core.auth.ServerTokenAuthenticator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+
+/**
+ * Signs a request builder with each authenticator, as {@code ApiInterceptor} does for every request.
+ *
+ * Run with {@code -PjmhProfilers=gc}: {@code gc.alloc.rate.norm} is zero for the signing benchmarks, while
+ * {@link #formatHeader()} shows the cost of formatting the header per request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuthorizationHeaderBenchmark {
+
+    private static final String ACCESS_TOKEN = "xxx.yyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyyy.zzzzzzzzzz";
+
+    private AccessTokenAuthenticator accessTokenAuthenticator;
+    private ServerTokenAuthenticator serverTokenAuthenticator;
+    private Request.Builder builder;
+
+    @Setup
+    public void setUp() {
+        LocalSessionConfiguration configuration = new LocalSessionConfiguration(HttpUrl.parse("http://localhost/"));
+        AccessToken accessToken = new AccessToken(2592000, Collections.<com.uber.sdk.core.auth.Scope>emptySet(),
+                ACCESS_TOKEN, "refreshToken", "Bearer");
+        accessTokenAuthenticator = new AccessTokenAuthenticator(configuration,
+                new InMemoryAccessTokenStorage(accessToken));
+        serverTokenAuthenticator = new ServerTokenAuthenticator(configuration);
+        builder = new Request.Builder().url("http://localhost/v1.2/products");
+    }
+
+    @Benchmark
+    public Request.Builder signAccessToken() {
+        accessTokenAuthenticator.signRequest(builder);
+        return builder;
+    }
+
+    @Benchmark
+    public Request.Builder signServerToken() {
+        serverTokenAuthenticator.signRequest(builder);
+        return builder;
+    }
+
+    @Benchmark
+    public String formatHeader() {
+        return String.format("Bearer %s", ACCESS_TOKEN);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.benchmarks;
+
+import com.uber.sdk.rides.client.ApiFuture;
+import com.uber.sdk.rides.client.UberRidesApi;
+import com.uber.sdk.rides.client.model.ProductsResponse;
+import com.uber.sdk.rides.client.services.AsyncRidesService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Fans out concurrent asynchronous calls against a local server with fixed latency, comparing
+ * OkHttp's default dispatcher, a platform thread dispatcher with raised limits and the virtual
+ * thread dispatcher of {@link UberRidesApi.Builder}.
+ *
+ * On runtimes without virtual threads the {@code VIRTUAL_THREADS} mode falls back to the default
+ * dispatcher.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DispatcherBenchmark {
+
+    public enum DispatcherMode {
+        DEFAULT,
+        PLATFORM_THREADS,
+        VIRTUAL_THREADS
+    }
+
+    @Param({"DEFAULT", "PLATFORM_THREADS", "VIRTUAL_THREADS"})
+    DispatcherMode mode;
+
+    @Param({"200"})
+    int concurrentCalls;
+
+    @Param({"20"})
+    int latencyMillis;
+
+    private MockWebServer server;
+    private AsyncRidesService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setBody(Responses.PRODUCTS)
+                        .setBodyDelay(latencyMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+
+        LocalSessionConfiguration configuration = new LocalSessionConfiguration(server.url("/"));
+        UberRidesApi.Builder builder = UberRidesApi.with(configuration.createServerTokenSession());
+        if (mode == DispatcherMode.PLATFORM_THREADS) {
+            builder.setMaxRequests(concurrentCalls);
+        } else if (mode == DispatcherMode.VIRTUAL_THREADS) {
+            builder.setVirtualThreadsEnabled(true);
+        }
+        service = builder.build().createAsyncService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public int fanOut() throws Exception {
+        List<ApiFuture<ProductsResponse>> futures = new ArrayList<>(concurrentCalls);
+        for (int i = 0; i < concurrentCalls; i++) {
+            futures.add(service.getProducts(37.7753f, -122.418f));
+        }
+
+        int products = 0;
+        for (ApiFuture<ProductsResponse> future : futures) {
+            products += future.get().getProducts().size();
+        }
+        return products;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.benchmarks;
+
+import com.uber.sdk.rides.client.error.ApiError;
+import com.uber.sdk.rides.client.error.ErrorParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ByteString;
+import retrofit2.Response;
+
+/**
+ * Parses the error bodies of the API: the old {@code code} and {@code message} shape, the {@code errors} shape with
+ * a surge confirmation, and an unknown body.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ErrorParserBenchmark {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    @Param({ "compatibility", "surge", "unknown" })
+    String error;
+
+    private String body;
+    private ByteString bodyBytes;
+    private int code;
+
+    @Setup
+    public void setUp() {
+        switch (error) {
+            case "compatibility":
+                body = "{\"message\":\"Unable to find product thisIsNotAProductId\",\"code\":\"not_found\"}";
+                code = 404;
+                break;
+            case "surge":
+                body = "{\"meta\":{\"surge_confirmation\":{\"href\":\"https:\\/\\/api.uber.com\\/v1\\/"
+                        + "surge-confirmations\\/e100a670\",\"expires_at\":1464118311,\"multiplier\":2.1,"
+                        + "\"surge_confirmation_id\":\"e100a670\"}},\"errors\":[{\"status\":409,\"code\":\"surge\","
+                        + "\"title\":\"Surge pricing is currently in effect for this product.\"}]}";
+                code = 409;
+                break;
+            case "unknown":
+                body = "{\"error\":\"This is not a supported Error\",\"random\":\"random field\"}";
+                code = 500;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown error " + error);
+        }
+        bodyBytes = ByteString.encodeUtf8(body);
+    }
+
+    @Benchmark
+    public ApiError parseString() {
+        return ErrorParser.parseError(body, code, "Error");
+    }
+
+    @Benchmark
+    public ApiError parseResponse() {
+        ResponseBody responseBody = ResponseBody.create(JSON, bodyBytes.size(), new Buffer().write(bodyBytes));
+        return ErrorParser.parseError(Response.error(code, responseBody));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.benchmarks;
+
+import com.uber.sdk.core.auth.Scope;
+import com.uber.sdk.core.client.ServerTokenSession;
+import com.uber.sdk.core.client.SessionConfiguration;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import okhttp3.HttpUrl;
+
+/**
+ * {@link SessionConfiguration} pointing the API and login hosts at a local server.
+ */
+public class LocalSessionConfiguration extends SessionConfiguration {
+
+    private final String host;
+
+    public LocalSessionConfiguration(@Nonnull HttpUrl url) {
+        this(url, "clientId", Collections.<Scope>emptySet());
+    }
+
+    /**
+     * @param url the local server.
+     * @param clientId the client id sent with requests.
+     * @param scopes the scopes granted to sessions.
+     */
+    public LocalSessionConfiguration(@Nonnull HttpUrl url, @Nonnull String clientId,
+            @Nonnull Collection<Scope> scopes) {
+        super(clientId,
+                "clientSecret",
+                "serverToken",
+                "http://localhost/redirect",
+                EndpointRegion.DEFAULT,
+                Environment.PRODUCTION,
+                scopes,
+                Collections.<String>emptySet(),
+                Locale.US);
+        String host = url.toString();
+        this.host = host.endsWith("/") ? host.substring(0, host.length() - 1) : host;
+    }
+
+    @Nonnull
+    @Override
+    public String getEndpointHost() {
+        return host;
+    }
+
+    @Nonnull
+    @Override
+    public String getLoginHost() {
+        return host;
+    }
+
+    /**
+     * @return a {@link ServerTokenSession} for this configuration.
+     */
+    @Nonnull
+    public ServerTokenSession createServerTokenSession() {
+        return new ServerTokenSession(this);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.benchmarks;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.uber.sdk.core.client.internal.BigDecimalAdapter;
+import com.uber.sdk.rides.client.model.PriceEstimatesResponse;
+import com.uber.sdk.rides.client.model.ProductsResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okio.Buffer;
+import okio.ByteString;
+
+/**
+ * Decodes products and price estimates through Moshi's class adapters.
+ *
+ * {@link #decode} reuses the adapters, as every client does now that they share one {@code Moshi}.
+ * {@link #decodeWithNewMoshi} also creates the adapters, which each new client used to pay on its first calls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModelAdapterBenchmark {
+
+    private ByteString products;
+    private ByteString priceEstimates;
+    private JsonAdapter<ProductsResponse> productsAdapter;
+    private JsonAdapter<PriceEstimatesResponse> priceEstimatesAdapter;
+
+    @Setup
+    public void setUp() {
+        products = ByteString.encodeUtf8(Responses.PRODUCTS);
+        priceEstimates = ByteString.encodeUtf8(Responses.PRICE_ESTIMATES);
+
+        Moshi moshi = createMoshi();
+        productsAdapter = moshi.adapter(ProductsResponse.class);
+        priceEstimatesAdapter = moshi.adapter(PriceEstimatesResponse.class);
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) throws IOException {
+        blackhole.consume(productsAdapter.fromJson(new Buffer().write(products)));
+        blackhole.consume(priceEstimatesAdapter.fromJson(new Buffer().write(priceEstimates)));
+    }
+
+    @Benchmark
+    public void decodeWithNewMoshi(Blackhole blackhole) throws IOException {
+        Moshi moshi = createMoshi();
+        blackhole.consume(moshi.adapter(ProductsResponse.class).fromJson(new Buffer().write(products)));
+        blackhole.consume(moshi.adapter(PriceEstimatesResponse.class).fromJson(new Buffer().write(priceEstimates)));
+    }
+
+    private static Moshi createMoshi() {
+        return new Moshi.Builder().add(new BigDecimalAdapter()).build();
+    }
+}
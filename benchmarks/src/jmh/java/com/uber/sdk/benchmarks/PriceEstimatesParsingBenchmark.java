@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.benchmarks;
+
+import com.squareup.moshi.FromJson;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.squareup.moshi.ToJson;
+import com.uber.sdk.core.client.internal.BigDecimalAdapter;
+import com.uber.sdk.rides.client.model.PriceEstimatesResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import okio.Buffer;
+import okio.ByteString;
+
+/**
+ * Parses a price estimates response with 40 products, using {@link BigDecimalAdapter} and the float based adapter
+ * it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PriceEstimatesParsingBenchmark {
+
+    private ByteString body;
+    private JsonAdapter<PriceEstimatesResponse> exactAdapter;
+    private JsonAdapter<PriceEstimatesResponse> floatAdapter;
+
+    @Setup
+    public void setUp() {
+        body = ByteString.encodeUtf8(Responses.PRICE_ESTIMATES);
+        exactAdapter = new Moshi.Builder().add(new BigDecimalAdapter()).build()
+                .adapter(PriceEstimatesResponse.class);
+        floatAdapter = new Moshi.Builder().add(new FloatBigDecimalAdapter()).build()
+                .adapter(PriceEstimatesResponse.class);
+    }
+
+    @Benchmark
+    public PriceEstimatesResponse exactDecimals() throws IOException {
+        return exactAdapter.fromJson(new Buffer().write(body));
+    }
+
+    @Benchmark
+    public PriceEstimatesResponse floatDecimals() throws IOException {
+        return floatAdapter.fromJson(new Buffer().write(body));
+    }
+
+    /**
+     * The previous {@link BigDecimalAdapter}, which decoded numbers as {@link Float}.
+     */
+    static class FloatBigDecimalAdapter {
+
+        @ToJson
+        public float toJson(BigDecimal bigDecimal) {
+            return bigDecimal.floatValue();
+        }
+
+        @FromJson
+        public BigDecimal bigDecimalFromString(@Nullable Float value) {
+            return value != null ? new BigDecimal(value.toString()) : null;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.benchmarks;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.uber.sdk.core.client.internal.BigDecimalAdapter;
+import com.uber.sdk.rides.client.model.PaymentMethodsResponse;
+import com.uber.sdk.rides.client.model.Place;
+import com.uber.sdk.rides.client.model.PriceEstimatesResponse;
+import com.uber.sdk.rides.client.model.Product;
+import com.uber.sdk.rides.client.model.ProductsResponse;
+import com.uber.sdk.rides.client.model.Promotion;
+import com.uber.sdk.rides.client.model.Ride;
+import com.uber.sdk.rides.client.model.RideEstimate;
+import com.uber.sdk.rides.client.model.RideMap;
+import com.uber.sdk.rides.client.model.RideReceipt;
+import com.uber.sdk.rides.client.model.TimeEstimatesResponse;
+import com.uber.sdk.rides.client.model.UserActivityPage;
+import com.uber.sdk.rides.client.model.UserProfile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okio.Buffer;
+import okio.ByteString;
+
+/**
+ * Decodes the body of every {@code RidesService} response type, with the {@code Moshi} configuration of the SDK.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseDecodingBenchmark {
+
+    @Param({
+            "products.json",
+            "product.json",
+            "price_estimates.json",
+            "time_estimates.json",
+            "promotion.json",
+            "user_activity.json",
+            "user_profile.json",
+            "ride.json",
+            "ride_estimate.json",
+            "ride_map.json",
+            "ride_receipt.json",
+            "place.json",
+            "payment_methods.json"
+    })
+    String response;
+
+    private ByteString body;
+    private JsonAdapter<?> adapter;
+
+    @Setup
+    public void setUp() {
+        body = ByteString.encodeUtf8(Responses.load(response));
+        adapter = new Moshi.Builder().add(new BigDecimalAdapter()).build().adapter(typeOf(response));
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return adapter.fromJson(new Buffer().write(body));
+    }
+
+    private static Class<?> typeOf(String response) {
+        switch (response) {
+            case "products.json":
+                return ProductsResponse.class;
+            case "product.json":
+                return Product.class;
+            case "price_estimates.json":
+                return PriceEstimatesResponse.class;
+            case "time_estimates.json":
+                return TimeEstimatesResponse.class;
+            case "promotion.json":
+                return Promotion.class;
+            case "user_activity.json":
+                return UserActivityPage.class;
+            case "user_profile.json":
+                return UserProfile.class;
+            case "ride.json":
+                return Ride.class;
+            case "ride_estimate.json":
+                return RideEstimate.class;
+            case "ride_map.json":
+                return RideMap.class;
+            case "ride_receipt.json":
+                return RideReceipt.class;
+            case "place.json":
+                return Place.class;
+            case "payment_methods.json":
+                return PaymentMethodsResponse.class;
+            default:
+                throw new IllegalArgumentException("No model for " + response);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import okio.Okio;
+
+/**
+ * Canned Uber API response bodies used by the benchmarks.
+ */
+public final class Responses {
+
+    public static final String PRODUCTS = load("products.json");
+    public static final String PRICE_ESTIMATES = load("price_estimates.json");
+
+    private Responses() {}
+
+    /**
+     * Returns the body stored as {@code /responses/<name>} on the benchmark classpath.
+     */
+    public static String load(String name) {
+        try (InputStream in = Responses.class.getResourceAsStream("/responses/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing response resource " + name);
+            }
+            return Okio.buffer(Okio.source(in)).readUtf8();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read response resource " + name, e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.benchmarks;
+
+import com.uber.sdk.core.auth.Scope;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts scopes between their OAuth string, their bit values and {@link Scope} sets, as done for every token
+ * read or stored.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ScopeBenchmark {
+
+    private String standardString;
+    private int bitValues;
+    private List<Scope> scopes;
+
+    @Setup
+    public void setUp() {
+        scopes = Arrays.asList(Scope.PROFILE, Scope.HISTORY, Scope.PLACES, Scope.REQUEST, Scope.REQUEST_RECEIPT);
+        standardString = Scope.toStandardString(scopes);
+        for (Scope scope : scopes) {
+            bitValues |= scope.getBitValue();
+        }
+    }
+
+    @Benchmark
+    public Set<Scope> parseScopes() {
+        return Scope.parseScopes(standardString);
+    }
+
+    @Benchmark
+    public Set<Scope> parseScopesBitValues() {
+        return Scope.parseScopes(bitValues);
+    }
+
+    @Benchmark
+    public String toStandardString() {
+        return Scope.toStandardString(scopes);
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.benchmarks.load;
+
+import com.uber.sdk.benchmarks.Responses;
+import com.uber.sdk.core.auth.AccessToken;
+import com.uber.sdk.core.auth.Scope;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nonnull;
+import javax.net.ServerSocketFactory;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * A local stand-in for the {@code /v1.2} endpoints of {@code RidesService} and the token endpoint, serving the
+ * canned {@link Responses} after a fixed latency.
+ *
+ * Each request is signed with an access token issued by {@link #issueToken()} or by a refresh. A token expires at
+ * random with the unauthorized rate, from then on it is answered with a 401 until the client refreshes it. Other
+ * requests fail with a 500 at the error rate.
+ */
+public final class FakeUberApi implements Closeable {
+
+    private static final String TOKEN_PATH = "/oauth/v2/mobile/token";
+    private static final String BEARER = "Bearer ";
+
+    private final MockWebServer server = new MockWebServer();
+    private final ConcurrentMap<String, String> responses = new ConcurrentHashMap<>();
+    private final long latencyMillis;
+    private final double errorRate;
+    private final double unauthorizedRate;
+
+    private final ConcurrentMap<String, String> refreshTokens = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Boolean> validTokens = new ConcurrentHashMap<>();
+    private final AtomicLong tokenSequence = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong tokenRequestCount = new AtomicLong();
+    private final AtomicLong unauthorizedCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+
+    /**
+     * @param latencyMillis the delay before each response.
+     * @param errorRate the share of API requests answered with a 500, from 0 to 1.
+     * @param unauthorizedRate the share of API requests expiring their access token, from 0 to 1.
+     */
+    public FakeUberApi(long latencyMillis, double errorRate, double unauthorizedRate) {
+        if (latencyMillis < 0) {
+            throw new IllegalArgumentException("Latency must not be negative");
+        }
+        if (errorRate < 0 || errorRate > 1 || unauthorizedRate < 0 || unauthorizedRate > 1) {
+            throw new IllegalArgumentException("Rates must be between 0 and 1");
+        }
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.unauthorizedRate = unauthorizedRate;
+    }
+
+    /**
+     * Starts the server on a local port.
+     */
+    public void start() throws IOException {
+        // MockWebServer logs every request, which would bound the throughput by the console.
+        Logger.getLogger(MockWebServer.class.getName()).setLevel(Level.WARNING);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                Thread.sleep(latencyMillis);
+                return FakeUberApi.this.dispatch(request);
+            }
+        });
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.start();
+    }
+
+    /**
+     * @return the URL of the server, to use as API and login host.
+     */
+    @Nonnull
+    public HttpUrl url() {
+        return server.url("/");
+    }
+
+    /**
+     * Issues an access token for a new user.
+     */
+    @Nonnull
+    public AccessToken issueToken() {
+        long sequence = tokenSequence.incrementAndGet();
+        String refreshToken = "refresh-" + sequence;
+        String accessToken = "access-" + sequence;
+        refreshTokens.put(refreshToken, accessToken);
+        validTokens.put(accessToken, Boolean.TRUE);
+        return new AccessToken(2592000, Collections.singleton(Scope.PROFILE), accessToken, refreshToken, "Bearer");
+    }
+
+    /**
+     * @return the number of API requests served, not counting token requests.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return the number of token refresh requests served.
+     */
+    public long getTokenRequestCount() {
+        return tokenRequestCount.get();
+    }
+
+    /**
+     * @return the number of 401 responses served.
+     */
+    public long getUnauthorizedCount() {
+        return unauthorizedCount.get();
+    }
+
+    /**
+     * @return the number of 500 responses served.
+     */
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private MockResponse dispatch(RecordedRequest request) {
+        String path = request.getPath();
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+
+        if (TOKEN_PATH.equals(path)) {
+            return refresh(request);
+        }
+
+        requestCount.incrementAndGet();
+        String authorization = request.getHeader("Authorization");
+        String accessToken = authorization != null && authorization.startsWith(BEARER)
+                ? authorization.substring(BEARER.length()) : null;
+        Random random = random();
+        if (accessToken == null || !validTokens.containsKey(accessToken)
+                || (random.nextDouble() < unauthorizedRate && validTokens.remove(accessToken) != null)) {
+            unauthorizedCount.incrementAndGet();
+            return json(401, "{\"message\":\"Invalid OAuth 2.0 credentials provided.\",\"code\":\"unauthorized\"}");
+        }
+        if (random.nextDouble() < errorRate) {
+            errorCount.incrementAndGet();
+            return json(500, "{\"message\":\"Internal server error\",\"code\":\"internal_server_error\"}");
+        }
+
+        if ("DELETE".equals(request.getMethod())) {
+            return new MockResponse().setResponseCode(204);
+        }
+        String response = responseFor(path);
+        if (response == null) {
+            return json(404, "{\"message\":\"Not found\",\"code\":\"not_found\"}");
+        }
+        String body = responses.get(response);
+        if (body == null) {
+            body = Responses.load(response);
+            responses.put(response, body);
+        }
+        return json(200, body);
+    }
+
+    private MockResponse refresh(RecordedRequest request) {
+        tokenRequestCount.incrementAndGet();
+        String refreshToken = HttpUrl.parse("http://localhost/?" + request.getBody().readUtf8())
+                .queryParameter("refresh_token");
+        if (refreshToken == null || !refreshTokens.containsKey(refreshToken)) {
+            return json(400, "{\"error\":\"invalid_grant\"}");
+        }
+
+        String accessToken = "access-" + tokenSequence.incrementAndGet();
+        String previous = refreshTokens.put(refreshToken, accessToken);
+        if (previous != null) {
+            validTokens.remove(previous);
+        }
+        validTokens.put(accessToken, Boolean.TRUE);
+        return json(200, "{\"access_token\":\"" + accessToken + "\",\"refresh_token\":\"" + refreshToken
+                + "\",\"expires_in\":2592000,\"token_type\":\"Bearer\",\"scope\":\"profile\"}");
+    }
+
+    private static String responseFor(String path) {
+        String[] segments = path.split("/");
+        if (segments.length < 3 || !"v1.2".equals(segments[1])) {
+            return null;
+        }
+
+        String resource = segments[2];
+        int depth = segments.length - 2;
+        switch (resource) {
+            case "products":
+                return depth == 1 ? "products.json" : "product.json";
+            case "estimates":
+                return depth == 2 && "price".equals(segments[3]) ? "price_estimates.json" : "time_estimates.json";
+            case "promotions":
+                return "promotion.json";
+            case "history":
+                return "user_activity.json";
+            case "me":
+                return "user_profile.json";
+            case "payment-methods":
+                return "payment_methods.json";
+            case "places":
+                return "place.json";
+            case "requests":
+                if (depth == 2 && "estimate".equals(segments[3])) {
+                    return "ride_estimate.json";
+                } else if (depth == 3 && "map".equals(segments[4])) {
+                    return "ride_map.json";
+                } else if (depth == 3 && "receipt".equals(segments[4])) {
+                    return "ride_receipt.json";
+                }
+                return "ride.json";
+            default:
+                return null;
+        }
+    }
+
+    private static MockResponse json(int code, String body) {
+        return new MockResponse()
+                .setResponseCode(code)
+                .setHeader("Content-Type", "application/json")
+                .setBody(body);
+    }
+
+    /**
+     * Disables Nagle's algorithm on accepted connections. MockWebServer writes the headers and the body of a
+     * response apart, so with it every response would wait for the delayed ACK of the client.
+     */
+    private static final class NoDelayServerSocketFactory extends ServerSocketFactory {
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    return socket;
+                }
+            };
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static Random random() {
+        return RANDOM.get();
+    }
+
+    private static final ThreadLocal<Random> RANDOM = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+}
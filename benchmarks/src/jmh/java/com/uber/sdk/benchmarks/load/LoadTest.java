@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.benchmarks.load;
+
+import com.uber.sdk.benchmarks.LocalSessionConfiguration;
+import com.uber.sdk.core.auth.AccessTokenAuthenticator;
+import com.uber.sdk.core.auth.MultiUserAccessTokenStorage;
+import com.uber.sdk.core.auth.RefreshCoordinator;
+import com.uber.sdk.core.auth.Scope;
+import com.uber.sdk.core.client.Session;
+import com.uber.sdk.core.client.SessionConfiguration;
+import com.uber.sdk.rides.client.SharedRidesApi;
+import com.uber.sdk.rides.client.UberRidesApi;
+import com.uber.sdk.rides.client.model.RideRequestParameters;
+import com.uber.sdk.rides.client.services.RidesService;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Drives many users of one {@link SharedRidesApi} against a {@link FakeUberApi} at a fixed request rate.
+ *
+ * Requests are issued open loop: each is due at a fixed interval after the previous one whether or not earlier
+ * requests completed, and its latency is measured from when it was due, so stalls in the client show up in the
+ * percentiles rather than lowering the offered load. After the warmup the run reports throughput, latency
+ * percentiles, outcomes, token refreshes and the allocation rate of the client threads.
+ *
+ * <pre>
+ * ./gradlew :benchmarks:loadTest -PloadTestArgs="--rps=2000 --users=500 --latency=20 --unauthorized-rate=0.01"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final String CLIENT_ID = "load-test";
+
+    private final Options options;
+    private final LatencyRecorder latencies = new LatencyRecorder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong errored = new AtomicLong();
+
+    private LoadTest(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest(Options.parse(args)).run();
+        // The idle dispatcher threads of the clients would otherwise keep the JVM alive for a minute.
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        try (FakeUberApi server = new FakeUberApi(options.latencyMillis, options.errorRate, options.unauthorizedRate)) {
+            server.start();
+
+            SessionConfiguration configuration = new LocalSessionConfiguration(server.url(), CLIENT_ID,
+                    Collections.singleton(Scope.PROFILE));
+            UberRidesApi.Builder builder = UberRidesApi.shared(configuration)
+                    .setMaxRequests(options.maxRequests);
+            if (options.virtualThreads) {
+                builder.setVirtualThreadsEnabled(true);
+            }
+            SharedRidesApi api = builder.buildShared();
+
+            MultiUserAccessTokenStorage storage = new MultiUserAccessTokenStorage();
+            RefreshCoordinator coordinator = new RefreshCoordinator();
+            List<RidesService> services = new ArrayList<>(options.users);
+            for (int i = 0; i < options.users; i++) {
+                String userId = "user-" + i;
+                storage.setAccessToken(userId, server.issueToken());
+                services.add(api.createService(new Session<AccessTokenAuthenticator>(
+                        new AccessTokenAuthenticator(configuration, storage.forUser(userId), coordinator)) {}));
+            }
+
+            System.out.printf(Locale.US, "Offering %d requests/s from %d users for %ds after a %ds warmup%n",
+                    options.rps, options.users, options.durationSeconds, options.warmupSeconds);
+
+            long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rps;
+            long start = System.nanoTime();
+            long measureStart = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+            long end = measureStart + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+
+            Snapshot before = null;
+            long issued = 0;
+            for (long due = start; due < end; due += intervalNanos) {
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (before == null && due >= measureStart) {
+                    before = new Snapshot(server, coordinator);
+                }
+                RidesService service = services.get((int) (issued++ % options.users));
+                Operation operation = Operation.VALUES[(int) (issued % Operation.VALUES.length)];
+                send(operation.call(service), due, due >= measureStart);
+            }
+
+            long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+                Thread.sleep(10);
+            }
+            Snapshot after = new Snapshot(server, coordinator);
+            report(before != null ? before : after, after, measureStart, inFlight.get());
+        }
+    }
+
+    private void send(Call<?> call, final long due, final boolean measured) {
+        inFlight.incrementAndGet();
+        @SuppressWarnings("unchecked")
+        Call<Object> untyped = (Call<Object>) call;
+        untyped.enqueue(new Callback<Object>() {
+            @Override
+            public void onResponse(Call<Object> call, Response<Object> response) {
+                complete(due, measured, response.isSuccessful() ? succeeded : errored);
+            }
+
+            @Override
+            public void onFailure(Call<Object> call, Throwable t) {
+                complete(due, measured, failed);
+            }
+        });
+    }
+
+    private void complete(long due, boolean measured, AtomicLong outcome) {
+        if (measured) {
+            latencies.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due));
+            outcome.incrementAndGet();
+        }
+        inFlight.decrementAndGet();
+    }
+
+    private void report(Snapshot before, Snapshot after, long measureStart, int unfinished) {
+        // The loop may issue late when it falls behind, so time from when the first measured request was due.
+        double seconds = (after.nanoTime - measureStart) / 1e9;
+        int completed = latencies.count();
+
+        System.out.printf(Locale.US, "Throughput      %.1f requests/s%n", completed / seconds);
+        System.out.printf(Locale.US, "Latency (ms)    p50 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                latencies.percentile(50) / 1e3, latencies.percentile(99) / 1e3,
+                latencies.percentile(99.9) / 1e3, latencies.percentile(100) / 1e3);
+        System.out.printf(Locale.US, "Outcomes        %d ok, %d HTTP errors, %d failures, %d unfinished%n",
+                succeeded.get(), errored.get(), failed.get(), unfinished);
+        System.out.printf(Locale.US, "Server          %d API requests, %d 401s, %d 500s%n",
+                after.requests - before.requests, after.unauthorized - before.unauthorized,
+                after.errors - before.errors);
+        System.out.printf(Locale.US, "Token refreshes %d refreshed, %d merged, %d token requests%n",
+                after.refreshes - before.refreshes, after.merged - before.merged,
+                after.tokenRequests - before.tokenRequests);
+        if (after.allocatedBytes >= 0) {
+            long allocated = after.allocatedBytes - before.allocatedBytes;
+            System.out.printf(Locale.US, "Allocation      %.1f MB/s, %.1f KB/request%n",
+                    allocated / seconds / (1 << 20), completed > 0 ? allocated / 1024.0 / completed : 0);
+        }
+    }
+
+    /**
+     * Counters at a point of the run.
+     */
+    private static final class Snapshot {
+        final long nanoTime = System.nanoTime();
+        final long requests;
+        final long unauthorized;
+        final long errors;
+        final long tokenRequests;
+        final long refreshes;
+        final long merged;
+        final long allocatedBytes = allocatedBytes();
+
+        Snapshot(FakeUberApi server, RefreshCoordinator coordinator) {
+            requests = server.getRequestCount();
+            unauthorized = server.getUnauthorizedCount();
+            errors = server.getErrorCount();
+            tokenRequests = server.getTokenRequestCount();
+            refreshes = coordinator.getRefreshCount();
+            merged = coordinator.getMergedCount();
+        }
+
+        /**
+         * Sums the bytes allocated by live threads other than those of the server, or returns -1 when the JVM
+         * does not measure it. Threads that ended since the last snapshot are not counted.
+         */
+        private static long allocatedBytes() {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+                return -1;
+            }
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+                return -1;
+            }
+
+            long total = 0;
+            for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+                if (info != null && !info.getThreadName().startsWith("MockWebServer")) {
+                    long allocated = threads.getThreadAllocatedBytes(info.getThreadId());
+                    if (allocated > 0) {
+                        total += allocated;
+                    }
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * The mix of requests made, cycled through in order.
+     */
+    private enum Operation {
+        PRODUCTS {
+            @Override
+            Call<?> call(RidesService service) {
+                return service.getProducts(37.79f, -122.39f);
+            }
+        },
+        PRICE_ESTIMATES {
+            @Override
+            Call<?> call(RidesService service) {
+                return service.getPriceEstimates(37.79f, -122.39f, 37.77f, -122.41f);
+            }
+        },
+        TIME_ESTIMATES {
+            @Override
+            Call<?> call(RidesService service) {
+                return service.getPickupTimeEstimate(37.79f, -122.39f, null);
+            }
+        },
+        USER_PROFILE {
+            @Override
+            Call<?> call(RidesService service) {
+                return service.getUserProfile();
+            }
+        },
+        USER_ACTIVITY {
+            @Override
+            Call<?> call(RidesService service) {
+                return service.getUserActivity(0, 50);
+            }
+        },
+        RIDE_ESTIMATE {
+            @Override
+            Call<?> call(RidesService service) {
+                return service.estimateRide(RIDE_REQUEST);
+            }
+        },
+        CURRENT_RIDE {
+            @Override
+            Call<?> call(RidesService service) {
+                return service.getCurrentRide();
+            }
+        },
+        PAYMENT_METHODS {
+            @Override
+            Call<?> call(RidesService service) {
+                return service.getPaymentMethods();
+            }
+        };
+
+        static final Operation[] VALUES = values();
+
+        private static final RideRequestParameters RIDE_REQUEST = new RideRequestParameters.Builder()
+                .setPickupCoordinates(37.79f, -122.39f)
+                .setDropoffCoordinates(37.77f, -122.41f)
+                .build();
+
+        abstract Call<?> call(RidesService service);
+    }
+
+    /**
+     * A {@link SessionConfiguration} pointing the API and login hosts at a local server.
+     */
+    /**
+     * Command line options, given as {@code --name=value}.
+     */
+    private static final class Options {
+        int rps = 500;
+        int durationSeconds = 30;
+        int warmupSeconds = 10;
+        int users = 100;
+        long latencyMillis = 10;
+        double errorRate = 0;
+        double unauthorizedRate = 0;
+        int maxRequests = 256;
+        boolean virtualThreads;
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (!arg.startsWith("--") || separator < 0) {
+                    throw new IllegalArgumentException("Expected --name=value but got " + arg);
+                }
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+
+            Options options = new Options();
+            options.rps = intValue(values.remove("rps"), options.rps);
+            options.durationSeconds = intValue(values.remove("duration"), options.durationSeconds);
+            options.warmupSeconds = intValue(values.remove("warmup"), options.warmupSeconds);
+            options.users = intValue(values.remove("users"), options.users);
+            options.latencyMillis = intValue(values.remove("latency"), (int) options.latencyMillis);
+            options.errorRate = doubleValue(values.remove("error-rate"), options.errorRate);
+            options.unauthorizedRate = doubleValue(values.remove("unauthorized-rate"), options.unauthorizedRate);
+            options.maxRequests = intValue(values.remove("max-requests"), options.maxRequests);
+            String virtualThreads = values.remove("virtual-threads");
+            options.virtualThreads = virtualThreads != null && Boolean.parseBoolean(virtualThreads);
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException("Unknown options " + values.keySet());
+            }
+            if (options.rps < 1 || options.users < 1 || options.durationSeconds < 1 || options.warmupSeconds < 0) {
+                throw new IllegalArgumentException("rps, users and duration must be positive");
+            }
+            return options;
+        }
+
+        private static int intValue(String value, int defaultValue) {
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        }
+
+        private static double doubleValue(String value, double defaultValue) {
+            return value != null ? Double.parseDouble(value) : defaultValue;
+        }
+    }
+}
@@ -23,24 +23,40 @@
 package com.uber.sdk.core.auth;
 
 import com.google.api.client.auth.oauth2.Credential;
+import com.uber.sdk.core.auth.internal.AuthorizationHeaderCache;
+import com.uber.sdk.core.auth.internal.AuthorizationHeaderProvider;
 import com.uber.sdk.core.client.SessionConfiguration;
 import com.uber.sdk.core.client.internal.ApiInterceptor;
 
 import java.io.IOException;
+import java.util.concurrent.Callable;
 
 import okhttp3.Request;
 import okhttp3.Response;
 
 public class CredentialsAuthenticator extends BaseRefreshableAuthenticator implements
-        Authenticator {
-    static final String HEADER_BEARER_ACCESS_VALUE = "Bearer %s";
+        Authenticator, AuthorizationHeaderProvider {
+    static final String HEADER_BEARER_SCHEME = "Bearer";
 
     private final Credential credential;
     private final SessionConfiguration sessionConfiguration;
+    private final RefreshCoordinator refreshCoordinator;
+    private final AuthorizationHeaderCache authorizationHeader = new AuthorizationHeaderCache(HEADER_BEARER_SCHEME);
 
     public CredentialsAuthenticator(SessionConfiguration sessionConfiguration, Credential credential) {
+        this(sessionConfiguration, credential, RefreshCoordinator.getDefault());
+    }
+
+    /**
+     * @param refreshCoordinator coordinates refreshes with other authenticators, such as those of other users
+     * whose refresh counts should be tracked apart.
+     */
+    public CredentialsAuthenticator(SessionConfiguration sessionConfiguration,
+                                    Credential credential,
+                                    RefreshCoordinator refreshCoordinator) {
         this.credential = credential;
         this.sessionConfiguration = sessionConfiguration;
+        this.refreshCoordinator = refreshCoordinator;
     }
 
     @Override
@@ -48,6 +64,11 @@ public class CredentialsAuthenticator extends BaseRefreshableAuthenticator imple
         setBearerToken(builder, credential);
     }
 
+    @Override
+    public String getAuthorizationHeader() {
+        return createBearerToken(credential);
+    }
+
     @Override
     public boolean isRefreshable() {
         return true;
@@ -75,12 +96,12 @@ public class CredentialsAuthenticator extends BaseRefreshableAuthenticator imple
         return credential;
     }
 
-    private static void setBearerToken(Request.Builder builder, Credential credential) {
+    private void setBearerToken(Request.Builder builder, Credential credential) {
         ApiInterceptor.setAuthorizationHeader(builder, createBearerToken(credential));
     }
 
-    private static String createBearerToken(Credential credential) {
-        return String.format(HEADER_BEARER_ACCESS_VALUE, credential.getAccessToken());
+    private String createBearerToken(Credential credential) {
+        return authorizationHeader.get(credential.getAccessToken());
     }
 
     private Request resign(Response response, Credential credential) {
@@ -90,8 +111,16 @@ public class CredentialsAuthenticator extends BaseRefreshableAuthenticator imple
         return builder.build();
     }
 
-    private Request refreshAndSign(Response response, Credential credential) throws IOException {
-        credential.refreshToken();
+    private Request refreshAndSign(final Response response, final Credential credential) throws IOException {
+        refreshCoordinator.refresh(credential.getRefreshToken(), new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                if (!signedByOldToken(response, credential)) {
+                    credential.refreshToken();
+                }
+                return null;
+            }
+        });
         return resign(response, credential);
     }
 
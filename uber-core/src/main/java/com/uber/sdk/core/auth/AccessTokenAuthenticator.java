@@ -23,12 +23,16 @@
 package com.uber.sdk.core.auth;
 
 import com.squareup.moshi.Moshi;
+import com.uber.sdk.core.auth.internal.AuthorizationHeaderCache;
+import com.uber.sdk.core.auth.internal.AuthorizationHeaderProvider;
 import com.uber.sdk.core.auth.internal.OAuth2Service;
 import com.uber.sdk.core.auth.internal.OAuthScopesAdapter;
 import com.uber.sdk.core.client.SessionConfiguration;
 import com.uber.sdk.core.client.internal.ApiInterceptor;
 
 import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import okhttp3.Request;
 import okhttp3.Response;
@@ -36,41 +40,70 @@ import retrofit2.Retrofit;
 import retrofit2.converter.moshi.MoshiConverterFactory;
 
 public class AccessTokenAuthenticator extends
-        BaseRefreshableAuthenticator implements Authenticator {
+        BaseRefreshableAuthenticator implements Authenticator, AuthorizationHeaderProvider {
 
-    private static final String HEADER_BEARER_ACCESS_VALUE = "Bearer %s";
+    private static final String HEADER_BEARER_SCHEME = "Bearer";
     private static final String TOKEN_URL = "%s/oauth/v2/mobile/";
 
     private final SessionConfiguration sessionConfiguration;
     private final AccessTokenStorage tokenStorage;
     private final OAuth2Service auth2Service;
+    private final RefreshCoordinator refreshCoordinator;
+    private final AuthorizationHeaderCache authorizationHeader = new AuthorizationHeaderCache(HEADER_BEARER_SCHEME);
+    private volatile ProactiveTokenRefresher refresher;
 
     public AccessTokenAuthenticator(SessionConfiguration sessionConfiguration,
                                     AccessTokenStorage tokenStorage) {
+        this(sessionConfiguration, tokenStorage, RefreshCoordinator.getDefault());
+    }
+
+    /**
+     * @param refreshCoordinator coordinates refreshes with other authenticators, such as those of other users
+     * whose refresh counts should be tracked apart.
+     */
+    public AccessTokenAuthenticator(SessionConfiguration sessionConfiguration,
+                                    AccessTokenStorage tokenStorage,
+                                    RefreshCoordinator refreshCoordinator) {
         this(sessionConfiguration,
                 tokenStorage,
-                createOAuthService(String.format(TOKEN_URL, sessionConfiguration.getLoginHost())));
+                createOAuthService(String.format(TOKEN_URL, sessionConfiguration.getLoginHost())),
+                refreshCoordinator);
     }
 
     AccessTokenAuthenticator(SessionConfiguration sessionConfiguration,
                              AccessTokenStorage tokenStorage,
                              OAuth2Service auth2Service) {
+        this(sessionConfiguration, tokenStorage, auth2Service, RefreshCoordinator.getDefault());
+    }
+
+    AccessTokenAuthenticator(SessionConfiguration sessionConfiguration,
+                             AccessTokenStorage tokenStorage,
+                             OAuth2Service auth2Service,
+                             RefreshCoordinator refreshCoordinator) {
         this.sessionConfiguration = sessionConfiguration;
         this.tokenStorage = tokenStorage;
         this.auth2Service = auth2Service;
+        this.refreshCoordinator = refreshCoordinator;
     }
 
     @Override
     public void signRequest(Request.Builder builder) {
-        if(tokenStorage.getAccessToken() != null && tokenStorage.getAccessToken().getToken() !=
-                null) {
-            setBearerToken(builder, tokenStorage.getAccessToken());
+        AccessToken token = tokenStorage.getAccessToken();
+        if (token != null && token.getToken() != null) {
+            setBearerToken(builder, token);
         }
     }
 
+    @Override
+    public String getAuthorizationHeader() {
+        AccessToken token = tokenStorage.getAccessToken();
+        return token != null && token.getToken() != null ? createBearerToken(token) : null;
+    }
+
     @Override
     public boolean isRefreshable() {
-        return tokenStorage.getAccessToken() != null && tokenStorage.getAccessToken().getRefreshToken() != null;
+        AccessToken token = tokenStorage.getAccessToken();
+        return token != null && token.getRefreshToken() != null;
     }
 
     /**
@@ -81,6 +114,13 @@ public class AccessTokenAuthenticator extends
         return sessionConfiguration;
     }
 
+    /**
+     * Get RefreshCoordinator used to refresh the token
+     */
+    public RefreshCoordinator getRefreshCoordinator() {
+        return refreshCoordinator;
+    }
+
     /**
      * Get AccessTokenStorage used for authentication
      */
@@ -88,7 +128,7 @@ public class AccessTokenAuthenticator extends
         return tokenStorage;
     }
 
-    protected synchronized Request doRefresh(Response response) throws IOException {
+    protected Request doRefresh(Response response) throws IOException {
         final AccessToken token = tokenStorage.getAccessToken();
 
         if (signedByOldToken(response, token)) {
@@ -110,14 +150,68 @@ public class AccessTokenAuthenticator extends
         return resign(response, token);
     }
 
-    AccessToken refreshToken(AccessToken auth2Token) throws IOException {
-        AccessToken newToken = auth2Service.refresh(auth2Token.getRefreshToken(),
+    /**
+     * Refreshes the token, sharing the refresh of other requests for the same refresh token. Returns the stored
+     * token instead if it was already replaced. A token received from a refresh run by another authenticator is
+     * stored too, since that authenticator may use another {@link AccessTokenStorage}.
+     */
+    AccessToken refreshToken(final AccessToken auth2Token) throws IOException {
+        final AtomicBoolean ranHere = new AtomicBoolean();
+        AccessToken newToken = refreshCoordinator.refresh(auth2Token.getRefreshToken(), new Callable<AccessToken>() {
+            @Override
+            public AccessToken call() throws IOException {
+                ranHere.set(true);
+                AccessToken current = tokenStorage.getAccessToken();
+                if (current != null && !current.equals(auth2Token)) {
+                    return current;
+                }
+                return store(requestToken(auth2Token));
+            }
+        });
+        return ranHere.get() ? newToken : store(newToken);
+    }
+
+    AccessToken requestToken(AccessToken auth2Token) throws IOException {
+        retrofit2.Response<AccessToken> refreshResponse = auth2Service.refresh(auth2Token.getRefreshToken(),
                 sessionConfiguration.getClientId())
-                .execute().body();
+                .execute();
+        AccessToken newToken = refreshResponse.body();
+        if (newToken == null) {
+            throw new TokenRefreshException(refreshResponse.code());
+        }
+        return newToken;
+    }
+
+    private AccessToken store(AccessToken newToken) {
+        if (newToken.equals(tokenStorage.getAccessToken())) {
+            return newToken;
+        }
         tokenStorage.setAccessToken(newToken);
+
+        ProactiveTokenRefresher refresher = this.refresher;
+        if (refresher != null) {
+            refresher.onRefreshed(newToken);
+        }
         return newToken;
     }
 
+    /**
+     * Refreshes the token unless it was already replaced.
+     *
+     * @return whether the token was refreshed.
+     */
+    boolean refreshIfCurrent(AccessToken auth2Token) throws IOException {
+        if (auth2Token.equals(tokenStorage.getAccessToken())) {
+            refreshToken(auth2Token);
+            return true;
+        }
+        return false;
+    }
+
+    void setRefresher(ProactiveTokenRefresher refresher) {
+        this.refresher = refresher;
+    }
+
     boolean signedByOldToken(Response response, AccessToken oAuth2Token) {
         String value = ApiInterceptor.getAuthorizationHeader(response.request());
 
@@ -131,7 +225,7 @@ public class AccessTokenAuthenticator extends
     }
 
     String createBearerToken(AccessToken oAuth2Token) {
-        return String.format(HEADER_BEARER_ACCESS_VALUE, oAuth2Token.getToken());
+        return authorizationHeader.get(oAuth2Token.getToken());
     }
 
     static OAuth2Service createOAuthService(String baseUrl) {
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.core.auth;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * {@link AccessTokenStorage} holding a single token in memory.
+ *
+ * Reads are a single volatile read and never block, so the storage can be read on every request.
+ */
+public class InMemoryAccessTokenStorage implements AccessTokenStorage {
+
+    private volatile AccessToken accessToken;
+
+    public InMemoryAccessTokenStorage() {
+    }
+
+    /**
+     * @param accessToken the initial token.
+     */
+    public InMemoryAccessTokenStorage(@Nullable AccessToken accessToken) {
+        this.accessToken = accessToken;
+    }
+
+    @Nullable
+    @Override
+    public AccessToken getAccessToken() {
+        return accessToken;
+    }
+
+    @Override
+    public void setAccessToken(@Nonnull AccessToken token) {
+        accessToken = token;
+    }
+
+    @Override
+    public void removeAccessToken() {
+        accessToken = null;
+    }
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.core.auth;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * {@link MultiUserAccessTokenStorage} persisted to an append-only, memory-mapped log file.
+ *
+ * Reads are served from memory as in {@link MultiUserAccessTokenStorage}. Each change is appended to the log
+ * and forced to disk before it is visible. When replaced and removed tokens take up most of the log, the live
+ * tokens are rewritten to a new file that atomically replaces the log; a full log holding mostly live tokens is
+ * grown instead. Replaced mappings are released right away where the JDK allows it, so that the file can be
+ * replaced on Windows and mappings do not pile up until garbage collection.
+ *
+ * A record's length is written after its contents, so a record torn by a crash is ignored when the log is
+ * replayed by {@link #open(File)}. A file must be opened by one storage at a time.
+ */
+public class MappedFileAccessTokenStorage extends MultiUserAccessTokenStorage implements Closeable {
+
+    static final int MIN_CAPACITY = 64 * 1024;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int NULL_STRING = -1;
+
+    /**
+     * Moves a compacted log over the log, replaceable in tests.
+     */
+    interface Mover {
+        Mover ATOMIC = new Mover() {
+            @Override
+            public void move(File source, File target) throws IOException {
+                Files.move(source.toPath(), target.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        };
+
+        void move(File source, File target) throws IOException;
+    }
+
+    private final File file;
+    private final Mover mover;
+    private FileChannel channel;
+    private MappedByteBuffer log;
+    private int liveBytes;
+    private boolean closed;
+    @Nullable private IOException failure;
+
+    private MappedFileAccessTokenStorage(@Nonnull File file, @Nonnull Mover mover) {
+        this.file = file;
+        this.mover = mover;
+    }
+
+    /**
+     * Opens the storage, creating the file if needed and replaying the tokens it holds.
+     *
+     * @param file the log file.
+     * @throws IOException if the file could not be read or mapped.
+     */
+    @Nonnull
+    public static MappedFileAccessTokenStorage open(@Nonnull File file) throws IOException {
+        return open(file, Mover.ATOMIC);
+    }
+
+    @Nonnull
+    static MappedFileAccessTokenStorage open(@Nonnull File file, @Nonnull Mover mover) throws IOException {
+        MappedFileAccessTokenStorage storage = new MappedFileAccessTokenStorage(file, mover);
+        synchronized (storage) {
+            storage.map(Math.max(MIN_CAPACITY, file.length()));
+            storage.replay();
+        }
+        return storage;
+    }
+
+    /**
+     * Replace the token of a user with a new one, once appended to the log.
+     *
+     * @throws IllegalStateException if the change could not be written.
+     */
+    @Override
+    public synchronized void setAccessToken(@Nonnull String userId, @Nonnull AccessToken token) {
+        append(userId, encode(PUT, userId, token));
+        put(userId, token);
+    }
+
+    /**
+     * Remove the token of a user, once appended to the log.
+     *
+     * @throws IllegalStateException if the change could not be written.
+     */
+    @Override
+    public synchronized void removeAccessToken(@Nonnull String userId) {
+        if (getAccessToken(userId) == null) {
+            return;
+        }
+        append(userId, encode(REMOVE, userId, null));
+        put(userId, null);
+    }
+
+    /**
+     * Rewrites the log with the live tokens only.
+     *
+     * @throws IOException if the log could not be rewritten, in which case the current log is kept, or if neither
+     * log could be mapped again, in which case the storage is closed.
+     */
+    public synchronized void compact() throws IOException {
+        checkOpen();
+        Map<String, AccessToken> tokens = snapshot();
+        ByteBuffer[] records = new ByteBuffer[tokens.size()];
+        int size = 0;
+        int i = 0;
+        for (Map.Entry<String, AccessToken> token : tokens.entrySet()) {
+            records[i] = encode(PUT, token.getKey(), token.getValue());
+            size += 4 + records[i].remaining();
+            i++;
+        }
+
+        File compacted = new File(file.getPath() + ".compact");
+        try {
+            try (RandomAccessFile out = new RandomAccessFile(compacted, "rw")) {
+                out.setLength(0);
+                FileChannel compactedChannel = out.getChannel();
+                for (ByteBuffer record : records) {
+                    ByteBuffer length = ByteBuffer.allocate(4);
+                    length.putInt(0, record.remaining());
+                    compactedChannel.write(length);
+                    compactedChannel.write(record);
+                }
+                compactedChannel.force(true);
+            }
+
+            // The log is released before it is replaced, which Windows requires.
+            int position = log.position();
+            int capacity = log.capacity();
+            log.force();
+            unmap(log);
+            log = null;
+            try {
+                channel.close();
+                mover.move(compacted, file);
+            } catch (IOException e) {
+                remap(capacity, position, e);
+                throw e;
+            }
+            remap(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, size)) * 4L), size, null);
+            liveBytes = size;
+        } finally {
+            compacted.delete();
+        }
+    }
+
+    /**
+     * Gets the size of the log, including replaced and removed tokens.
+     */
+    public synchronized int getLogSize() {
+        if (log == null) {
+            throw new IllegalStateException("Access token storage is closed: " + file, failure);
+        }
+        return log.position();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            log.force();
+            channel.close();
+        }
+    }
+
+    private void append(String userId, ByteBuffer record) {
+        try {
+            checkOpen();
+            int recordSize = 4 + record.remaining();
+            boolean full = log.position() + recordSize + 4 > log.capacity();
+            if ((full || log.position() > MIN_CAPACITY) && liveBytes < log.position() / 2) {
+                compact();
+            }
+            if (log.position() + recordSize + 4 > log.capacity()) {
+                int position = log.position();
+                map(Math.max(log.capacity() * 2L, position + recordSize + 4L));
+                log.position(position);
+            }
+
+            int position = log.position();
+            log.position(position + 4);
+            log.put(record);
+            log.putInt(position + recordSize, 0);
+            log.force();
+            log.putInt(position, recordSize - 4);
+            log.force();
+            log.position(position + recordSize);
+
+            AccessToken previous = getAccessToken(userId);
+            if (previous != null) {
+                liveBytes -= 4 + encode(PUT, userId, previous).remaining();
+            }
+            if (record.get(0) == PUT) {
+                liveBytes += recordSize;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to write access token to " + file, e);
+        }
+    }
+
+    /**
+     * Maps the log again once released by {@link #compact()}, closing the storage if it cannot be mapped.
+     *
+     * @param cause the failure being recovered from, if any, to which a failure to map is added.
+     */
+    private void remap(long capacity, int position, @Nullable IOException cause) throws IOException {
+        try {
+            map(capacity);
+            log.position(position);
+        } catch (IOException e) {
+            if (cause != null) {
+                cause.addSuppressed(e);
+            }
+            closed = true;
+            failure = cause != null ? cause : e;
+            if (channel != null) {
+                channel.close();
+            }
+            if (cause == null) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Maps the log with a capacity, reusing the open channel if any and releasing the previous mapping.
+     */
+    private void map(long capacity) throws IOException {
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("Access token log too large: " + capacity);
+        }
+        if (channel == null || !channel.isOpen()) {
+            channel = new RandomAccessFile(file, "rw").getChannel();
+        }
+        MappedByteBuffer previous = log;
+        log = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        if (previous != null) {
+            unmap(previous);
+        }
+    }
+
+    /**
+     * Releases a mapping now instead of when it is garbage collected. The buffer must not be used afterwards.
+     * Where the JDK offers no way to release it, the mapping is left to the garbage collector.
+     */
+    static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return;
+        } catch (NoSuchMethodException e) {
+            // Before Java 9, the cleaner is reached through the buffer.
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return;
+        }
+
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Left to the garbage collector.
+        }
+    }
+
+    private void replay() {
+        int position = 0;
+        while (position + 4 <= log.capacity()) {
+            int length = log.getInt(position);
+            if (length <= 0 || position + 4 + length > log.capacity()) {
+                break;
+            }
+            ByteBuffer record = log.duplicate();
+            record.position(position + 4);
+            record.limit(position + 4 + length);
+            try {
+                byte type = record.get();
+                String userId = readString(record);
+                AccessToken previous = getAccessToken(userId);
+                if (previous != null) {
+                    liveBytes -= 4 + encode(PUT, userId, previous).remaining();
+                }
+                if (type == PUT) {
+                    put(userId, new AccessToken(record.getLong(), readString(record), readString(record),
+                            readString(record), readString(record)));
+                    liveBytes += 4 + length;
+                } else {
+                    put(userId, null);
+                }
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                break;
+            }
+            position += 4 + length;
+        }
+        log.position(position);
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Access token storage is closed: " + file, failure);
+        }
+    }
+
+    private static ByteBuffer encode(byte type, String userId, @Nullable AccessToken token) {
+        byte[] user = userId.getBytes(UTF_8);
+        byte[][] fields = new byte[4][];
+        int size = 1 + 4 + user.length;
+        if (token != null) {
+            fields[0] = bytes(Scope.toStandardString(token.getScopes()));
+            fields[1] = bytes(token.getToken());
+            fields[2] = bytes(token.getRefreshToken());
+            fields[3] = bytes(token.getTokenType());
+            size += 8;
+            for (byte[] field : fields) {
+                size += 4 + (field != null ? field.length : 0);
+            }
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(size);
+        record.put(type);
+        record.putInt(user.length).put(user);
+        if (token != null) {
+            record.putLong(token.getExpiresIn());
+            for (byte[] field : fields) {
+                if (field == null) {
+                    record.putInt(NULL_STRING);
+                } else {
+                    record.putInt(field.length).put(field);
+                }
+            }
+        }
+        record.flip();
+        return record;
+    }
+
+    @Nullable
+    private static byte[] bytes(@Nullable String value) {
+        return value != null ? value.getBytes(UTF_8) : null;
+    }
+
+    @Nullable
+    private static String readString(ByteBuffer record) {
+        int length = record.getInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        if (length < 0 || length > record.remaining()) {
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+        byte[] value = new byte[length];
+        record.get(value);
+        return new String(value, UTF_8);
+    }
+}
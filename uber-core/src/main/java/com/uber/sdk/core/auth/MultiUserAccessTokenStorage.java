@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.core.auth;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Stores the tokens of many users in memory, for servers making requests on behalf of their users.
+ *
+ * Each user's {@link #forUser(String) storage} holds its token in a volatile field, so reading it on every
+ * request is a single volatile read without a map lookup or lock.
+ *
+ * <pre>
+ * AccessTokenAuthenticator authenticator = new AccessTokenAuthenticator(config, storage.forUser(userId));
+ * </pre>
+ */
+public class MultiUserAccessTokenStorage {
+
+    private final ConcurrentMap<String, UserStorage> users = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the {@link AccessTokenStorage} of a user, backed by this storage.
+     *
+     * @param userId the user the tokens belong to.
+     */
+    @Nonnull
+    public AccessTokenStorage forUser(@Nonnull String userId) {
+        UserStorage storage = users.get(userId);
+        if (storage == null) {
+            UserStorage created = new UserStorage(this, userId);
+            storage = users.putIfAbsent(userId, created);
+            if (storage == null) {
+                storage = created;
+            }
+        }
+        return storage;
+    }
+
+    /**
+     * Returns the stored token of a user.
+     */
+    @Nullable
+    public AccessToken getAccessToken(@Nonnull String userId) {
+        UserStorage storage = users.get(userId);
+        return storage != null ? storage.accessToken : null;
+    }
+
+    /**
+     * Replace the token of a user with a new one.
+     */
+    public void setAccessToken(@Nonnull String userId, @Nonnull AccessToken token) {
+        put(userId, token);
+    }
+
+    /**
+     * Remove the token of a user.
+     */
+    public void removeAccessToken(@Nonnull String userId) {
+        put(userId, null);
+    }
+
+    void put(String userId, @Nullable AccessToken token) {
+        if (token != null) {
+            ((UserStorage) forUser(userId)).accessToken = token;
+        } else {
+            UserStorage storage = users.get(userId);
+            if (storage != null) {
+                storage.accessToken = null;
+            }
+        }
+    }
+
+    /**
+     * Gets the stored tokens by user.
+     */
+    @Nonnull
+    Map<String, AccessToken> snapshot() {
+        Map<String, AccessToken> tokens = new HashMap<>();
+        for (Map.Entry<String, UserStorage> user : users.entrySet()) {
+            AccessToken token = user.getValue().accessToken;
+            if (token != null) {
+                tokens.put(user.getKey(), token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Gets the users with a stored token.
+     */
+    @Nonnull
+    public Set<String> getUserIds() {
+        return new HashSet<>(snapshot().keySet());
+    }
+
+    static final class UserStorage implements AccessTokenStorage {
+        private final MultiUserAccessTokenStorage owner;
+        private final String userId;
+        volatile AccessToken accessToken;
+
+        UserStorage(MultiUserAccessTokenStorage owner, String userId) {
+            this.owner = owner;
+            this.userId = userId;
+        }
+
+        @Nullable
+        @Override
+        public AccessToken getAccessToken() {
+            return accessToken;
+        }
+
+        @Override
+        public void setAccessToken(@Nonnull AccessToken token) {
+            owner.setAccessToken(userId, token);
+        }
+
+        @Override
+        public void removeAccessToken() {
+            owner.removeAccessToken(userId);
+        }
+    }
+}
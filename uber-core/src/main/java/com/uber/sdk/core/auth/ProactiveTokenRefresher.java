@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.core.auth;
+
+import com.uber.sdk.core.client.internal.SdkExecutors;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Refreshes the {@link AccessToken} of an {@link AccessTokenAuthenticator} in the background ahead of its
+ * expiry, so requests are not failed with a 401 and held while the token is refreshed.
+ *
+ * Refreshes are scheduled {@link Builder#setLeadTime lead time} before {@link AccessToken#getExpiresIn()},
+ * less a random {@link Builder#setJitter jitter} so many sessions do not refresh at once. Since the storage
+ * does not record when a token was issued, the token stored at {@link #start()} is timed from that call.
+ * Refreshes run on an {@link Builder#setExecutor executor} of their own, so a slow token endpoint does not delay the
+ * refreshes of other sessions. Failed refreshes are retried, unless the token endpoint rejected the refresh token
+ * for good, and a 401 still triggers a refresh on the request thread.
+ */
+public class ProactiveTokenRefresher {
+
+    /**
+     * Builder for {@link ProactiveTokenRefresher}
+     */
+    public static class Builder {
+        static final long DEFAULT_LEAD_TIME_MILLIS = TimeUnit.MINUTES.toMillis(5);
+        static final long DEFAULT_JITTER_MILLIS = TimeUnit.MINUTES.toMillis(1);
+        static final long DEFAULT_RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+        final AccessTokenAuthenticator authenticator;
+        long leadTimeMillis = DEFAULT_LEAD_TIME_MILLIS;
+        long jitterMillis = DEFAULT_JITTER_MILLIS;
+        long retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+        ScheduledExecutorService scheduler;
+        Executor executor;
+
+        Builder(@Nonnull AccessTokenAuthenticator authenticator) {
+            this.authenticator = authenticator;
+        }
+
+        /**
+         * Sets how long before expiry the token is refreshed. Optional and defaults to 5 minutes.
+         */
+        @Nonnull
+        public Builder setLeadTime(long leadTime, @Nonnull TimeUnit unit) {
+            if (leadTime < 0) {
+                throw new IllegalArgumentException("leadTime < 0: " + leadTime);
+            }
+            this.leadTimeMillis = unit.toMillis(leadTime);
+            return this;
+        }
+
+        /**
+         * Sets the maximum random time a refresh is brought forward by. Optional and defaults to 1 minute.
+         */
+        @Nonnull
+        public Builder setJitter(long jitter, @Nonnull TimeUnit unit) {
+            if (jitter < 0) {
+                throw new IllegalArgumentException("jitter < 0: " + jitter);
+            }
+            this.jitterMillis = unit.toMillis(jitter);
+            return this;
+        }
+
+        /**
+         * Sets how long to wait before retrying a failed refresh. Optional and defaults to 30 seconds.
+         */
+        @Nonnull
+        public Builder setRetryDelay(long retryDelay, @Nonnull TimeUnit unit) {
+            if (retryDelay <= 0) {
+                throw new IllegalArgumentException("retryDelay <= 0: " + retryDelay);
+            }
+            this.retryDelayMillis = unit.toMillis(retryDelay);
+            return this;
+        }
+
+        /**
+         * Sets the {@link ScheduledExecutorService} timing refreshes. Optional and defaults to a shared daemon
+         * thread.
+         */
+        @Nonnull
+        public Builder setScheduler(@Nonnull ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Executor} refreshes run on. Optional and defaults to a shared pool of daemon threads.
+         */
+        @Nonnull
+        public Builder setExecutor(@Nonnull Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Create the {@link ProactiveTokenRefresher} to be used.
+         */
+        @Nonnull
+        public ProactiveTokenRefresher build() {
+            if (scheduler == null) {
+                scheduler = SdkExecutors.scheduler();
+            }
+            if (executor == null) {
+                executor = SdkExecutors.executor();
+            }
+            return new ProactiveTokenRefresher(this);
+        }
+    }
+
+    /**
+     * Starts a {@link Builder} for the {@link AccessTokenAuthenticator} whose token is refreshed.
+     */
+    @Nonnull
+    public static Builder with(@Nonnull AccessTokenAuthenticator authenticator) {
+        return new Builder(authenticator);
+    }
+
+    private final AccessTokenAuthenticator authenticator;
+    private final long leadTimeMillis;
+    private final long jitterMillis;
+    private final long retryDelayMillis;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+
+    private boolean running;
+    private ScheduledFuture<?> pending;
+
+    ProactiveTokenRefresher(Builder builder) {
+        this.authenticator = builder.authenticator;
+        this.leadTimeMillis = builder.leadTimeMillis;
+        this.jitterMillis = builder.jitterMillis;
+        this.retryDelayMillis = builder.retryDelayMillis;
+        this.scheduler = builder.scheduler;
+        this.executor = builder.executor;
+    }
+
+    /**
+     * Schedules a refresh of the stored token, and of each token it is refreshed to, until {@link #stop()}.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        authenticator.setRefresher(this);
+        schedule(authenticator.getTokenStorage().getAccessToken());
+    }
+
+    /**
+     * Cancels any scheduled refresh.
+     */
+    public synchronized void stop() {
+        running = false;
+        authenticator.setRefresher(null);
+        cancelPending();
+    }
+
+    /**
+     * Whether refreshes are scheduled.
+     */
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Called by the {@link AccessTokenAuthenticator} whenever the token was refreshed, proactively or not.
+     */
+    synchronized void onRefreshed(@Nonnull AccessToken token) {
+        if (running) {
+            schedule(token);
+        }
+    }
+
+    long delayMillis(@Nonnull AccessToken token) {
+        long jitter = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0;
+        return Math.max(0, TimeUnit.SECONDS.toMillis(token.getExpiresIn()) - leadTimeMillis - jitter);
+    }
+
+    private void schedule(@Nullable AccessToken token) {
+        cancelPending();
+        if (token == null || token.getRefreshToken() == null) {
+            return;
+        }
+        schedule(token, delayMillis(token));
+    }
+
+    private void schedule(final AccessToken token, long delayMillis) {
+        pending = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        refresh(token);
+                    }
+                });
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void refresh(AccessToken token) {
+        try {
+            if (!authenticator.refreshIfCurrent(token)) {
+                synchronized (this) {
+                    if (running) {
+                        schedule(authenticator.getTokenStorage().getAccessToken());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            if (!isPermanent(e)) {
+                retry(token);
+            }
+        }
+    }
+
+    private synchronized void retry(AccessToken token) {
+        if (running && token.equals(authenticator.getTokenStorage().getAccessToken())) {
+            schedule(token, retryDelayMillis);
+        }
+    }
+
+    /**
+     * Whether the refresh failed with a {@link TokenRefreshException} that retrying cannot fix, possibly shared by
+     * the {@link RefreshCoordinator} as a cause.
+     */
+    static boolean isPermanent(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TokenRefreshException) {
+                return ((TokenRefreshException) cause).isPermanent();
+            }
+        }
+        return false;
+    }
+
+    private void cancelPending() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.core.auth;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Runs at most one token refresh per identity at a time.
+ *
+ * Refreshes are keyed by identity, typically the refresh token. Callers refreshing an identity that is already
+ * being refreshed wait for that refresh and share its result, while other identities refresh in parallel.
+ * Waiters block on a latch rather than a monitor, so they do not pin virtual threads, and give up after a
+ * {@link #RefreshCoordinator(long, TimeUnit) maximum wait}.
+ *
+ * Authenticators use {@link #getDefault()} unless given a coordinator, so authenticators of the same user
+ * share refreshes.
+ */
+public class RefreshCoordinator {
+
+    /**
+     * The default connect, write and read timeouts of OkHttp added up, the longest a refresh normally takes.
+     */
+    static final long DEFAULT_MAX_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final RefreshCoordinator DEFAULT = new RefreshCoordinator();
+
+    private final long maxWaitNanos;
+    private final ConcurrentMap<String, Refresh<?>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong mergedCount = new AtomicLong();
+
+    /**
+     * Creates a coordinator whose waiters wait up to 30 seconds, the default timeouts of a request.
+     */
+    public RefreshCoordinator() {
+        this(DEFAULT_MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param maxWait how long a caller waits for a refresh already running before failing with an
+     * {@link InterruptedIOException}.
+     * @param unit the unit of {@code maxWait}.
+     */
+    public RefreshCoordinator(long maxWait, @Nonnull TimeUnit unit) {
+        if (maxWait <= 0) {
+            throw new IllegalArgumentException("Max wait must be positive: " + maxWait);
+        }
+        this.maxWaitNanos = unit.toNanos(maxWait);
+    }
+
+    /**
+     * The coordinator shared by authenticators created without one.
+     */
+    @Nonnull
+    public static RefreshCoordinator getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Runs the refresh of an identity, or waits for the refresh of that identity already running.
+     *
+     * @param key the identity refreshed, such as its refresh token. Refreshes without a key are not coordinated.
+     * @param refresh the refresh to run. It should check whether the credentials were already refreshed by a
+     * refresh that completed before it started.
+     * @return the result of the refresh, possibly shared with other callers.
+     * @throws IOException if the refresh failed, possibly shared with other callers.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T refresh(@Nullable String key, @Nonnull Callable<T> refresh) throws IOException {
+        if (key == null) {
+            refreshCount.incrementAndGet();
+            return Refresh.call(refresh);
+        }
+
+        Refresh<T> created = new Refresh<>();
+        Refresh<T> existing = (Refresh<T>) inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            mergedCount.incrementAndGet();
+            return existing.await(maxWaitNanos);
+        }
+
+        refreshCount.incrementAndGet();
+        try {
+            T result = Refresh.call(refresh);
+            created.complete(result, null);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            created.complete(null, e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+            if (!created.isComplete()) {
+                created.complete(null, new IOException("Token refresh did not complete"));
+            }
+        }
+    }
+
+    /**
+     * Gets the number of refreshes that ran.
+     */
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    /**
+     * Gets the number of callers that shared a refresh already running.
+     */
+    public long getMergedCount() {
+        return mergedCount.get();
+    }
+
+    /**
+     * Gets the number of identities being refreshed.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private static final class Refresh<T> {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private T result;
+        private Exception failure;
+
+        static <T> T call(Callable<T> refresh) throws IOException {
+            try {
+                return refresh.call();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+
+        void complete(T result, Exception failure) {
+            this.result = result;
+            this.failure = failure;
+            latch.countDown();
+        }
+
+        boolean isComplete() {
+            return latch.getCount() == 0;
+        }
+
+        T await(long timeoutNanos) throws IOException {
+            try {
+                if (!latch.await(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                    throw new InterruptedIOException("Timed out waiting for token refresh");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for token refresh");
+            }
+            if (failure instanceof IOException) {
+                throw new IOException(failure.getMessage(), failure);
+            } else if (failure != null) {
+                throw new IllegalStateException(failure.getMessage(), failure);
+            }
+            return result;
+        }
+    }
+}
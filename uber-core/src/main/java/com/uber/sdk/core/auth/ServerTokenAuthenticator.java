@@ -22,16 +22,19 @@
 
 package com.uber.sdk.core.auth;
 
+import com.uber.sdk.core.auth.internal.AuthorizationHeaderCache;
+import com.uber.sdk.core.auth.internal.AuthorizationHeaderProvider;
 import com.uber.sdk.core.client.SessionConfiguration;
 import com.uber.sdk.core.client.internal.ApiInterceptor;
 
 import okhttp3.Request;
 import okhttp3.Response;
 
-public class ServerTokenAuthenticator implements Authenticator {
-    static final String HEADER_TOKEN_ACCESS_VALUE = "Token %s";
+public class ServerTokenAuthenticator implements Authenticator, AuthorizationHeaderProvider {
+    static final String HEADER_TOKEN_SCHEME = "Token";
 
     private final SessionConfiguration sessionConfiguration;
+    private final AuthorizationHeaderCache authorizationHeader = new AuthorizationHeaderCache(HEADER_TOKEN_SCHEME);
 
     public ServerTokenAuthenticator(SessionConfiguration sessionConfiguration) {
         this.sessionConfiguration = sessionConfiguration;
@@ -39,8 +42,12 @@ public class ServerTokenAuthenticator implements Authenticator {
 
     @Override
     public void signRequest(Request.Builder builder) {
-        ApiInterceptor.setAuthorizationHeader(builder,
-                String.format(HEADER_TOKEN_ACCESS_VALUE, sessionConfiguration.getServerToken()));
+        ApiInterceptor.setAuthorizationHeader(builder, getAuthorizationHeader());
+    }
+
+    @Override
+    public String getAuthorizationHeader() {
+        return authorizationHeader.get(sessionConfiguration.getServerToken());
     }
 
     @Override
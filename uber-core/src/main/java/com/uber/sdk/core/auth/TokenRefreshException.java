@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.core.auth;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the token endpoint answered a refresh with an error.
+ */
+public class TokenRefreshException extends IOException {
+
+    private final int code;
+
+    public TokenRefreshException(int code) {
+        super("Unable to refresh access token, HTTP " + code);
+        this.code = code;
+    }
+
+    /**
+     * @return the HTTP status code of the token endpoint.
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Whether retrying cannot succeed, such as when the refresh token was revoked ({@code invalid_grant}).
+     * Client errors are permanent, except timeouts and rate limiting.
+     */
+    public boolean isPermanent() {
+        return code >= 400 && code < 500 && code != 408 && code != 429;
+    }
+}
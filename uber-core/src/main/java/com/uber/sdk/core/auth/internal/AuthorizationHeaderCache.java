@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.core.auth.internal;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Caches the Authorization header value of a credential, so it is only rebuilt when the credential changes.
+ *
+ * Safe for concurrent use. Looking up the header of the current credential does not allocate.
+ */
+public final class AuthorizationHeaderCache {
+
+    private final String prefix;
+    private volatile Entry entry;
+
+    /**
+     * @param scheme the authorization scheme, such as {@code Bearer}.
+     */
+    public AuthorizationHeaderCache(@Nonnull String scheme) {
+        this.prefix = scheme + ' ';
+    }
+
+    /**
+     * Gets the Authorization header value of a credential.
+     */
+    @Nonnull
+    public String get(@Nullable String credential) {
+        Entry entry = this.entry;
+        if (entry != null && (entry.credential == credential
+                || (credential != null && credential.equals(entry.credential)))) {
+            return entry.header;
+        }
+
+        String header = prefix + credential;
+        this.entry = new Entry(credential, header);
+        return header;
+    }
+
+    private static final class Entry {
+        final String credential;
+        final String header;
+
+        Entry(String credential, String header) {
+            this.credential = credential;
+            this.header = header;
+        }
+    }
+}
@@ -24,6 +24,8 @@ package com.uber.sdk.core.client.internal;
 
 import com.uber.sdk.BuildConfig;
 import com.uber.sdk.core.auth.Authenticator;
+import com.uber.sdk.core.auth.internal.AuthorizationHeaderProvider;
+import com.uber.sdk.core.client.SessionConfiguration;
 
 import java.io.IOException;
 
@@ -37,26 +39,66 @@ public class ApiInterceptor implements Interceptor {
     static final String LIB_VERSION = BuildConfig.VERSION;
     static final String HEADER_ACCEPT_LANGUAGE = "Accept-Language";
     static final String HEADER_USER_AGENT = "X-Uber-User-Agent";
+    static final String USER_AGENT = "Java Rides SDK v" + LIB_VERSION;
 
     public final Authenticator authenticator;
 
+    /**
+     * Set when the authenticator signs requests with just its Authorization header.
+     */
+    private final AuthorizationHeaderProvider authorizationHeaderProvider;
+    private volatile StaticHeaders staticHeaders;
+
     public ApiInterceptor(Authenticator authenticator) {
         this.authenticator = authenticator;
+        this.authorizationHeaderProvider = signsWithHeaderOnly(authenticator)
+                ? (AuthorizationHeaderProvider) authenticator
+                : null;
     }
 
     @Override
     public Response intercept(Chain chain) throws IOException {
-        Request.Builder requestBuilder = chain.request().newBuilder();
+        Request request = chain.request();
+        String language = getStaticHeaders().language;
 
-        requestBuilder.addHeader(HEADER_ACCEPT_LANGUAGE,
-                authenticator.getSessionConfiguration().getLocale().getLanguage());
+        if (authorizationHeaderProvider == null) {
+            Request.Builder requestBuilder = request.newBuilder()
+                    .header(HEADER_ACCEPT_LANGUAGE, language)
+                    .header(HEADER_USER_AGENT, USER_AGENT);
+            authenticator.signRequest(requestBuilder);
+            return chain.proceed(requestBuilder.build());
+        }
 
-        requestBuilder.addHeader(HEADER_USER_AGENT, "Java Rides SDK v" + LIB_VERSION);
+        String authorization = authorizationHeaderProvider.getAuthorizationHeader();
+        String currentLanguage = request.header(HEADER_ACCEPT_LANGUAGE);
+        String currentUserAgent = request.header(HEADER_USER_AGENT);
+        String currentAuthorization = authorization != null ? request.header(HEADER_ACCESS_TOKEN) : null;
+        if (language.equals(currentLanguage)
+                && USER_AGENT.equals(currentUserAgent)
+                && (authorization == null || authorization.equals(currentAuthorization))) {
+            return chain.proceed(request);
+        }
 
-        authenticator.signRequest(requestBuilder);
+        Request.Builder requestBuilder = request.newBuilder();
+        setHeader(requestBuilder, HEADER_ACCEPT_LANGUAGE, language, currentLanguage);
+        setHeader(requestBuilder, HEADER_USER_AGENT, USER_AGENT, currentUserAgent);
+        if (authorization != null) {
+            setHeader(requestBuilder, HEADER_ACCESS_TOKEN, authorization, currentAuthorization);
+        }
         return chain.proceed(requestBuilder.build());
     }
 
+    /**
+     * Sets a header, skipping the scan for existing values when the request had none.
+     */
+    private static void setHeader(Request.Builder builder, String name, String value, String current) {
+        if (current == null) {
+            builder.addHeader(name, value);
+        } else if (!value.equals(current)) {
+            builder.header(name, value);
+        }
+    }
+
     public static void setAuthorizationHeader(Request.Builder builder, String authorizationHeader) {
         builder.removeHeader(HEADER_ACCESS_TOKEN);
         builder.addHeader(HEADER_ACCESS_TOKEN, authorizationHeader);
@@ -65,4 +107,41 @@ public class ApiInterceptor implements Interceptor {
     public static String getAuthorizationHeader(Request request) {
         return request.header(HEADER_ACCESS_TOKEN);
     }
+
+    private StaticHeaders getStaticHeaders() {
+        SessionConfiguration configuration = authenticator.getSessionConfiguration();
+        StaticHeaders headers = staticHeaders;
+        if (headers == null || headers.configuration != configuration) {
+            headers = new StaticHeaders(configuration, configuration.getLocale().getLanguage());
+            staticHeaders = headers;
+        }
+        return headers;
+    }
+
+    /**
+     * Whether the authenticator's {@link Authenticator#signRequest} is the one its Authorization header
+     * describes, and not overridden by a subclass to add more.
+     */
+    private static boolean signsWithHeaderOnly(Authenticator authenticator) {
+        if (!(authenticator instanceof AuthorizationHeaderProvider)) {
+            return false;
+        }
+        try {
+            Class<?> type = authenticator.getClass();
+            return type.getMethod("signRequest", Request.Builder.class).getDeclaringClass()
+                    == type.getMethod("getAuthorizationHeader").getDeclaringClass();
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static final class StaticHeaders {
+        final SessionConfiguration configuration;
+        final String language;
+
+        StaticHeaders(SessionConfiguration configuration, String language) {
+            this.configuration = configuration;
+            this.language = language;
+        }
+    }
 }
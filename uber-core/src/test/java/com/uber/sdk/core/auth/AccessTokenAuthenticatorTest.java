@@ -7,6 +7,12 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
 
 import okhttp3.Protocol;
 import okhttp3.Request;
@@ -142,6 +148,60 @@ public class AccessTokenAuthenticatorTest {
         verify(accessTokenStorage).setAccessToken(accessToken);
     }
 
+    @Test
+    public void testRefreshToken_whenJoiningRefreshOfOtherAuthenticator_storesToken() throws Exception {
+        final AccessToken oldToken = new AccessToken(3600, Collections.<Scope>emptySet(), "old",
+                "refresh", "Bearer");
+        final AccessToken newToken = new AccessToken(3600, Collections.<Scope>emptySet(), "new",
+                "refresh2", "Bearer");
+        final CountDownLatch release = new CountDownLatch(1);
+        final RefreshCoordinator coordinator = new RefreshCoordinator();
+        final AccessTokenAuthenticator leader = new AccessTokenAuthenticator(config,
+                new InMemoryAccessTokenStorage(oldToken), service, coordinator);
+        AccessTokenAuthenticator joiner = new AccessTokenAuthenticator(config,
+                new InMemoryAccessTokenStorage(oldToken), service, coordinator);
+        when(config.getClientId()).thenReturn("clientId");
+        when(service.refresh(eq("refresh"), eq("clientId"))).thenReturn(serviceResult);
+        when(serviceResult.execute()).thenAnswer(new Answer<retrofit2.Response<AccessToken>>() {
+            @Override
+            public retrofit2.Response<AccessToken> answer(InvocationOnMock invocation)
+                    throws Throwable {
+                release.await();
+                return retrofit2.Response.success(newToken);
+            }
+        });
+
+        Thread leaderThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    leader.refreshToken(oldToken);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+        leaderThread.start();
+        while (coordinator.getInFlightCount() == 0) {
+            Thread.sleep(10);
+        }
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (coordinator.getMergedCount() == 0) {
+                    Thread.yield();
+                }
+                release.countDown();
+            }
+        }).start();
+
+        assertEquals(newToken, joiner.refreshToken(oldToken));
+        leaderThread.join();
+        assertEquals(newToken, joiner.getTokenStorage().getAccessToken());
+        assertEquals(newToken, leader.getTokenStorage().getAccessToken());
+        assertEquals(1, coordinator.getRefreshCount());
+    }
+
     @Test
     public void testSignedByOldToken_whenEqual_returnFalse() throws Exception {
         when(accessToken.getToken()).thenReturn("token1234");
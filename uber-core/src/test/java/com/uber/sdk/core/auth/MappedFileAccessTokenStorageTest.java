@@ -0,0 +1,209 @@
+package com.uber.sdk.core.auth;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class MappedFileAccessTokenStorageTest {
+
+    private static final AccessToken ALICE = new AccessToken(2592000,
+            Arrays.asList(Scope.PROFILE, Scope.HISTORY), "aliceToken", "aliceRefresh", "Bearer");
+    private static final AccessToken BOB = new AccessToken(2592000, Arrays.asList(Scope.REQUEST),
+            "bobToken", null, "Bearer");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = new File(folder.getRoot(), "tokens.log");
+    }
+
+    @Test
+    public void open_afterClose_replaysTokens() throws Exception {
+        try (MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file)) {
+            storage.forUser("alice").setAccessToken(BOB);
+            storage.forUser("alice").setAccessToken(ALICE);
+            storage.setAccessToken("bob", BOB);
+            storage.setAccessToken("carol", BOB);
+            storage.removeAccessToken("carol");
+        }
+
+        try (MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file)) {
+            assertThat(storage.forUser("alice").getAccessToken()).isEqualTo(ALICE);
+            assertThat(storage.getAccessToken("bob")).isEqualTo(BOB);
+            assertThat(storage.getUserIds()).containsOnly("alice", "bob");
+        }
+    }
+
+    @Test
+    public void open_withTornRecord_ignoresIt() throws Exception {
+        int size;
+        try (MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file)) {
+            storage.setAccessToken("alice", ALICE);
+            size = storage.getLogSize();
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(size + 4);
+            raf.writeByte(1);
+            raf.writeInt(5);
+            raf.writeBytes("carol");
+        }
+
+        try (MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file)) {
+            assertThat(storage.getAccessToken("alice")).isEqualTo(ALICE);
+            assertThat(storage.getLogSize()).isEqualTo(size);
+
+            storage.setAccessToken("bob", BOB);
+        }
+
+        try (MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file)) {
+            assertThat(storage.getUserIds()).containsOnly("alice", "bob");
+        }
+    }
+
+    @Test
+    public void compact_keepsLiveTokensOnly() throws Exception {
+        try (MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file)) {
+            for (int i = 0; i < 100; i++) {
+                storage.setAccessToken("alice", BOB);
+            }
+            storage.setAccessToken("alice", ALICE);
+            int size = storage.getLogSize();
+
+            storage.compact();
+
+            assertThat(storage.getLogSize()).isLessThan(size / 50);
+            assertThat(storage.getAccessToken("alice")).isEqualTo(ALICE);
+            storage.setAccessToken("bob", BOB);
+        }
+
+        try (MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file)) {
+            assertThat(storage.getAccessToken("alice")).isEqualTo(ALICE);
+            assertThat(storage.getAccessToken("bob")).isEqualTo(BOB);
+        }
+    }
+
+    @Test
+    public void setAccessToken_whenLogFull_compactsAutomatically() throws Exception {
+        try (MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file)) {
+            for (int i = 0; i < 5000; i++) {
+                storage.setAccessToken("user" + (i % 10), ALICE);
+            }
+
+            assertThat(storage.getLogSize()).isLessThanOrEqualTo(MappedFileAccessTokenStorage.MIN_CAPACITY);
+            assertThat(storage.getUserIds()).hasSize(10);
+        }
+
+        try (MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file)) {
+            assertThat(storage.getUserIds()).hasSize(10);
+        }
+    }
+
+    @Test
+    public void setAccessToken_whenLogFullOfLiveTokens_growsWithoutCompacting() throws Exception {
+        int users = 2000;
+        try (MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file)) {
+            for (int i = 0; i < users; i++) {
+                storage.setAccessToken("user" + i, ALICE);
+            }
+            storage.setAccessToken("user0", BOB);
+
+            assertThat(storage.getLogSize()).isGreaterThan(MappedFileAccessTokenStorage.MIN_CAPACITY);
+            assertThat(storage.getUserIds()).hasSize(users);
+        }
+
+        try (MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file)) {
+            assertThat(storage.getUserIds()).hasSize(users);
+            assertThat(storage.getAccessToken("user0")).isEqualTo(BOB);
+        }
+    }
+
+    @Test
+    public void compact_whenMoveFails_keepsLogAndDeletesCompactedFile() throws Exception {
+        MappedFileAccessTokenStorage.Mover failing = new MappedFileAccessTokenStorage.Mover() {
+            @Override
+            public void move(File source, File target) throws IOException {
+                throw new IOException("move failed");
+            }
+        };
+        try (MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file, failing)) {
+            storage.setAccessToken("alice", BOB);
+            storage.setAccessToken("alice", ALICE);
+            int size = storage.getLogSize();
+
+            try {
+                storage.compact();
+                fail("Expected IOException");
+            } catch (IOException expected) {
+            }
+
+            assertThat(storage.getLogSize()).isEqualTo(size);
+            assertThat(new File(file.getPath() + ".compact")).doesNotExist();
+            storage.setAccessToken("bob", BOB);
+        }
+
+        try (MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file)) {
+            assertThat(storage.getAccessToken("alice").getToken()).isEqualTo(ALICE.getToken());
+            assertThat(storage.getAccessToken("bob").getToken()).isEqualTo(BOB.getToken());
+        }
+    }
+
+    @Test
+    public void compact_whenLogCannotBeMappedAgain_closesStorage() throws Exception {
+        MappedFileAccessTokenStorage.Mover replacingWithDirectory = new MappedFileAccessTokenStorage.Mover() {
+            @Override
+            public void move(File source, File target) throws IOException {
+                Files.delete(target.toPath());
+                Files.createDirectory(target.toPath());
+            }
+        };
+        MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file, replacingWithDirectory);
+        storage.setAccessToken("alice", ALICE);
+
+        try {
+            storage.compact();
+            fail("Expected IOException");
+        } catch (IOException expected) {
+        }
+
+        try {
+            storage.setAccessToken("bob", BOB);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            assertThat(expected.getCause()).hasMessageContaining("closed");
+        }
+        try {
+            storage.getLogSize();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+        assertThat(new File(file.getPath() + ".compact")).doesNotExist();
+        storage.close();
+    }
+
+    @Test
+    public void compact_repeatedly_keepsTokensReadable() throws Exception {
+        try (MappedFileAccessTokenStorage storage = MappedFileAccessTokenStorage.open(file)) {
+            for (int i = 0; i < 50; i++) {
+                storage.setAccessToken("alice", i % 2 == 0 ? BOB : ALICE);
+                storage.compact();
+            }
+
+            assertThat(storage.getAccessToken("alice")).isEqualTo(ALICE);
+            assertThat(storage.getLogSize()).isGreaterThan(0);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.uber.sdk.core.auth;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MultiUserAccessTokenStorageTest {
+
+    private static final AccessToken ALICE = new AccessToken(2592000, Collections.singleton(Scope.PROFILE),
+            "aliceToken", "aliceRefresh", "Bearer");
+    private static final AccessToken BOB = new AccessToken(2592000, Collections.singleton(Scope.HISTORY),
+            "bobToken", "bobRefresh", "Bearer");
+
+    private MultiUserAccessTokenStorage storage;
+
+    @Before
+    public void setUp() {
+        storage = new MultiUserAccessTokenStorage();
+    }
+
+    @Test
+    public void forUser_whenSet_isVisibleToUserOnly() {
+        AccessTokenStorage alice = storage.forUser("alice");
+        AccessTokenStorage bob = storage.forUser("bob");
+
+        alice.setAccessToken(ALICE);
+
+        assertThat(alice.getAccessToken()).isEqualTo(ALICE);
+        assertThat(bob.getAccessToken()).isNull();
+        assertThat(storage.getAccessToken("alice")).isEqualTo(ALICE);
+        assertThat(storage.getUserIds()).containsOnly("alice");
+    }
+
+    @Test
+    public void forUser_returnsSameStorage() {
+        assertThat(storage.forUser("alice")).isSameAs(storage.forUser("alice"));
+    }
+
+    @Test
+    public void setAccessToken_isVisibleThroughExistingUserStorage() {
+        AccessTokenStorage bob = storage.forUser("bob");
+
+        storage.setAccessToken("bob", BOB);
+
+        assertThat(bob.getAccessToken()).isEqualTo(BOB);
+    }
+
+    @Test
+    public void removeAccessToken_removesUserToken() {
+        AccessTokenStorage alice = storage.forUser("alice");
+        alice.setAccessToken(ALICE);
+        storage.setAccessToken("bob", BOB);
+
+        alice.removeAccessToken();
+
+        assertThat(alice.getAccessToken()).isNull();
+        assertThat(storage.getUserIds()).containsOnly("bob");
+    }
+}
@@ -0,0 +1,213 @@
+package com.uber.sdk.core.auth;
+
+import com.uber.sdk.core.auth.internal.OAuth2Service;
+import com.uber.sdk.core.client.SessionConfiguration;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collections;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ProactiveTokenRefresherTest {
+
+    private static final AccessToken TOKEN = createToken("token", 3600);
+    private static final AccessToken NEW_TOKEN = createToken("newToken", 7200);
+
+    @Mock
+    OAuth2Service service;
+
+    @Mock
+    SessionConfiguration config;
+
+    @Mock
+    Call<AccessToken> refreshCall;
+
+    @Mock
+    ScheduledExecutorService scheduler;
+
+    @Mock
+    ScheduledFuture future;
+
+    @Mock
+    Executor executor;
+
+    private AccessTokenStorage storage;
+    private ProactiveTokenRefresher refresher;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        storage = new AccessTokenStorage() {
+            private AccessToken token = TOKEN;
+
+            @Override
+            public AccessToken getAccessToken() {
+                return token;
+            }
+
+            @Override
+            public void setAccessToken(AccessToken token) {
+                this.token = token;
+            }
+
+            @Override
+            public void removeAccessToken() {
+                token = null;
+            }
+        };
+        when(config.getClientId()).thenReturn("clientId");
+        when(service.refresh(eq("refresh"), eq("clientId"))).thenReturn(refreshCall);
+        when(scheduler.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).thenReturn(future);
+
+        refresher = ProactiveTokenRefresher.with(new AccessTokenAuthenticator(config, storage, service))
+                .setLeadTime(5, TimeUnit.MINUTES)
+                .setJitter(0, TimeUnit.SECONDS)
+                .setRetryDelay(30, TimeUnit.SECONDS)
+                .setScheduler(scheduler)
+                .setExecutor(executor)
+                .build();
+    }
+
+    @Test
+    public void start_schedulesRefreshLeadTimeBeforeExpiry() {
+        refresher.start();
+
+        assertTrue(refresher.isRunning());
+        verify(scheduler).schedule(any(Runnable.class), eq(TimeUnit.MINUTES.toMillis(55)),
+                eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void delayMillis_withJitter_bringsRefreshForward() {
+        ProactiveTokenRefresher jittered = ProactiveTokenRefresher.with(
+                new AccessTokenAuthenticator(config, storage, service))
+                .setJitter(1, TimeUnit.MINUTES)
+                .setScheduler(scheduler)
+                .build();
+
+        for (int i = 0; i < 100; i++) {
+            long delay = jittered.delayMillis(TOKEN);
+            assertTrue(delay <= TimeUnit.MINUTES.toMillis(55));
+            assertTrue(delay >= TimeUnit.MINUTES.toMillis(54));
+        }
+    }
+
+    @Test
+    public void refresh_storesNewTokenAndReschedules() throws Exception {
+        when(refreshCall.execute()).thenReturn(retrofit2.Response.success(NEW_TOKEN));
+        refresher.start();
+
+        runScheduled(1);
+
+        assertEquals(NEW_TOKEN, storage.getAccessToken());
+        ArgumentCaptor<Long> delay = ArgumentCaptor.forClass(Long.class);
+        verify(scheduler, times(2)).schedule(any(Runnable.class), delay.capture(), eq(TimeUnit.MILLISECONDS));
+        assertEquals(TimeUnit.MINUTES.toMillis(115), (long) delay.getValue());
+    }
+
+    @Test
+    public void refresh_whenFailed_retriesAfterDelay() throws Exception {
+        when(refreshCall.execute()).thenReturn(retrofit2.Response.<AccessToken>error(500,
+                ResponseBody.create(MediaType.parse("application/json"), "{}")));
+        refresher.start();
+
+        runScheduled(1);
+
+        assertEquals(TOKEN, storage.getAccessToken());
+        verify(scheduler).schedule(any(Runnable.class), eq(TimeUnit.SECONDS.toMillis(30)),
+                eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void refresh_whenRefreshTokenRevoked_stopsRetrying() throws Exception {
+        when(refreshCall.execute()).thenReturn(retrofit2.Response.<AccessToken>error(400,
+                ResponseBody.create(MediaType.parse("application/json"), "{\"error\":\"invalid_grant\"}")));
+        refresher.start();
+
+        runScheduled(1);
+
+        assertEquals(TOKEN, storage.getAccessToken());
+        verify(scheduler, times(1)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void refresh_whenRateLimited_retriesAfterDelay() throws Exception {
+        when(refreshCall.execute()).thenReturn(retrofit2.Response.<AccessToken>error(429,
+                ResponseBody.create(MediaType.parse("application/json"), "{}")));
+        refresher.start();
+
+        runScheduled(1);
+
+        verify(scheduler).schedule(any(Runnable.class), eq(TimeUnit.SECONDS.toMillis(30)),
+                eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void refresh_runsOnExecutor() throws Exception {
+        refresher.start();
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(task.capture(), anyLong(), any(TimeUnit.class));
+        task.getValue().run();
+
+        verify(executor).execute(any(Runnable.class));
+        verify(refreshCall, never()).execute();
+    }
+
+    @Test
+    public void refresh_whenTokenAlreadyReplaced_schedulesForNewToken() throws Exception {
+        refresher.start();
+        storage.setAccessToken(NEW_TOKEN);
+
+        runScheduled(1);
+
+        verify(refreshCall, never()).execute();
+        verify(scheduler).schedule(any(Runnable.class), eq(TimeUnit.MINUTES.toMillis(115)),
+                eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void stop_cancelsScheduledRefresh() {
+        refresher.start();
+        refresher.stop();
+
+        assertFalse(refresher.isRunning());
+        verify(future).cancel(false);
+    }
+
+    private void runScheduled(int index) {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(index)).schedule(task.capture(), anyLong(), any(TimeUnit.class));
+        task.getValue().run();
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(index)).execute(refresh.capture());
+        refresh.getValue().run();
+    }
+
+    private static AccessToken createToken(String token, long expiresIn) {
+        return new AccessToken(expiresIn, Collections.<Scope>emptySet(), token, "refresh", "Bearer");
+    }
+}
@@ -0,0 +1,212 @@
+package com.uber.sdk.core.auth;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RefreshCoordinatorTest {
+
+    private static final int CONCURRENT_REFRESHES = 8;
+
+    private RefreshCoordinator coordinator;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        coordinator = new RefreshCoordinator();
+        executor = Executors.newFixedThreadPool(CONCURRENT_REFRESHES);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void refresh_whenSameKeyInFlight_sharesSingleRefresh() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> futures = refreshConcurrently("refresh", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                calls.incrementAndGet();
+                release.await(5, TimeUnit.SECONDS);
+                return "token";
+            }
+        });
+
+        awaitWaiters(CONCURRENT_REFRESHES - 1);
+        release.countDown();
+
+        for (Future<String> future : futures) {
+            assertEquals("token", future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, coordinator.getRefreshCount());
+        assertEquals(CONCURRENT_REFRESHES - 1, coordinator.getMergedCount());
+        assertEquals(0, coordinator.getInFlightCount());
+    }
+
+    @Test
+    public void refresh_withDifferentKeys_runsInParallel() throws Exception {
+        final CountDownLatch started = new CountDownLatch(2);
+        Callable<String> refresh = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                started.countDown();
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+                return "token";
+            }
+        };
+
+        Future<String> first = submit("first", refresh);
+        Future<String> second = submit("second", refresh);
+
+        assertEquals("token", first.get(5, TimeUnit.SECONDS));
+        assertEquals("token", second.get(5, TimeUnit.SECONDS));
+        assertEquals(2, coordinator.getRefreshCount());
+        assertEquals(0, coordinator.getMergedCount());
+    }
+
+    @Test
+    public void refresh_whenFailed_sharesFailure() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> futures = refreshConcurrently("refresh", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                release.await(5, TimeUnit.SECONDS);
+                throw new IOException("invalid_grant");
+            }
+        });
+
+        awaitWaiters(CONCURRENT_REFRESHES - 1);
+        release.countDown();
+
+        for (Future<String> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Expected IOException");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+                assertTrue(e.getCause().getMessage().contains("invalid_grant"));
+            }
+        }
+        assertEquals(0, coordinator.getInFlightCount());
+    }
+
+    @Test
+    public void refresh_whenRefreshThrowsError_releasesWaiters() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> futures = refreshConcurrently("refresh", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                release.await(5, TimeUnit.SECONDS);
+                throw new AssertionError("refresh");
+            }
+        });
+
+        awaitWaiters(CONCURRENT_REFRESHES - 1);
+        release.countDown();
+
+        int failures = 0;
+        for (Future<String> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Expected a failure");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    failures++;
+                }
+            }
+        }
+        assertEquals(CONCURRENT_REFRESHES - 1, failures);
+        assertEquals(0, coordinator.getInFlightCount());
+    }
+
+    @Test
+    public void refresh_whenRefreshOutlastsMaxWait_failsWaiters() throws Exception {
+        coordinator = new RefreshCoordinator(50, TimeUnit.MILLISECONDS);
+        final CountDownLatch release = new CountDownLatch(1);
+        Callable<String> refresh = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                release.await(5, TimeUnit.SECONDS);
+                return "token";
+            }
+        };
+        Future<String> leader = submit("refresh", refresh);
+        awaitInFlight();
+
+        try {
+            coordinator.refresh("refresh", refresh);
+            fail("Expected InterruptedIOException");
+        } catch (InterruptedIOException expected) {
+        } finally {
+            release.countDown();
+        }
+        assertEquals("token", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void refresh_afterCompletion_runsAgain() throws Exception {
+        Callable<String> refresh = new Callable<String>() {
+            @Override
+            public String call() {
+                return "token";
+            }
+        };
+
+        coordinator.refresh("refresh", refresh);
+        coordinator.refresh("refresh", refresh);
+
+        assertEquals(2, coordinator.getRefreshCount());
+    }
+
+    private List<Future<String>> refreshConcurrently(String key, Callable<String> refresh) {
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REFRESHES; i++) {
+            futures.add(submit(key, refresh));
+        }
+        return futures;
+    }
+
+    private Future<String> submit(final String key, final Callable<String> refresh) {
+        return executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return coordinator.refresh(key, refresh);
+            }
+        });
+    }
+
+    private void awaitWaiters(long waiters) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (coordinator.getMergedCount() < waiters && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (coordinator.getInFlightCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
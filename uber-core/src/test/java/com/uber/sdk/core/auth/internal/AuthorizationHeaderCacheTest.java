@@ -0,0 +1,36 @@
+package com.uber.sdk.core.auth.internal;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class AuthorizationHeaderCacheTest {
+
+    @Test
+    public void get_withSameCredential_returnsCachedHeader() {
+        AuthorizationHeaderCache cache = new AuthorizationHeaderCache("Bearer");
+
+        String header = cache.get("token");
+
+        assertEquals("Bearer token", header);
+        assertSame(header, cache.get(new String("token")));
+    }
+
+    @Test
+    public void get_whenCredentialChanges_rebuildsHeader() {
+        AuthorizationHeaderCache cache = new AuthorizationHeaderCache("Bearer");
+        String header = cache.get("token");
+
+        String newHeader = cache.get("newToken");
+
+        assertEquals("Bearer newToken", newHeader);
+        assertNotSame(header, cache.get("token"));
+    }
+
+    @Test
+    public void get_withNullCredential_matchesPreviousFormat() {
+        assertEquals("Token null", new AuthorizationHeaderCache("Token").get(null));
+    }
+}
@@ -23,6 +23,7 @@
 package com.uber.sdk.core.client.internal;
 
 import com.uber.sdk.core.auth.Authenticator;
+import com.uber.sdk.core.auth.ServerTokenAuthenticator;
 import com.uber.sdk.core.client.SessionConfiguration;
 
 import org.junit.Before;
@@ -77,6 +78,47 @@ public class ApiInterceptorTest {
         assertEquals("Java Rides SDK v" + LIB_VERSION, request.headers().get(ApiInterceptor.HEADER_USER_AGENT));
     }
 
+    @Test
+    public void testIntercept_withServerToken_setsHeadersOnce() throws Exception {
+        ArgumentCaptor<Request> captor = ArgumentCaptor.forClass(Request.class);
+        SessionConfiguration config = mock(SessionConfiguration.class);
+        when(config.getLocale()).thenReturn(Locale.US);
+        when(config.getServerToken()).thenReturn("serverToken");
+        ApiInterceptor interceptor = new ApiInterceptor(new ServerTokenAuthenticator(config));
+        when(chain.request()).thenReturn(new Request.Builder()
+                .url("http://test")
+                .header(ApiInterceptor.HEADER_USER_AGENT, "Other")
+                .build());
+        when(chain.proceed(captor.capture())).thenReturn(null);
+
+        interceptor.intercept(chain);
+
+        Request request = captor.getValue();
+        assertEquals(1, request.headers(ApiInterceptor.HEADER_USER_AGENT).size());
+        assertEquals("Java Rides SDK v" + LIB_VERSION, request.header(ApiInterceptor.HEADER_USER_AGENT));
+        assertEquals(Locale.US.getLanguage(), request.header(ApiInterceptor.HEADER_ACCEPT_LANGUAGE));
+        assertEquals("Token serverToken", request.header(HEADER_ACCESS_TOKEN));
+    }
+
+    @Test
+    public void testIntercept_whenHeadersPresent_proceedsWithSameRequest() throws Exception {
+        SessionConfiguration config = mock(SessionConfiguration.class);
+        when(config.getLocale()).thenReturn(Locale.US);
+        when(config.getServerToken()).thenReturn("serverToken");
+        ApiInterceptor interceptor = new ApiInterceptor(new ServerTokenAuthenticator(config));
+        Request signed = new Request.Builder()
+                .url("http://test")
+                .header(ApiInterceptor.HEADER_ACCEPT_LANGUAGE, Locale.US.getLanguage())
+                .header(ApiInterceptor.HEADER_USER_AGENT, "Java Rides SDK v" + LIB_VERSION)
+                .header(HEADER_ACCESS_TOKEN, "Token serverToken")
+                .build();
+        when(chain.request()).thenReturn(signed);
+
+        interceptor.intercept(chain);
+
+        verify(chain).proceed(signed);
+    }
+
     @Test
     public void testSetAuthorizationHeader_withExistingToken() {
         Request.Builder builder = new Request.Builder().url("http://test");
@@ -23,6 +23,7 @@
 package com.uber.sdk.core.client.internal;
 
 import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
 import com.squareup.moshi.Moshi;
 
 import org.junit.Test;
@@ -55,6 +56,33 @@ public class BigDecimalAdapterTest {
         assertThat(model.presentDecimal).isEqualTo(new BigDecimal("1.23"));
     }
 
+    @Test
+    public void fromJson_shouldKeepExactValueAndScale() throws IOException {
+        Moshi moshi = new Moshi.Builder().add(new BigDecimalAdapter()).build();
+
+        JsonAdapter<BigDecimalModel> adapter = moshi.adapter(BigDecimalModel.class);
+        BigDecimalModel model = adapter.fromJson("{\"nullDecimal\":23,\"presentDecimal\":123456789.01}");
+        assertThat(model.nullDecimal).isEqualTo(new BigDecimal("23"));
+        assertThat(model.presentDecimal).isEqualTo(new BigDecimal("123456789.01"));
+    }
+
+    @Test
+    public void toJson_shouldWriteExactValue() {
+        Moshi moshi = new Moshi.Builder().add(new BigDecimalAdapter()).build();
+        JsonAdapter<BigDecimalModel> adapter = moshi.adapter(BigDecimalModel.class);
+        BigDecimalModel bigDecimalModel = new BigDecimalModel();
+        bigDecimalModel.presentDecimal = new BigDecimal("123456789.01");
+        String json = adapter.toJson(bigDecimalModel);
+        assertThat(json).isEqualTo("{\"presentDecimal\":123456789.01}");
+    }
+
+    @Test(expected = JsonDataException.class)
+    public void fromJson_whenNotANumber_shouldThrow() throws IOException {
+        Moshi moshi = new Moshi.Builder().add(new BigDecimalAdapter()).build();
+
+        moshi.adapter(BigDecimalModel.class).fromJson("{\"presentDecimal\":\"free\"}");
+    }
+
     private static class BigDecimalModel {
 
         private BigDecimal absentDecimal;
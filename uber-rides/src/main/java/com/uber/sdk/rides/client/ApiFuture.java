@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client;
+
+import com.uber.sdk.rides.client.error.ApiError;
+import com.uber.sdk.rides.client.error.ApiException;
+import com.uber.sdk.rides.client.error.ErrorParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * A {@link Future} for an asynchronous Uber API call.
+ *
+ * The call is enqueued on the OkHttp dispatcher as soon as the future is created, so no thread is
+ * held while the request is in flight. Error responses complete the future exceptionally with an
+ * {@link ApiException}, network failures with the underlying {@link java.io.IOException}.
+ *
+ * @param <T> the type of the response body.
+ */
+public final class ApiFuture<T> implements Future<T> {
+
+    /**
+     * Notified once an {@link ApiFuture} completes.
+     *
+     * Callbacks are invoked on the thread that completes the future, typically an OkHttp dispatcher
+     * thread, and should not block.
+     */
+    public interface Callback<T> {
+
+        /**
+         * @param result the response body of a successful call.
+         */
+        void onSuccess(@Nullable T result);
+
+        /**
+         * @param throwable an {@link ApiException}, an {@link java.io.IOException} or a
+         * {@link CancellationException} describing why the call failed.
+         */
+        void onFailure(@Nonnull Throwable throwable);
+    }
+
+    private final Call<T> call;
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private final List<Callback<? super T>> callbacks = new ArrayList<>();
+
+    private boolean done;
+    private T result;
+    private Throwable failure;
+
+    ApiFuture(@Nonnull Call<T> call) {
+        this.call = call;
+    }
+
+    /**
+     * Enqueues the {@link Call} and returns a future for its result.
+     *
+     * @param call the {@link Call} to enqueue.
+     * @return the {@link ApiFuture} completed by the call.
+     */
+    @Nonnull
+    static <T> ApiFuture<T> enqueue(@Nonnull Call<T> call) {
+        final ApiFuture<T> future = new ApiFuture<>(call);
+        call.enqueue(new retrofit2.Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                if (response.isSuccessful()) {
+                    future.complete(response.body(), null);
+                } else {
+                    ApiError apiError = ErrorParser.parseError(response);
+                    future.complete(null, new ApiException(apiError, response.code()));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable throwable) {
+                future.complete(null, throwable);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Registers a {@link Callback} to be notified on completion. If the future has already completed,
+     * the callback is invoked immediately on the calling thread.
+     *
+     * @param callback the {@link Callback} to notify.
+     * @return this {@link ApiFuture}.
+     */
+    @Nonnull
+    public ApiFuture<T> addCallback(@Nonnull Callback<? super T> callback) {
+        synchronized (this) {
+            if (!done) {
+                callbacks.add(callback);
+                return this;
+            }
+        }
+        notify(callback);
+        return this;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!complete(null, new CancellationException("Call was cancelled"))) {
+            return false;
+        }
+        call.cancel();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return failure instanceof CancellationException;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        latch.await();
+        return getResult();
+    }
+
+    @Override
+    public T get(long timeout, @Nonnull TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (!latch.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return getResult();
+    }
+
+    private synchronized T getResult() throws ExecutionException {
+        if (failure instanceof CancellationException) {
+            throw (CancellationException) failure;
+        }
+        if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+        return result;
+    }
+
+    boolean complete(@Nullable T result, @Nullable Throwable failure) {
+        List<Callback<? super T>> toNotify;
+        synchronized (this) {
+            if (done) {
+                return false;
+            }
+            this.result = result;
+            this.failure = failure;
+            this.done = true;
+            toNotify = new ArrayList<>(callbacks);
+            callbacks.clear();
+        }
+        latch.countDown();
+        for (Callback<? super T> callback : toNotify) {
+            notify(callback);
+        }
+        return true;
+    }
+
+    private void notify(Callback<? super T> callback) {
+        T result;
+        Throwable failure;
+        synchronized (this) {
+            result = this.result;
+            failure = this.failure;
+        }
+        if (failure != null) {
+            callback.onFailure(failure);
+        } else {
+            callback.onSuccess(result);
+        }
+    }
+}
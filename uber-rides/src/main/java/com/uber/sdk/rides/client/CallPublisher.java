@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client;
+
+import com.uber.sdk.rides.client.error.ApiException;
+import com.uber.sdk.rides.client.error.ErrorParser;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * A cold, single-element {@link Publisher} for a Uber API {@link Call}.
+ *
+ * Every subscriber gets its own clone of the call, which is only enqueued once demand is signalled
+ * through {@link Subscription#request(long)}. Cancelling the subscription cancels the underlying
+ * OkHttp call. Error responses are signalled as an {@link ApiException}.
+ *
+ * @param <T> the type of the response body.
+ */
+final class CallPublisher<T> implements Publisher<T> {
+
+    private final Call<T> call;
+
+    CallPublisher(@Nonnull Call<T> call) {
+        this.call = call;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber == null");
+        }
+        CallSubscription<T> subscription = new CallSubscription<>(call.clone(), subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    static final class CallSubscription<T> implements Subscription, Callback<T> {
+
+        private static final int IDLE = 0;
+        private static final int REQUESTED = 1;
+        private static final int TERMINATED = 2;
+
+        private final Call<T> call;
+        private final Subscriber<? super T> subscriber;
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+
+        CallSubscription(Call<T> call, Subscriber<? super T> subscriber) {
+            this.call = call;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (state.getAndSet(TERMINATED) != TERMINATED) {
+                    call.cancel();
+                    subscriber.onError(new IllegalArgumentException("Non-positive request: " + n));
+                }
+                return;
+            }
+            if (state.compareAndSet(IDLE, REQUESTED)) {
+                call.enqueue(this);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (state.getAndSet(TERMINATED) != TERMINATED) {
+                call.cancel();
+            }
+        }
+
+        @Override
+        public void onResponse(Call<T> call, Response<T> response) {
+            if (!state.compareAndSet(REQUESTED, TERMINATED)) {
+                return;
+            }
+            if (response.isSuccessful()) {
+                T body = response.body();
+                if (body != null) {
+                    subscriber.onNext(body);
+                }
+                subscriber.onComplete();
+            } else {
+                subscriber.onError(new ApiException(ErrorParser.parseError(response), response.code()));
+            }
+        }
+
+        @Override
+        public void onFailure(Call<T> call, Throwable throwable) {
+            if (state.compareAndSet(REQUESTED, TERMINATED)) {
+                subscriber.onError(throwable);
+            }
+        }
+    }
+}
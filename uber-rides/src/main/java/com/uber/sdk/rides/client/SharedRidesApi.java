@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client;
+
+import com.uber.sdk.core.client.Session;
+import com.uber.sdk.rides.client.services.AsyncRidesService;
+import com.uber.sdk.rides.client.services.RidesService;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnull;
+
+import retrofit2.Retrofit;
+
+/**
+ * Creates Uber API services for many {@link Session Sessions} sharing one {@link okhttp3.OkHttpClient},
+ * {@link Retrofit} and parsed service method cache.
+ *
+ * Each request carries the {@link com.uber.sdk.core.auth.Authenticator} of the session it was made for, which
+ * signs it and refreshes its credentials. Sessions must use the endpoint of the
+ * {@link com.uber.sdk.core.client.SessionConfiguration} the API was built with.
+ *
+ * <pre>
+ * SharedRidesApi api = UberRidesApi.shared(configuration).buildShared();
+ * RidesService service = api.createService(session);
+ * </pre>
+ */
+public class SharedRidesApi {
+
+    private final Retrofit retrofit;
+    private final String endpointHost;
+    private final ConcurrentMap<Class<?>, Object> services = new ConcurrentHashMap<>();
+
+    SharedRidesApi(@Nonnull Retrofit retrofit, @Nonnull String endpointHost) {
+        this.retrofit = retrofit;
+        this.endpointHost = endpointHost;
+    }
+
+    /**
+     * Get the {@link RidesService} of a {@link Session}.
+     *
+     * @param session the {@link Session} to make requests for.
+     * @return {@link RidesService}
+     */
+    @Nonnull
+    public RidesService createService(@Nonnull Session session) {
+        return createService(session, RidesService.class);
+    }
+
+    /**
+     * Get the {@link AsyncRidesService} of a {@link Session}.
+     *
+     * @param session the {@link Session} to make requests for.
+     * @return {@link AsyncRidesService}
+     */
+    @Nonnull
+    public AsyncRidesService createAsyncService(@Nonnull Session session) {
+        return createService(session, AsyncRidesService.class);
+    }
+
+    /**
+     * Create an implementation of a custom service interface for a {@link Session}, as
+     * {@link UberRidesApi#createService(Class)} does.
+     *
+     * @param session the {@link Session} to make requests for.
+     * @param service the service interface to implement.
+     * @return an implementation of the service
+     */
+    @Nonnull
+    public <S> S createService(@Nonnull Session session, @Nonnull Class<S> service) {
+        String sessionEndpointHost = session.getAuthenticator().getSessionConfiguration().getEndpointHost();
+        if (!endpointHost.equals(sessionEndpointHost)) {
+            throw new IllegalArgumentException("Session endpoint " + sessionEndpointHost
+                    + " does not match " + endpointHost);
+        }
+
+        Object shared = services.get(service);
+        if (shared == null) {
+            shared = retrofit.create(service);
+            Object existing = services.putIfAbsent(service, shared);
+            if (existing != null) {
+                shared = existing;
+            }
+        }
+
+        return service.cast(Proxy.newProxyInstance(service.getClassLoader(), new Class<?>[] { service },
+                new TenantInvocationHandler(shared, new Tenant(session.getAuthenticator()))));
+    }
+
+    private static final class TenantInvocationHandler implements InvocationHandler {
+        private final Object shared;
+        private final Tenant tenant;
+
+        TenantInvocationHandler(Object shared, Tenant tenant) {
+            this.shared = shared;
+            this.tenant = tenant;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(this, args);
+            }
+
+            Tenant previous = tenant.bind();
+            try {
+                return method.invoke(shared, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                Tenant.restore(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client;
+
+import com.uber.sdk.core.auth.Authenticator;
+import com.uber.sdk.core.client.internal.ApiInterceptor;
+import com.uber.sdk.core.client.internal.RefreshAuthenticator;
+
+import java.io.IOException;
+
+import javax.annotation.Nullable;
+
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.Route;
+
+/**
+ * The {@link Authenticator} of one session of a {@link SharedRidesApi}, carried by each of its requests as the
+ * request tag.
+ *
+ * Service methods run with the tenant bound to the calling thread, so {@link CallFactory} can tag the request
+ * Retrofit creates. The shared client then signs and refreshes each request with the tenant in its tag.
+ *
+ * Tenants of the same {@link Authenticator} are equal, so that the services created for one session share their
+ * per-user state, such as the {@link com.uber.sdk.rides.client.interceptors.RateLimiter} bucket keyed by the tag.
+ */
+final class Tenant {
+
+    private static final ThreadLocal<Tenant> CURRENT = new ThreadLocal<>();
+
+    final Authenticator authenticator;
+    final ApiInterceptor apiInterceptor;
+    final RefreshAuthenticator refreshAuthenticator;
+
+    Tenant(Authenticator authenticator) {
+        this.authenticator = authenticator;
+        this.apiInterceptor = new ApiInterceptor(authenticator);
+        this.refreshAuthenticator = new RefreshAuthenticator(authenticator);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Tenant && ((Tenant) o).authenticator == authenticator;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(authenticator);
+    }
+
+    /**
+     * Binds the tenant to the current thread.
+     *
+     * @return the previously bound tenant, to be restored with {@link #restore(Tenant)}.
+     */
+    @Nullable
+    Tenant bind() {
+        Tenant previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    static void restore(@Nullable Tenant previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    @Nullable
+    static Tenant current() {
+        return CURRENT.get();
+    }
+
+    @Nullable
+    static Tenant of(Request request) {
+        Object tag = request.tag();
+        return tag instanceof Tenant ? (Tenant) tag : null;
+    }
+
+    /**
+     * Creates calls for the bound tenant, tagging their requests with it.
+     */
+    static final class CallFactory implements Call.Factory {
+        private final Call.Factory callFactory;
+
+        CallFactory(Call.Factory callFactory) {
+            this.callFactory = callFactory;
+        }
+
+        @Override
+        public Call newCall(Request request) {
+            Tenant tenant = CURRENT.get();
+            if (tenant == null) {
+                throw new IllegalStateException("Services of a SharedRidesApi must be created for a Session");
+            }
+            return callFactory.newCall(request.newBuilder().tag(tenant).build());
+        }
+    }
+
+    /**
+     * Signs requests with the {@link ApiInterceptor} of their tenant.
+     */
+    static final class SigningInterceptor implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Tenant tenant = of(chain.request());
+            if (tenant == null) {
+                throw new IllegalStateException("Request was not created by a SharedRidesApi service");
+            }
+            return tenant.apiInterceptor.intercept(chain);
+        }
+    }
+
+    /**
+     * Refreshes the credentials of the tenant of unauthorized requests.
+     */
+    static final class RefreshingAuthenticator implements okhttp3.Authenticator {
+        @Override
+        public Request authenticate(Route route, Response response) throws IOException {
+            Tenant tenant = of(response.request());
+            return tenant != null ? tenant.refreshAuthenticator.authenticate(route, response) : null;
+        }
+    }
+}
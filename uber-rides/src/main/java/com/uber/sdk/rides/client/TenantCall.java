@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client;
+
+import java.io.IOException;
+
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * A {@link Call} that binds its {@link Tenant} while Retrofit creates the underlying OkHttp call.
+ */
+final class TenantCall<T> implements Call<T> {
+
+    private final Call<T> delegate;
+    private final Tenant tenant;
+
+    TenantCall(Call<T> delegate, Tenant tenant) {
+        this.delegate = delegate;
+        this.tenant = tenant;
+    }
+
+    @Override
+    public Response<T> execute() throws IOException {
+        Tenant previous = tenant.bind();
+        try {
+            return delegate.execute();
+        } finally {
+            Tenant.restore(previous);
+        }
+    }
+
+    @Override
+    public void enqueue(Callback<T> callback) {
+        Tenant previous = tenant.bind();
+        try {
+            delegate.enqueue(callback);
+        } finally {
+            Tenant.restore(previous);
+        }
+    }
+
+    @Override
+    public Request request() {
+        Tenant previous = tenant.bind();
+        try {
+            return delegate.request();
+        } finally {
+            Tenant.restore(previous);
+        }
+    }
+
+    @Override
+    public boolean isExecuted() {
+        return delegate.isExecuted();
+    }
+
+    @Override
+    public void cancel() {
+        delegate.cancel();
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return delegate.isCanceled();
+    }
+
+    @SuppressWarnings("CloneDoesntCallSuperClone")
+    @Override
+    public Call<T> clone() {
+        return new TenantCall<>(delegate.clone(), tenant);
+    }
+}
@@ -24,38 +24,81 @@ package com.uber.sdk.rides.client;
 
 import com.squareup.moshi.Moshi;
 import com.uber.sdk.core.client.Session;
+import com.uber.sdk.core.client.SessionConfiguration;
 import com.uber.sdk.core.client.internal.ApiInterceptor;
 import com.uber.sdk.core.client.internal.BigDecimalAdapter;
 import com.uber.sdk.core.client.internal.RefreshAuthenticator;
+import com.uber.sdk.rides.client.cache.GeoCacheInterceptor;
+import com.uber.sdk.rides.client.interceptors.CancellableCalls;
+import com.uber.sdk.rides.client.interceptors.CircuitBreakerInterceptor;
+import com.uber.sdk.rides.client.interceptors.RateLimiter;
+import com.uber.sdk.rides.client.interceptors.RequestCoalescingInterceptor;
+import com.uber.sdk.rides.client.interceptors.RequestHedger;
+import com.uber.sdk.rides.client.interceptors.RetryInterceptor;
+import com.uber.sdk.rides.client.interceptors.SampledLoggingInterceptor;
+import com.uber.sdk.rides.client.metrics.MetricsInterceptor;
+import com.uber.sdk.rides.client.services.AsyncRidesService;
 import com.uber.sdk.rides.client.services.RidesService;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import okhttp3.Call;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.converter.moshi.MoshiConverterFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public class UberRidesApi {
 
+    /**
+     * Shared by every client, so the JSON adapter of each model is created once per process rather than once per
+     * {@link Retrofit}.
+     */
+    static final Moshi MOSHI = new Moshi.Builder().add(new BigDecimalAdapter()).build();
+
     private final Retrofit retrofit;
 
     /**
      * Builder for {@link UberRidesApi}
      */
     public static class Builder {
+        static final int DEFAULT_VIRTUAL_THREAD_MAX_REQUESTS = 10000;
+
         Session session;
+        SessionConfiguration configuration;
         HttpLoggingInterceptor.Level logLevel;
         HttpLoggingInterceptor.Logger logger;
         OkHttpClient client;
-
+        boolean virtualThreadsEnabled;
+        int maxRequests;
+        RequestCoalescingInterceptor requestCoalescingInterceptor;
+        GeoCacheInterceptor geoCacheInterceptor;
+        MetricsInterceptor metricsInterceptor;
+        SampledLoggingInterceptor sampledLoggingInterceptor;
+        RateLimiter rateLimiter;
+        RetryInterceptor retryInterceptor;
+        CircuitBreakerInterceptor circuitBreakerInterceptor;
+        RequestHedger requestHedger;
 
         Builder(@Nonnull Session session) {
             this.session = session;
         }
 
+        Builder(@Nonnull SessionConfiguration configuration) {
+            this.configuration = configuration;
+        }
+
         /**
-         * Sets the Log level for requests.
+         * Sets the Log level for requests. No logging interceptor is installed at
+         * {@link HttpLoggingInterceptor.Level#NONE}; other levels log every call synchronously, so prefer
+         * {@link #setSampledLogging} for production traffic.
          * Optional and defaults to {@link HttpLoggingInterceptor.Level#NONE}.
          */
         @Nonnull
@@ -86,11 +129,194 @@ public class UberRidesApi {
             return this;
         }
 
+        /**
+         * Runs OkHttp's dispatcher, and with it asynchronous calls, token refreshes and error parsing
+         * in callbacks, on virtual threads when the runtime supports them (Java 21+).
+         * Ignored on older runtimes, where the dispatcher of the {@link OkHttpClient} is kept.
+         * Optional and defaults to {@code false}.
+         *
+         * @param virtualThreadsEnabled whether to use virtual threads when available.
+         * @return {@link Builder} for {@link UberRidesApi}
+         */
+        @Nonnull
+        public Builder setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+            this.virtualThreadsEnabled = virtualThreadsEnabled;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of concurrent asynchronous requests, in total and to the Uber API host.
+         * Setting it gives the API a dedicated dispatcher rather than changing the one shared with the
+         * {@link OkHttpClient}. Optional and defaults to {@value #DEFAULT_VIRTUAL_THREAD_MAX_REQUESTS} when
+         * virtual threads are in use, otherwise the limits of the {@link OkHttpClient} dispatcher are kept.
+         *
+         * @param maxRequests the maximum number of concurrent requests.
+         * @return {@link Builder} for {@link UberRidesApi}
+         */
+        @Nonnull
+        public Builder setMaxRequests(int maxRequests) {
+            if (maxRequests < 1) {
+                throw new IllegalArgumentException("maxRequests < 1: " + maxRequests);
+            }
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * Merges concurrent identical GET requests, such as product and estimate lookups for the same
+         * location, into a single network call. Share the interceptor between APIs to merge across sessions.
+         * Optional and disabled by default.
+         *
+         * @param requestCoalescingInterceptor the {@link RequestCoalescingInterceptor} to use.
+         * @return {@link Builder} for {@link UberRidesApi}
+         */
+        @Nonnull
+        public Builder setRequestCoalescing(@Nonnull RequestCoalescingInterceptor requestCoalescingInterceptor) {
+            this.requestCoalescingInterceptor = requestCoalescingInterceptor;
+            return this;
+        }
+
+        /**
+         * Caches product, price estimate and time estimate responses per geohash cell, so requests for nearby
+         * coordinates share a cache entry. Share the interceptor between APIs to cache across sessions.
+         * Optional and disabled by default.
+         *
+         * @param geoCacheInterceptor the {@link GeoCacheInterceptor} to use.
+         * @return {@link Builder} for {@link UberRidesApi}
+         */
+        @Nonnull
+        public Builder setGeoCache(@Nonnull GeoCacheInterceptor geoCacheInterceptor) {
+            this.geoCacheInterceptor = geoCacheInterceptor;
+            return this;
+        }
+
+        /**
+         * Retries requests that failed transiently with backoff and jitter, within a retry budget. Only
+         * {@code GET} requests are retried after they reached the API, unless the interceptor adds idempotency
+         * keys. Calls cancelled by their caller are not retried. Share the interceptor between APIs to share its
+         * budget. Optional and disabled by default.
+         *
+         * @param retryInterceptor the {@link RetryInterceptor} to use.
+         * @return {@link Builder} for {@link UberRidesApi}
+         */
+        @Nonnull
+        public Builder setRetries(@Nonnull RetryInterceptor retryInterceptor) {
+            this.retryInterceptor = retryInterceptor;
+            return this;
+        }
+
+        /**
+         * Hedges slow requests to latency-critical read routes, such as pickup time estimates and ride details,
+         * by sending a second identical request and using whichever answers first. Hedges go through retries,
+         * circuit breaking and rate limiting like any request, and are reported to the metrics if set. Cancelling
+         * a call cancels both requests. Share the hedger between APIs to share its budget. Optional and disabled
+         * by default.
+         *
+         * @param requestHedger the {@link RequestHedger} to use.
+         * @return {@link Builder} for {@link UberRidesApi}
+         */
+        @Nonnull
+        public Builder setHedging(@Nonnull RequestHedger requestHedger) {
+            this.requestHedger = requestHedger;
+            return this;
+        }
+
+        /**
+         * Fails requests fast with a local {@code 503} while their route is failing, with one circuit breaker per
+         * route template. Share the interceptor between APIs to share its breakers. Optional and disabled by
+         * default.
+         *
+         * @param circuitBreakerInterceptor the {@link CircuitBreakerInterceptor} to use.
+         * @return {@link Builder} for {@link UberRidesApi}
+         */
+        @Nonnull
+        public Builder setCircuitBreaker(@Nonnull CircuitBreakerInterceptor circuitBreakerInterceptor) {
+            this.circuitBreakerInterceptor = circuitBreakerInterceptor;
+            return this;
+        }
+
+        /**
+         * Limits the rate of requests per client id and per user, adapting to {@code 429} responses and their
+         * {@code Retry-After} headers. Requests wait for a permit or are shed with a local {@code 429}. Share the
+         * limiter between APIs to limit across sessions. Optional and disabled by default.
+         *
+         * @param rateLimiter the {@link RateLimiter} to use.
+         * @return {@link Builder} for {@link UberRidesApi}
+         */
+        @Nonnull
+        public Builder setRateLimiter(@Nonnull RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Records latency histograms keyed by route template, status class and error code. Share the interceptor
+         * between APIs to aggregate across sessions. Optional and disabled by default.
+         *
+         * @param metricsInterceptor the {@link MetricsInterceptor} to use.
+         * @return {@link Builder} for {@link UberRidesApi}
+         */
+        @Nonnull
+        public Builder setMetrics(@Nonnull MetricsInterceptor metricsInterceptor) {
+            this.metricsInterceptor = metricsInterceptor;
+            return this;
+        }
+
+        /**
+         * Logs a sample of calls, and every failed call, as structured lines with truncated bodies handed to a
+         * logger off the calling thread. Optional and disabled by default.
+         *
+         * @param sampledLoggingInterceptor the {@link SampledLoggingInterceptor} to use.
+         * @return {@link Builder} for {@link UberRidesApi}
+         */
+        @Nonnull
+        public Builder setSampledLogging(@Nonnull SampledLoggingInterceptor sampledLoggingInterceptor) {
+            this.sampledLoggingInterceptor = sampledLoggingInterceptor;
+            return this;
+        }
+
         /**
          * Create the {@link UberRidesApi} to be used.
          * @return {@link UberRidesApi}
          */
         public UberRidesApi build() {
+            if (session == null) {
+                throw new IllegalStateException("Builders from UberRidesApi.shared() create a SharedRidesApi with buildShared()");
+            }
+
+            Retrofit retrofit = createRetrofit(
+                    createCallFactory(buildClient(new RefreshAuthenticator(session.getAuthenticator()),
+                            new ApiInterceptor(session.getAuthenticator()))),
+                    session.getAuthenticator().getSessionConfiguration().getEndpointHost());
+
+            return new UberRidesApi(retrofit);
+        }
+
+        /**
+         * Create a {@link SharedRidesApi} whose connection pool, {@link Retrofit} and services are shared by
+         * every {@link Session} using the {@link SessionConfiguration}.
+         * @return {@link SharedRidesApi}
+         */
+        @Nonnull
+        public SharedRidesApi buildShared() {
+            if (configuration == null) {
+                throw new IllegalStateException("A SessionConfiguration is required, use UberRidesApi.shared()");
+            }
+
+            OkHttpClient newClient = buildClient(new Tenant.RefreshingAuthenticator(), new Tenant.SigningInterceptor());
+            Retrofit retrofit = new Retrofit.Builder()
+                    .addConverterFactory(MoshiConverterFactory.create(MOSHI))
+                    .addCallAdapterFactory(new TenantCallAdapterFactory())
+                    .addCallAdapterFactory(new ApiFutureCallAdapterFactory())
+                    .addCallAdapterFactory(new PublisherCallAdapterFactory())
+                    .baseUrl(configuration.getEndpointHost())
+                    .callFactory(new Tenant.CallFactory(createCallFactory(newClient)))
+                    .build();
+
+            return new SharedRidesApi(retrofit, configuration.getEndpointHost());
+        }
+
+        OkHttpClient buildClient(okhttp3.Authenticator refreshAuthenticator, Interceptor apiInterceptor) {
             if (logLevel == null) {
                 logLevel = HttpLoggingInterceptor.Level.NONE;
             }
@@ -103,11 +329,20 @@ public class UberRidesApi {
                 client = new OkHttpClient();
             }
 
-            HttpLoggingInterceptor loggingInterceptor = createLoggingInterceptor(logger, logLevel);
-            OkHttpClient newClient = createClient(client, session, loggingInterceptor);
-            Retrofit retrofit = createRetrofit(newClient, session);
+            HttpLoggingInterceptor loggingInterceptor = logLevel != HttpLoggingInterceptor.Level.NONE
+                    ? createLoggingInterceptor(logger, logLevel) : null;
+            return createClient(client, refreshAuthenticator, apiInterceptor, loggingInterceptor);
+        }
 
-            return new UberRidesApi(retrofit);
+        /**
+         * @return the {@link Call.Factory} making the calls of the API, whose cancellation is seen by the
+         * interceptors if retries or hedging are set, so cancelled calls are neither retried nor left hedged.
+         */
+        Call.Factory createCallFactory(OkHttpClient client) {
+            if (requestHedger != null) {
+                return requestHedger.callFactory(client);
+            }
+            return retryInterceptor != null ? CancellableCalls.callFactory(client) : client;
         }
 
         HttpLoggingInterceptor createLoggingInterceptor(HttpLoggingInterceptor.Logger logger,
@@ -119,22 +354,108 @@ public class UberRidesApi {
 
         OkHttpClient createClient(OkHttpClient client,
                                   Session session,
-                                  HttpLoggingInterceptor loggingInterceptor) {
+                                  @Nullable HttpLoggingInterceptor loggingInterceptor) {
+            return createClient(client, new RefreshAuthenticator(session.getAuthenticator()),
+                    new ApiInterceptor(session.getAuthenticator()), loggingInterceptor);
+        }
 
-            return client.newBuilder()
-                    .authenticator(new RefreshAuthenticator(session.getAuthenticator()))
-                    .addInterceptor(new ApiInterceptor(session.getAuthenticator()))
-                    .addInterceptor(loggingInterceptor)
-                    .build();
+        OkHttpClient createClient(OkHttpClient client,
+                                  okhttp3.Authenticator refreshAuthenticator,
+                                  Interceptor apiInterceptor,
+                                  @Nullable HttpLoggingInterceptor loggingInterceptor) {
+
+            Dispatcher dispatcher = createDispatcher();
+            if (dispatcher != null) {
+                client = client.newBuilder().dispatcher(dispatcher).build();
+            }
+
+            OkHttpClient.Builder builder = client.newBuilder()
+                    .authenticator(refreshAuthenticator);
+
+            if (metricsInterceptor != null) {
+                builder.addInterceptor(metricsInterceptor);
+            }
+
+            builder.addInterceptor(apiInterceptor);
+
+            if (geoCacheInterceptor != null) {
+                builder.addInterceptor(geoCacheInterceptor);
+            }
+
+            if (requestCoalescingInterceptor != null) {
+                builder.addInterceptor(requestCoalescingInterceptor);
+            }
+
+            List<Interceptor> downstream = new ArrayList<>();
+            if (retryInterceptor != null) {
+                downstream.add(retryInterceptor);
+            }
+
+            if (circuitBreakerInterceptor != null) {
+                downstream.add(circuitBreakerInterceptor);
+            }
+
+            if (rateLimiter != null) {
+                downstream.add(rateLimiter.interceptor(getClientId(), session));
+            }
+
+            if (sampledLoggingInterceptor != null) {
+                downstream.add(sampledLoggingInterceptor);
+            }
+
+            if (loggingInterceptor != null) {
+                downstream.add(loggingInterceptor);
+            }
+
+            if (requestHedger != null) {
+                OkHttpClient.Builder hedgingBuilder = client.newBuilder()
+                        .authenticator(refreshAuthenticator);
+                hedgingBuilder.interceptors().addAll(downstream);
+                builder.addInterceptor(requestHedger.interceptor(hedgingBuilder.build(), metricsInterceptor));
+            }
+
+            builder.interceptors().addAll(downstream);
+            return builder.build();
         }
 
-        Retrofit createRetrofit(OkHttpClient client, Session session) {
-            Moshi moshi = new Moshi.Builder().add(new BigDecimalAdapter()).build();
+        @Nullable
+        String getClientId() {
+            SessionConfiguration sessionConfiguration = session != null
+                    ? session.getAuthenticator().getSessionConfiguration() : configuration;
+            return sessionConfiguration.getClientId();
+        }
+
+        @Nullable
+        Dispatcher createDispatcher() {
+            int maxRequests = this.maxRequests;
+            Dispatcher dispatcher = null;
+            if (virtualThreadsEnabled) {
+                ExecutorService executorService = VirtualThreads.newVirtualThreadPerTaskExecutor();
+                if (executorService != null) {
+                    dispatcher = new Dispatcher(executorService);
+                    if (maxRequests == 0) {
+                        maxRequests = DEFAULT_VIRTUAL_THREAD_MAX_REQUESTS;
+                    }
+                }
+            }
 
+            if (maxRequests > 0) {
+                if (dispatcher == null) {
+                    dispatcher = new Dispatcher();
+                }
+                dispatcher.setMaxRequests(maxRequests);
+                dispatcher.setMaxRequestsPerHost(maxRequests);
+            }
+            return dispatcher;
+        }
+
+        Retrofit createRetrofit(Call.Factory callFactory, String endpointHost) {
             return new Retrofit.Builder()
-                    .addConverterFactory(MoshiConverterFactory.create(moshi))
-                    .baseUrl(session.getAuthenticator().getSessionConfiguration().getEndpointHost())
-                    .client(client)
+                    .addConverterFactory(MoshiConverterFactory.create(MOSHI))
+                    .addCallAdapterFactory(new ApiFutureCallAdapterFactory())
+                    .addCallAdapterFactory(new PublisherCallAdapterFactory())
+                    .baseUrl(endpointHost)
+                    .callFactory(callFactory)
                     .build();
         }
     }
@@ -149,6 +470,17 @@ public class UberRidesApi {
         return new Builder(session);
     }
 
+    /**
+     * Starts a {@link Builder} for a {@link SharedRidesApi} serving every {@link Session} of a
+     * {@link SessionConfiguration}. Finish with {@link Builder#buildShared()}.
+     *
+     * @param configuration required {@link SessionConfiguration} shared by the sessions.
+     */
+    @Nonnull
+    public static Builder shared(@Nonnull SessionConfiguration configuration) {
+        return new Builder(configuration);
+    }
+
     private UberRidesApi(@Nonnull Retrofit retrofit) {
         this.retrofit = retrofit;
     }
@@ -162,4 +494,27 @@ public class UberRidesApi {
     public RidesService createService() {
         return retrofit.create(RidesService.class);
     }
+
+    /**
+     * Get the {@link AsyncRidesService} to use with the Uber API.
+     * Consumers should cache and reuse this object.
+     *
+     * @return {@link AsyncRidesService}
+     */
+    public AsyncRidesService createAsyncService() {
+        return retrofit.create(AsyncRidesService.class);
+    }
+
+    /**
+     * Create an implementation of a custom service interface declared like {@link RidesService}.
+     *
+     * Service methods may return {@link retrofit2.Call}, {@link ApiFuture} or a Reactive Streams
+     * {@link org.reactivestreams.Publisher}. Consumers should cache and reuse this object.
+     *
+     * @param service the service interface to implement.
+     * @return an implementation of the service
+     */
+    public <S> S createService(@Nonnull Class<S> service) {
+        return retrofit.create(service);
+    }
 }
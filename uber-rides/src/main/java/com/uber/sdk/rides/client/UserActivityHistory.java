@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client;
+
+import com.uber.sdk.rides.client.model.UserActivity;
+import com.uber.sdk.rides.client.model.UserActivityPage;
+import com.uber.sdk.rides.client.services.RidesService;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A lazy {@link Iterable} over the user's full ride history from {@link RidesService#getUserActivity}.
+ *
+ * Pages are requested on demand and stop at the total count reported by the API. While a page is being
+ * consumed the next {@link Builder#setParallelism parallelism} pages are already in flight, so iterating a
+ * long history does not wait on one round trip per page.
+ *
+ * Failures are thrown from {@link Iterator#hasNext()} as a {@link PageException}.
+ */
+public class UserActivityHistory implements Iterable<UserActivity> {
+
+    /**
+     * Thrown while iterating when a page could not be retrieved.
+     */
+    public static class PageException extends RuntimeException {
+
+        private final int offset;
+
+        PageException(int offset, Throwable cause) {
+            super("Unable to retrieve user activity at offset " + offset, cause);
+            this.offset = offset;
+        }
+
+        /**
+         * The offset of the page that failed. The cause is an
+         * {@link com.uber.sdk.rides.client.error.ApiException} or an {@link java.io.IOException}.
+         */
+        public int getOffset() {
+            return offset;
+        }
+    }
+
+    /**
+     * Builder for {@link UserActivityHistory}
+     */
+    public static class Builder {
+        /**
+         * The largest page the API returns.
+         */
+        public static final int MAX_PAGE_SIZE = 50;
+
+        /**
+         * The number of pages requested ahead by default.
+         */
+        public static final int DEFAULT_PARALLELISM = 1;
+
+        final RidesService service;
+        int pageSize = MAX_PAGE_SIZE;
+        int parallelism = DEFAULT_PARALLELISM;
+
+        Builder(@Nonnull RidesService service) {
+            this.service = service;
+        }
+
+        /**
+         * Sets the number of activities per page. Optional and defaults to the API maximum of
+         * {@value #MAX_PAGE_SIZE}.
+         */
+        @Nonnull
+        public Builder setPageSize(int pageSize) {
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("pageSize must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * Sets how many pages are requested ahead of the page being consumed, 0 requesting each page only once
+         * the previous one is consumed. Optional and defaults to {@value #DEFAULT_PARALLELISM}.
+         */
+        @Nonnull
+        public Builder setParallelism(int parallelism) {
+            if (parallelism < 0) {
+                throw new IllegalArgumentException("parallelism < 0: " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Create the {@link UserActivityHistory} to be used.
+         */
+        @Nonnull
+        public UserActivityHistory build() {
+            return new UserActivityHistory(this);
+        }
+    }
+
+    /**
+     * Starts a {@link Builder} for a history using a {@link RidesService}.
+     *
+     * @param service the {@link RidesService} to request pages with.
+     */
+    @Nonnull
+    public static Builder with(@Nonnull RidesService service) {
+        return new Builder(service);
+    }
+
+    private final RidesService service;
+    private final int pageSize;
+    private final int parallelism;
+
+    UserActivityHistory(Builder builder) {
+        this.service = builder.service;
+        this.pageSize = builder.pageSize;
+        this.parallelism = builder.parallelism;
+    }
+
+    /**
+     * Starts a new pass over the history. Each iterator requests its own pages.
+     */
+    @Override
+    public Iterator<UserActivity> iterator() {
+        return new PageIterator();
+    }
+
+    private final class PageIterator implements Iterator<UserActivity> {
+        private final Deque<ApiFuture<UserActivityPage>> pages = new ArrayDeque<>();
+        private final Deque<Integer> offsets = new ArrayDeque<>();
+        private Iterator<UserActivity> current = Collections.<UserActivity>emptyList().iterator();
+        private int nextOffset;
+        private int count = -1;
+        private boolean started;
+
+        @Override
+        public boolean hasNext() {
+            if (!started) {
+                started = true;
+                request();
+            }
+            while (!current.hasNext()) {
+                if (pages.isEmpty()) {
+                    if (nextOffset >= count) {
+                        return false;
+                    }
+                    request();
+                }
+                UserActivityPage page = take();
+                List<UserActivity> activities = page.getUserActivities();
+                if (activities == null || activities.isEmpty()) {
+                    cancel();
+                    return false;
+                }
+                count = page.getCount();
+                while (pages.size() < parallelism && nextOffset < count) {
+                    request();
+                }
+                current = activities.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public UserActivity next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+
+        private void request() {
+            offsets.add(nextOffset);
+            pages.add(ApiFuture.enqueue(service.getUserActivity(nextOffset, pageSize)));
+            nextOffset += pageSize;
+        }
+
+        private UserActivityPage take() {
+            int offset = offsets.remove();
+            ApiFuture<UserActivityPage> page = pages.remove();
+            try {
+                return page.get();
+            } catch (ExecutionException e) {
+                cancel();
+                throw new PageException(offset, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new PageException(offset, e);
+            }
+        }
+
+        private void cancel() {
+            for (ApiFuture<UserActivityPage> page : pages) {
+                page.cancel(true);
+            }
+            pages.clear();
+            offsets.clear();
+        }
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.batch;
+
+import com.uber.sdk.core.client.internal.SdkExecutors;
+import com.uber.sdk.rides.client.error.ApiException;
+import com.uber.sdk.rides.client.error.ErrorParser;
+import com.uber.sdk.rides.client.model.PriceEstimate;
+import com.uber.sdk.rides.client.model.PriceEstimatesResponse;
+import com.uber.sdk.rides.client.services.RidesService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Estimates prices for many {@link Route Routes} with {@link RidesService#getPriceEstimates}.
+ *
+ * Identical routes are requested once. At most {@link Builder#setMaxConcurrency max concurrency} requests
+ * are in flight at a time, each cancelled after the {@link Builder#setItemTimeout item timeout}. Routes that
+ * fail or time out are reported in the {@link PriceEstimateMatrix} without failing the batch.
+ *
+ * Requests are dispatched by OkHttp, whose per-host limit also applies; see
+ * {@link com.uber.sdk.rides.client.UberRidesApi.Builder#setMaxRequests}.
+ */
+public class PriceEstimateBatch {
+
+    /**
+     * Builder for {@link PriceEstimateBatch}
+     */
+    public static class Builder {
+        static final int DEFAULT_MAX_CONCURRENCY = 5;
+        static final long DEFAULT_ITEM_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+        final RidesService service;
+        int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+        long itemTimeoutMillis = DEFAULT_ITEM_TIMEOUT_MILLIS;
+        ScheduledExecutorService scheduler;
+
+        Builder(@Nonnull RidesService service) {
+            this.service = service;
+        }
+
+        /**
+         * Sets the maximum number of requests in flight. Optional and defaults to
+         * {@value #DEFAULT_MAX_CONCURRENCY}.
+         */
+        @Nonnull
+        public Builder setMaxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency < 1: " + maxConcurrency);
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Sets how long a single route may take before its request is cancelled. Optional and defaults to
+         * 10 seconds.
+         */
+        @Nonnull
+        public Builder setItemTimeout(long timeout, @Nonnull TimeUnit unit) {
+            if (timeout <= 0) {
+                throw new IllegalArgumentException("timeout <= 0: " + timeout);
+            }
+            this.itemTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Sets the {@link ScheduledExecutorService} used to enforce item timeouts. Optional and defaults to a
+         * shared daemon thread.
+         */
+        @Nonnull
+        public Builder setScheduler(@Nonnull ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Create the {@link PriceEstimateBatch} to be used.
+         */
+        @Nonnull
+        public PriceEstimateBatch build() {
+            if (scheduler == null) {
+                scheduler = SdkExecutors.scheduler();
+            }
+            return new PriceEstimateBatch(this);
+        }
+    }
+
+    /**
+     * Starts a {@link Builder} for batches using a {@link RidesService}.
+     *
+     * @param service the {@link RidesService} to request estimates with.
+     */
+    @Nonnull
+    public static Builder with(@Nonnull RidesService service) {
+        return new Builder(service);
+    }
+
+    private final RidesService service;
+    private final int maxConcurrency;
+    private final long itemTimeoutMillis;
+    private final ScheduledExecutorService scheduler;
+
+    PriceEstimateBatch(Builder builder) {
+        this.service = builder.service;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.itemTimeoutMillis = builder.itemTimeoutMillis;
+        this.scheduler = builder.scheduler;
+    }
+
+    /**
+     * Estimates prices for the routes, blocking until every route has completed, failed or timed out.
+     *
+     * @param routes the routes to estimate, possibly with duplicates.
+     * @return the {@link PriceEstimateMatrix} of estimates.
+     * @throws InterruptedException if interrupted while waiting, after cancelling requests in flight.
+     */
+    @Nonnull
+    public PriceEstimateMatrix execute(@Nonnull List<Route> routes) throws InterruptedException {
+        Map<Route, Integer> uniqueRoutes = new LinkedHashMap<>();
+        int[] rows = new int[routes.size()];
+        for (int i = 0; i < routes.size(); i++) {
+            Route route = routes.get(i);
+            Integer row = uniqueRoutes.get(route);
+            if (row == null) {
+                row = uniqueRoutes.size();
+                uniqueRoutes.put(route, row);
+            }
+            rows[i] = row;
+        }
+
+        Collector collector = new Collector(uniqueRoutes.size());
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Call<PriceEstimatesResponse>> calls = new ArrayList<>(uniqueRoutes.size());
+        try {
+            for (Map.Entry<Route, Integer> entry : uniqueRoutes.entrySet()) {
+                permits.acquire();
+                Route route = entry.getKey();
+                Call<PriceEstimatesResponse> call = service.getPriceEstimates(route.getStartLatitude(),
+                        route.getStartLongitude(), route.getEndLatitude(), route.getEndLongitude());
+                calls.add(call);
+                enqueue(call, entry.getValue(), collector, permits);
+            }
+            collector.await();
+        } catch (InterruptedException e) {
+            for (Call<PriceEstimatesResponse> call : calls) {
+                call.cancel();
+            }
+            throw e;
+        }
+
+        return collector.toMatrix(new ArrayList<>(routes), rows);
+    }
+
+    private void enqueue(final Call<PriceEstimatesResponse> call,
+                         final int row,
+                         final Collector collector,
+                         final Semaphore permits) {
+        final ItemTimeout timeout = new ItemTimeout(call);
+        timeout.future = scheduler.schedule(timeout, itemTimeoutMillis, TimeUnit.MILLISECONDS);
+
+        call.enqueue(new Callback<PriceEstimatesResponse>() {
+            @Override
+            public void onResponse(Call<PriceEstimatesResponse> call, Response<PriceEstimatesResponse> response) {
+                timeout.future.cancel(false);
+                if (response.isSuccessful()) {
+                    collector.success(row, response.body());
+                } else {
+                    collector.failure(row, PriceEstimateMatrix.Status.FAILED,
+                            new ApiException(ErrorParser.parseError(response), response.code()));
+                }
+                permits.release();
+            }
+
+            @Override
+            public void onFailure(Call<PriceEstimatesResponse> call, Throwable throwable) {
+                timeout.future.cancel(false);
+                collector.failure(row, timeout.fired
+                        ? PriceEstimateMatrix.Status.TIMED_OUT
+                        : PriceEstimateMatrix.Status.FAILED, throwable);
+                permits.release();
+            }
+        });
+    }
+
+    static final class ItemTimeout implements Runnable {
+        private final Call<?> call;
+        volatile ScheduledFuture<?> future;
+        volatile boolean fired;
+
+        ItemTimeout(Call<?> call) {
+            this.call = call;
+        }
+
+        @Override
+        public void run() {
+            fired = true;
+            call.cancel();
+        }
+    }
+
+    /**
+     * Accumulates compact rows as responses arrive, so response object graphs can be collected early.
+     */
+    static final class Collector {
+        private final CountDownLatch remaining;
+        private final PriceEstimateMatrix.Status[] statuses;
+        private final Throwable[] failures;
+        private final String[] currencyCodes;
+        private final Row[] rows;
+        private final Map<String, Integer> productIndexes = new HashMap<>();
+        private final List<String> productIds = new ArrayList<>();
+        private final List<String> displayNames = new ArrayList<>();
+
+        Collector(int size) {
+            remaining = new CountDownLatch(size);
+            statuses = new PriceEstimateMatrix.Status[size];
+            failures = new Throwable[size];
+            currencyCodes = new String[size];
+            rows = new Row[size];
+        }
+
+        void success(int row, PriceEstimatesResponse response) {
+            List<PriceEstimate> prices = response != null && response.getPrices() != null
+                    ? response.getPrices()
+                    : new ArrayList<PriceEstimate>();
+            Row compact = new Row(prices.size());
+            String currencyCode = null;
+
+            synchronized (this) {
+                for (int i = 0; i < prices.size(); i++) {
+                    PriceEstimate price = prices.get(i);
+                    compact.products[i] = indexOf(price.getProductId(), price.getDisplayName());
+                    compact.lowEstimates[i] = price.getLowEstimate();
+                    compact.highEstimates[i] = price.getHighEstimate();
+                    compact.surgeMultipliers[i] = price.getSurgeMultiplier() != null
+                            ? price.getSurgeMultiplier() : Float.NaN;
+                    compact.durations[i] = price.getDuration() != null
+                            ? price.getDuration() : PriceEstimateMatrix.NO_DURATION;
+                    compact.distances[i] = price.getDistance() != null ? price.getDistance() : Float.NaN;
+                    if (currencyCode == null) {
+                        currencyCode = price.getCurrencyCode();
+                    }
+                }
+                statuses[row] = PriceEstimateMatrix.Status.SUCCESS;
+                currencyCodes[row] = currencyCode;
+                rows[row] = compact;
+            }
+            remaining.countDown();
+        }
+
+        void failure(int row, PriceEstimateMatrix.Status status, Throwable failure) {
+            synchronized (this) {
+                statuses[row] = status;
+                failures[row] = failure;
+            }
+            remaining.countDown();
+        }
+
+        void await() throws InterruptedException {
+            remaining.await();
+        }
+
+        synchronized PriceEstimateMatrix toMatrix(List<Route> routes, int[] routeRows) {
+            int productCount = productIds.size();
+            int cells = rows.length * productCount;
+            BigDecimal[] lowEstimates = new BigDecimal[cells];
+            BigDecimal[] highEstimates = new BigDecimal[cells];
+            float[] surgeMultipliers = new float[cells];
+            int[] durations = new int[cells];
+            float[] distances = new float[cells];
+            Arrays.fill(surgeMultipliers, Float.NaN);
+            Arrays.fill(durations, PriceEstimateMatrix.NO_ESTIMATE);
+            Arrays.fill(distances, Float.NaN);
+
+            for (int row = 0; row < rows.length; row++) {
+                Row compact = rows[row];
+                if (compact == null) {
+                    continue;
+                }
+                for (int i = 0; i < compact.products.length; i++) {
+                    int cell = row * productCount + compact.products[i];
+                    lowEstimates[cell] = compact.lowEstimates[i];
+                    highEstimates[cell] = compact.highEstimates[i];
+                    surgeMultipliers[cell] = compact.surgeMultipliers[i];
+                    durations[cell] = compact.durations[i];
+                    distances[cell] = compact.distances[i];
+                }
+            }
+
+            return new PriceEstimateMatrix(routes,
+                    routeRows,
+                    statuses,
+                    failures,
+                    currencyCodes,
+                    new ArrayList<>(productIds),
+                    displayNames.toArray(new String[productCount]),
+                    new HashMap<>(productIndexes),
+                    lowEstimates,
+                    highEstimates,
+                    surgeMultipliers,
+                    durations,
+                    distances);
+        }
+
+        private int indexOf(String productId, String displayName) {
+            Integer index = productIndexes.get(productId);
+            if (index == null) {
+                index = productIds.size();
+                productIndexes.put(productId, index);
+                productIds.add(productId);
+                displayNames.add(displayName);
+            }
+            return index;
+        }
+    }
+
+    static final class Row {
+        final int[] products;
+        final BigDecimal[] lowEstimates;
+        final BigDecimal[] highEstimates;
+        final float[] surgeMultipliers;
+        final int[] durations;
+        final float[] distances;
+
+        Row(int size) {
+            products = new int[size];
+            lowEstimates = new BigDecimal[size];
+            highEstimates = new BigDecimal[size];
+            surgeMultipliers = new float[size];
+            durations = new int[size];
+            distances = new float[size];
+        }
+    }
+}
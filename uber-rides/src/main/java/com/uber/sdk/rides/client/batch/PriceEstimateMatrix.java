@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.batch;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Price estimates for a batch of {@link Route Routes}, stored as a routes by products matrix.
+ *
+ * Rows follow the order of the routes passed to {@link PriceEstimateBatch#execute(List)}, with duplicate
+ * routes sharing the same estimates. Columns are the union of the products returned for all routes.
+ * Cells for products not offered on a route have no estimates.
+ */
+public final class PriceEstimateMatrix {
+
+    static final int NO_ESTIMATE = -2;
+    static final int NO_DURATION = -1;
+
+    /**
+     * The outcome of estimating a route.
+     */
+    public enum Status {
+        SUCCESS,
+        FAILED,
+        TIMED_OUT
+    }
+
+    private final List<Route> routes;
+    private final int[] rows;
+    private final Status[] statuses;
+    private final Throwable[] failures;
+    private final String[] currencyCodes;
+    private final List<String> productIds;
+    private final String[] displayNames;
+    private final Map<String, Integer> productIndexes;
+
+    private final BigDecimal[] lowEstimates;
+    private final BigDecimal[] highEstimates;
+    private final float[] surgeMultipliers;
+    private final int[] durations;
+    private final float[] distances;
+
+    PriceEstimateMatrix(List<Route> routes,
+                        int[] rows,
+                        Status[] statuses,
+                        Throwable[] failures,
+                        String[] currencyCodes,
+                        List<String> productIds,
+                        String[] displayNames,
+                        Map<String, Integer> productIndexes,
+                        BigDecimal[] lowEstimates,
+                        BigDecimal[] highEstimates,
+                        float[] surgeMultipliers,
+                        int[] durations,
+                        float[] distances) {
+        this.routes = Collections.unmodifiableList(routes);
+        this.rows = rows;
+        this.statuses = statuses;
+        this.failures = failures;
+        this.currencyCodes = currencyCodes;
+        this.productIds = Collections.unmodifiableList(productIds);
+        this.displayNames = displayNames;
+        this.productIndexes = productIndexes;
+        this.lowEstimates = lowEstimates;
+        this.highEstimates = highEstimates;
+        this.surgeMultipliers = surgeMultipliers;
+        this.durations = durations;
+        this.distances = distances;
+    }
+
+    /**
+     * @return the routes, in the order they were requested.
+     */
+    @Nonnull
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    /**
+     * @return the product IDs of the matrix columns.
+     */
+    @Nonnull
+    public List<String> getProductIds() {
+        return productIds;
+    }
+
+    /**
+     * @return the column of a product, or -1 if no route returned it.
+     */
+    public int indexOfProduct(@Nonnull String productId) {
+        Integer index = productIndexes.get(productId);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @return the display name of the product in a column.
+     */
+    @Nullable
+    public String getDisplayName(int product) {
+        return displayNames[product];
+    }
+
+    /**
+     * @return the {@link Status} of a route.
+     */
+    @Nonnull
+    public Status getStatus(int route) {
+        return statuses[rows[route]];
+    }
+
+    /**
+     * @return true if estimates were returned for a route.
+     */
+    public boolean isSuccessful(int route) {
+        return getStatus(route) == Status.SUCCESS;
+    }
+
+    /**
+     * @return the failure for a route that was not successful, otherwise {@code null}. API errors are
+     * {@link com.uber.sdk.rides.client.error.ApiException ApiExceptions}.
+     */
+    @Nullable
+    public Throwable getFailure(int route) {
+        return failures[rows[route]];
+    }
+
+    /**
+     * @return the ISO 4217 currency code of a route.
+     */
+    @Nullable
+    public String getCurrencyCode(int route) {
+        return currencyCodes[rows[route]];
+    }
+
+    /**
+     * @return true if the product was estimated for the route.
+     */
+    public boolean hasEstimate(int route, int product) {
+        return isSuccessful(route) && durations[cell(route, product)] != NO_ESTIMATE;
+    }
+
+    /**
+     * @return the lower bound of the estimated price.
+     */
+    @Nullable
+    public BigDecimal getLowEstimate(int route, int product) {
+        return lowEstimates[cell(route, product)];
+    }
+
+    /**
+     * @return the upper bound of the estimated price.
+     */
+    @Nullable
+    public BigDecimal getHighEstimate(int route, int product) {
+        return highEstimates[cell(route, product)];
+    }
+
+    /**
+     * @return the expected surge multiplier.
+     */
+    @Nullable
+    public Float getSurgeMultiplier(int route, int product) {
+        float value = surgeMultipliers[cell(route, product)];
+        return Float.isNaN(value) ? null : value;
+    }
+
+    /**
+     * @return the expected activity duration in seconds.
+     */
+    @Nullable
+    public Integer getDuration(int route, int product) {
+        int value = durations[cell(route, product)];
+        return value < 0 ? null : value;
+    }
+
+    /**
+     * @return the expected activity distance in miles.
+     */
+    @Nullable
+    public Float getDistance(int route, int product) {
+        float value = distances[cell(route, product)];
+        return Float.isNaN(value) ? null : value;
+    }
+
+    private int cell(int route, int product) {
+        if (product < 0 || product >= productIds.size()) {
+            throw new IndexOutOfBoundsException("Product index: " + product);
+        }
+        return rows[route] * productIds.size() + product;
+    }
+}
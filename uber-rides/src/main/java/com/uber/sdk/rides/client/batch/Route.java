@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.batch;
+
+/**
+ * A start and end location to estimate prices for.
+ */
+public final class Route {
+
+    private final float startLatitude;
+    private final float startLongitude;
+    private final float endLatitude;
+    private final float endLongitude;
+
+    /**
+     * @param startLatitude Latitude component of start location.
+     * @param startLongitude Longitude component of start location.
+     * @param endLatitude Latitude component of end location.
+     * @param endLongitude Longitude component of end location.
+     */
+    public Route(float startLatitude, float startLongitude, float endLatitude, float endLongitude) {
+        this.startLatitude = startLatitude;
+        this.startLongitude = startLongitude;
+        this.endLatitude = endLatitude;
+        this.endLongitude = endLongitude;
+    }
+
+    public float getStartLatitude() {
+        return startLatitude;
+    }
+
+    public float getStartLongitude() {
+        return startLongitude;
+    }
+
+    public float getEndLatitude() {
+        return endLatitude;
+    }
+
+    public float getEndLongitude() {
+        return endLongitude;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Route route = (Route) o;
+        return Float.compare(route.startLatitude, startLatitude) == 0
+                && Float.compare(route.startLongitude, startLongitude) == 0
+                && Float.compare(route.endLatitude, endLatitude) == 0
+                && Float.compare(route.endLongitude, endLongitude) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Float.floatToIntBits(startLatitude);
+        result = 31 * result + Float.floatToIntBits(startLongitude);
+        result = 31 * result + Float.floatToIntBits(endLatitude);
+        result = 31 * result + Float.floatToIntBits(endLongitude);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Route{" + startLatitude + "," + startLongitude + " -> " + endLatitude + "," + endLongitude + "}";
+    }
+}
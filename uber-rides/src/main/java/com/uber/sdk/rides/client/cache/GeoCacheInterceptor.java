@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.cache;
+
+import com.uber.sdk.core.client.internal.Clock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Caches product, price estimate and time estimate responses per geohash cell.
+ *
+ * The coordinates of a request are snapped to the geohash cell containing them, so nearby requests share a
+ * cache entry. Entries expire after a per-{@link Endpoint} time to live, and the least recently used entries
+ * are evicted once the cache is full. Only successful responses are cached.
+ *
+ * Install through {@link com.uber.sdk.rides.client.UberRidesApi.Builder#setGeoCache} and share one instance
+ * between APIs to cache across sessions.
+ */
+public class GeoCacheInterceptor implements Interceptor {
+
+    static final String HEADER_AUTHORIZATION = "Authorization";
+
+    /**
+     * The cacheable endpoints of {@link com.uber.sdk.rides.client.services.RidesService}.
+     */
+    public enum Endpoint {
+        PRODUCTS("/v1.2/products", "latitude", "longitude", null, null),
+        PRICE_ESTIMATES("/v1.2/estimates/price", "start_latitude", "start_longitude", "end_latitude", "end_longitude"),
+        TIME_ESTIMATES("/v1.2/estimates/time", "start_latitude", "start_longitude", null, null);
+
+        final String path;
+        final String latitude;
+        final String longitude;
+        @Nullable final String endLatitude;
+        @Nullable final String endLongitude;
+
+        Endpoint(String path,
+                 String latitude,
+                 String longitude,
+                 @Nullable String endLatitude,
+                 @Nullable String endLongitude) {
+            this.path = path;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.endLatitude = endLatitude;
+            this.endLongitude = endLongitude;
+        }
+
+        @Nullable
+        static Endpoint forPath(String path) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.path.equals(path)) {
+                    return endpoint;
+                }
+            }
+            return null;
+        }
+
+        boolean isCoordinate(String name) {
+            return name.equals(latitude) || name.equals(longitude)
+                    || name.equals(endLatitude) || name.equals(endLongitude);
+        }
+    }
+
+    /**
+     * Builder for {@link GeoCacheInterceptor}
+     */
+    public static class Builder {
+        static final int DEFAULT_PRECISION = 7;
+        static final int DEFAULT_MAX_ENTRIES = 10000;
+        static final long DEFAULT_TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+        int precision = DEFAULT_PRECISION;
+        int maxEntries = DEFAULT_MAX_ENTRIES;
+        boolean sharedAcrossUsers;
+        final Map<Endpoint, Long> ttlMillis = new EnumMap<>(Endpoint.class);
+
+        Builder() {
+            for (Endpoint endpoint : Endpoint.values()) {
+                ttlMillis.put(endpoint, DEFAULT_TTL_MILLIS);
+            }
+        }
+
+        /**
+         * Sets the geohash precision of cache cells, between {@value GeoHash#MIN_PRECISION} and
+         * {@value GeoHash#MAX_PRECISION}. Optional and defaults to {@value #DEFAULT_PRECISION}, cells of
+         * roughly 150m x 150m.
+         */
+        @Nonnull
+        public Builder setPrecision(int precision) {
+            if (precision < GeoHash.MIN_PRECISION || precision > GeoHash.MAX_PRECISION) {
+                throw new IllegalArgumentException("Invalid geohash precision: " + precision);
+            }
+            this.precision = precision;
+            return this;
+        }
+
+        /**
+         * Sets how long responses of an {@link Endpoint} are cached, or 0 to not cache the endpoint.
+         * Optional and defaults to 30 seconds for every endpoint.
+         */
+        @Nonnull
+        public Builder setTimeToLive(@Nonnull Endpoint endpoint, long duration, @Nonnull TimeUnit unit) {
+            if (duration < 0) {
+                throw new IllegalArgumentException("Negative time to live: " + duration);
+            }
+            ttlMillis.put(endpoint, unit.toMillis(duration));
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of cached responses. Optional and defaults to {@value #DEFAULT_MAX_ENTRIES}.
+         */
+        @Nonnull
+        public Builder setMaxEntries(int maxEntries) {
+            if (maxEntries < 1) {
+                throw new IllegalArgumentException("maxEntries < 1: " + maxEntries);
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets whether entries are shared between users. When disabled, the {@code Authorization} header is part
+         * of the cache key. Enable it only when responses do not depend on the user, for example with server
+         * token sessions. Optional and defaults to {@code false}.
+         */
+        @Nonnull
+        public Builder setSharedAcrossUsers(boolean sharedAcrossUsers) {
+            this.sharedAcrossUsers = sharedAcrossUsers;
+            return this;
+        }
+
+        /**
+         * Create the {@link GeoCacheInterceptor} to be used.
+         */
+        @Nonnull
+        public GeoCacheInterceptor build() {
+            return new GeoCacheInterceptor(this, Clock.SYSTEM);
+        }
+    }
+
+    private final int precision;
+    private final boolean sharedAcrossUsers;
+    private final Map<Endpoint, Long> ttlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<String, CachedResponse> entries;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    GeoCacheInterceptor(Builder builder, Clock clock) {
+        this.precision = builder.precision;
+        this.sharedAcrossUsers = builder.sharedAcrossUsers;
+        this.ttlMillis = new EnumMap<>(builder.ttlMillis);
+        this.clock = clock;
+
+        final int maxEntries = builder.maxEntries;
+        this.entries = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                if (size() > maxEntries) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Starts a {@link Builder} to create a {@link GeoCacheInterceptor}.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!"GET".equals(request.method())) {
+            return chain.proceed(request);
+        }
+
+        Endpoint endpoint = Endpoint.forPath(request.url().encodedPath());
+        long ttl = endpoint != null ? ttlMillis.get(endpoint) : 0;
+        String key = ttl > 0 ? createKey(endpoint, request) : null;
+        if (key == null) {
+            return chain.proceed(request);
+        }
+
+        CachedResponse entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAtMillis <= clock.currentTimeMillis()) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            hitCount.incrementAndGet();
+            return entry.toResponse(request);
+        }
+
+        missCount.incrementAndGet();
+        Response response = chain.proceed(request);
+        if (!response.isSuccessful()) {
+            return response;
+        }
+
+        ResponseBody body = response.body();
+        entry = new CachedResponse(response, body.contentType(), body.bytes(), clock.currentTimeMillis() + ttl);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        return entry.toResponse(request);
+    }
+
+    /**
+     * @return the number of requests served from the cache.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of cacheable requests sent to the network, including those for expired entries.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of entries evicted because the cache was full.
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return the number of cached responses, including expired ones not yet removed.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Removes all cached responses.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @Nullable
+    String createKey(Endpoint endpoint, Request request) {
+        HttpUrl url = request.url();
+        String start = encode(url, endpoint.latitude, endpoint.longitude);
+        if (start == null) {
+            return null;
+        }
+
+        StringBuilder key = new StringBuilder(endpoint.name()).append(':').append(start);
+        if (endpoint.endLatitude != null) {
+            String end = encode(url, endpoint.endLatitude, endpoint.endLongitude);
+            if (end == null) {
+                return null;
+            }
+            key.append(':').append(end);
+        }
+
+        List<String> names = new ArrayList<>(url.queryParameterNames());
+        Collections.sort(names);
+        for (String name : names) {
+            if (!endpoint.isCoordinate(name)) {
+                key.append('&').append(name).append('=').append(url.queryParameterValues(name));
+            }
+        }
+
+        if (!sharedAcrossUsers) {
+            key.append('\n').append(request.header(HEADER_AUTHORIZATION));
+        }
+        return key.toString();
+    }
+
+    @Nullable
+    private String encode(HttpUrl url, String latitudeName, String longitudeName) {
+        String latitude = url.queryParameter(latitudeName);
+        String longitude = url.queryParameter(longitudeName);
+        if (latitude == null || longitude == null) {
+            return null;
+        }
+        try {
+            return GeoHash.encode(Double.parseDouble(latitude), Double.parseDouble(longitude), precision);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static final class CachedResponse {
+        final Response response;
+        final MediaType contentType;
+        final byte[] body;
+        final long expiresAtMillis;
+
+        CachedResponse(Response response, MediaType contentType, byte[] body, long expiresAtMillis) {
+            this.response = response.newBuilder()
+                    .body(null)
+                    .networkResponse(null)
+                    .cacheResponse(null)
+                    .priorResponse(null)
+                    .build();
+            this.contentType = contentType;
+            this.body = body;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        Response toResponse(Request request) {
+            return response.newBuilder()
+                    .request(request)
+                    .body(ResponseBody.create(contentType, body))
+                    .build();
+        }
+    }
+}
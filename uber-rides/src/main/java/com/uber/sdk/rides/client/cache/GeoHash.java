@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.cache;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Encodes coordinates as <a href="https://en.wikipedia.org/wiki/Geohash">geohashes</a>.
+ *
+ * Each additional character of precision divides the cell into 32 smaller ones. Precision 6 cells are
+ * roughly 1.2km x 0.6km, precision 7 cells roughly 150m x 150m.
+ */
+public final class GeoHash {
+
+    public static final int MIN_PRECISION = 1;
+    public static final int MAX_PRECISION = 12;
+
+    private static final char[] BASE_32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private GeoHash() {}
+
+    /**
+     * Encodes a coordinate into the geohash of the cell containing it.
+     *
+     * @param latitude the latitude, between -90 and 90.
+     * @param longitude the longitude, between -180 and 180.
+     * @param precision the number of characters, between {@value #MIN_PRECISION} and {@value #MAX_PRECISION}.
+     * @return the geohash of the cell.
+     */
+    @Nonnull
+    public static String encode(double latitude, double longitude, int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and "
+                    + MAX_PRECISION + ": " + precision);
+        }
+
+        double minLatitude = -90;
+        double maxLatitude = 90;
+        double minLongitude = -180;
+        double maxLongitude = 180;
+
+        char[] hash = new char[precision];
+        boolean evenBit = true;
+        int bit = 0;
+        int index = 0;
+        int length = 0;
+        while (length < precision) {
+            if (evenBit) {
+                double middle = (minLongitude + maxLongitude) / 2;
+                if (longitude >= middle) {
+                    index = (index << 1) | 1;
+                    minLongitude = middle;
+                } else {
+                    index = index << 1;
+                    maxLongitude = middle;
+                }
+            } else {
+                double middle = (minLatitude + maxLatitude) / 2;
+                if (latitude >= middle) {
+                    index = (index << 1) | 1;
+                    minLatitude = middle;
+                } else {
+                    index = index << 1;
+                    maxLatitude = middle;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash[length++] = BASE_32[index];
+                bit = 0;
+                index = 0;
+            }
+        }
+        return new String(hash);
+    }
+}
@@ -24,13 +24,19 @@ package com.uber.sdk.rides.client.error;
 
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
 import com.squareup.moshi.Moshi;
+import com.squareup.moshi.Types;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import okhttp3.ResponseBody;
+import okio.Buffer;
 import retrofit2.Response;
 
 /**
@@ -38,6 +44,13 @@ import retrofit2.Response;
  */
 public final class ErrorParser {
 
+    private static final String UNKNOWN_ERROR = "Unknown Error";
+
+    private static final Moshi MOSHI = new Moshi.Builder().build();
+    private static final JsonAdapter<Meta> META_ADAPTER = MOSHI.adapter(Meta.class);
+    private static final JsonAdapter<List<ClientError>> CLIENT_ERRORS_ADAPTER =
+            MOSHI.adapter(Types.newParameterizedType(List.class, ClientError.class));
+
     /**
      * Parses a {@link Response} into an {@link ApiError}.
      *
@@ -50,10 +63,17 @@ public final class ErrorParser {
             return null;
         }
 
+        ResponseBody errorBody = response.errorBody();
+        if (errorBody == null) {
+            return new ApiError(null, response.code(), response.message());
+        }
+
         try {
-            return parseError(response.errorBody().string(), response.code(), response.message());
-        } catch (IOException e) {
-            return new ApiError(null, response.code(), "Unknown Error");
+            return parseError(JsonReader.of(errorBody.source()), response.code());
+        } catch (IOException | JsonDataException exception) {
+            return new ApiError(null, response.code(), UNKNOWN_ERROR);
+        } finally {
+            errorBody.close();
         }
     }
 
@@ -71,19 +91,69 @@ public final class ErrorParser {
             return new ApiError(null, statusCode, message);
         }
 
-        Moshi moshi = new Moshi.Builder().build();
-        JsonAdapter<CompatibilityApiError> oldApiErrorJsonAdapter = moshi.adapter(CompatibilityApiError.class).failOnUnknown();
         try {
-             return new ApiError(oldApiErrorJsonAdapter.fromJson(errorBody), statusCode);
+            return parseError(JsonReader.of(new Buffer().writeUtf8(errorBody)), statusCode);
         } catch (IOException | JsonDataException exception) {
-            // Not old type of error, move on
+            return new ApiError(null, statusCode, UNKNOWN_ERROR);
         }
+    }
 
-        JsonAdapter<ApiError> apiErrorJsonAdapter = moshi.adapter(ApiError.class).failOnUnknown();
-        try {
-            return apiErrorJsonAdapter.fromJson(errorBody);
-        } catch (IOException | JsonDataException exception) {
-            return new ApiError(null, statusCode, "Unknown Error");
+    /**
+     * Reads an error body in a single pass. The body is either the old {@code code} and {@code message} shape
+     * ({@link CompatibilityApiError}) or the {@code meta} and {@code errors} shape ({@link ApiError}); names from
+     * both shapes, or any other name, make it an unknown error.
+     */
+    @Nonnull
+    private static ApiError parseError(@Nonnull JsonReader reader, int statusCode) throws IOException {
+        reader.setFailOnUnknown(true);
+
+        String code = null;
+        String message = null;
+        Meta meta = null;
+        List<ClientError> errors = null;
+        boolean compatibility = false;
+        boolean current = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "code":
+                    code = nextString(reader);
+                    compatibility = true;
+                    break;
+                case "message":
+                    message = nextString(reader);
+                    compatibility = true;
+                    break;
+                case "meta":
+                    meta = META_ADAPTER.fromJson(reader);
+                    current = true;
+                    break;
+                case "errors":
+                    errors = CLIENT_ERRORS_ADAPTER.fromJson(reader);
+                    current = true;
+                    break;
+                default:
+                    return new ApiError(null, statusCode, UNKNOWN_ERROR);
+            }
+
+            if (compatibility && current) {
+                return new ApiError(null, statusCode, UNKNOWN_ERROR);
+            }
+        }
+        reader.endObject();
+
+        if (current) {
+            return new ApiError(meta, errors != null ? errors : Collections.<ClientError>emptyList());
+        }
+        return new ApiError(code, statusCode, message);
+    }
+
+    @Nullable
+    private static String nextString(@Nonnull JsonReader reader) throws IOException {
+        if (reader.peek() == JsonReader.Token.NULL) {
+            return reader.nextNull();
         }
+        return reader.nextString();
     }
 }
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.interceptors;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Lets interceptors see that the call of their request was cancelled, which OkHttp does not tell them.
+ *
+ * Calls made through {@link #callFactory} carry a {@link Cancellation} through the interceptors running on the
+ * calling thread, so {@link RetryInterceptor} does not retry a call its caller cancelled and
+ * {@link CircuitBreakerInterceptor} does not count it as a failure. {@link RequestHedger} also cancels the
+ * requests it made for such a call, and marks the request it cancels itself.
+ *
+ * {@link com.uber.sdk.rides.client.UberRidesApi.Builder} makes calls through {@link #callFactory} whenever
+ * retries or hedging are set.
+ */
+public final class CancellableCalls {
+
+    /**
+     * The requests being cancelled by a hedger, until their calls complete.
+     */
+    private static final Set<Request> CANCELLED_REQUESTS =
+            Collections.newSetFromMap(new ConcurrentHashMap<Request, Boolean>());
+    private static final ConcurrentMap<Request, Cancellation> PENDING = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Cancellation> CURRENT = new ThreadLocal<>();
+
+    private CancellableCalls() {}
+
+    /**
+     * Creates the {@link Call.Factory} of calls whose cancellation is seen by the interceptors of {@code client}.
+     *
+     * @param client the client making the calls.
+     * @return the {@link Call.Factory} to make calls with.
+     */
+    @Nonnull
+    public static Call.Factory callFactory(@Nonnull OkHttpClient client) {
+        OkHttpClient.Builder builder = client.newBuilder();
+        builder.interceptors().add(0, new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Cancellation cancellation = PENDING.remove(chain.request());
+                if (cancellation == null) {
+                    return chain.proceed(chain.request());
+                }
+
+                Cancellation previous = CURRENT.get();
+                CURRENT.set(cancellation);
+                try {
+                    return chain.proceed(chain.request());
+                } finally {
+                    if (previous == null) {
+                        CURRENT.remove();
+                    } else {
+                        CURRENT.set(previous);
+                    }
+                }
+            }
+        });
+        final OkHttpClient cancellableClient = builder.build();
+
+        return new Call.Factory() {
+            @Override
+            public Call newCall(Request request) {
+                return new CancellableCall(cancellableClient.newCall(request));
+            }
+        };
+    }
+
+    /**
+     * @return whether the call of a request was cancelled by its caller, or is being cancelled by a hedger as the
+     * loser of a hedged request, so its failure says nothing about the API.
+     */
+    static boolean isCancelled(@Nonnull Request request) {
+        if (CANCELLED_REQUESTS.contains(request)) {
+            return true;
+        }
+        Cancellation cancellation = CURRENT.get();
+        return cancellation != null && cancellation.isCancelled();
+    }
+
+    /**
+     * @return the {@link Cancellation} of the call running on the current thread, or {@code null} if it was not
+     * made through {@link #callFactory}.
+     */
+    @Nullable
+    static Cancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Marks a request as cancelled before its call is cancelled, until {@link #unmark} once the call completed.
+     */
+    static void mark(@Nonnull Request request) {
+        CANCELLED_REQUESTS.add(request);
+    }
+
+    static void unmark(@Nonnull Request request) {
+        CANCELLED_REQUESTS.remove(request);
+    }
+
+    /**
+     * The cancellation of a call made through {@link #callFactory}, passed on to the action registered for it,
+     * if any.
+     */
+    static final class Cancellation {
+        private Runnable action;
+        private boolean cancelled;
+
+        /**
+         * Registers the action cancelling the work done for the call.
+         *
+         * @return {@code false} if the call was already cancelled, in which case the action is not run.
+         */
+        synchronized boolean register(@Nonnull Runnable action) {
+            this.action = action;
+            return !cancelled;
+        }
+
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        void cancel() {
+            Runnable action;
+            synchronized (this) {
+                cancelled = true;
+                action = this.action;
+            }
+            if (action != null) {
+                action.run();
+            }
+        }
+    }
+
+    /**
+     * A call registered for the interceptor of {@link #callFactory} to find once it runs.
+     */
+    private static final class CancellableCall implements Call {
+        private final Call delegate;
+        private final Cancellation cancellation = new Cancellation();
+
+        CancellableCall(Call delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        @Override
+        public Response execute() throws IOException {
+            PENDING.put(delegate.request(), cancellation);
+            try {
+                return delegate.execute();
+            } finally {
+                PENDING.remove(delegate.request(), cancellation);
+            }
+        }
+
+        @Override
+        public void enqueue(final Callback callback) {
+            PENDING.put(delegate.request(), cancellation);
+            try {
+                delegate.enqueue(new Callback() {
+                    @Override
+                    public void onFailure(Call call, IOException e) {
+                        callback.onFailure(CancellableCall.this, e);
+                    }
+
+                    @Override
+                    public void onResponse(Call call, Response response) throws IOException {
+                        callback.onResponse(CancellableCall.this, response);
+                    }
+                });
+            } catch (RuntimeException e) {
+                PENDING.remove(delegate.request(), cancellation);
+                throw e;
+            }
+        }
+
+        /**
+         * Cancels the call after marking it cancelled, so the interceptors seeing it fail know why.
+         */
+        @Override
+        public void cancel() {
+            cancellation.cancel();
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return delegate.isExecuted();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return cancellation.isCancelled() || delegate.isCanceled();
+        }
+    }
+}
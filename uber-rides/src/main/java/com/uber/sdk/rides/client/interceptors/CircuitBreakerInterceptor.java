@@ -0,0 +1,468 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.interceptors;
+
+import com.uber.sdk.core.client.internal.Clock;
+import com.uber.sdk.rides.client.services.RidesService;
+import com.uber.sdk.rides.client.services.RouteTemplates;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Fails requests fast while their route is failing, with one circuit breaker per route template.
+ *
+ * Routes are the route templates of {@link RidesService}, such as {@code POST /v1.2/requests/estimate}, so a
+ * degraded route does not affect the others. Each breaker tracks its last
+ * {@link Builder#setWindowSize window size} calls; failures are connection failures and {@code 5xx} responses,
+ * and slow calls are those taking {@link Builder#setSlowCall slow call duration} or longer. Requests a
+ * {@link RequestHedger} or the caller of a {@link CancellableCalls} call cancelled are not counted.
+ *
+ * <ul>
+ * <li>{@link State#CLOSED}: calls go through. Once {@link Builder#setMinimumCalls minimum calls} were made, a
+ * failure rate or slow call rate at its threshold opens the breaker.</li>
+ * <li>{@link State#OPEN}: calls are rejected with a local {@code 503} response carrying the
+ * {@value #ERROR_CODE} error code, which reaches callers as an {@link com.uber.sdk.rides.client.error.ApiError}.
+ * After the {@link Builder#setOpenDuration open duration} the breaker is half-open.</li>
+ * <li>{@link State#HALF_OPEN}: a few trial calls go through and the others are rejected. The breaker closes if
+ * the trial calls stay below the thresholds, and opens again otherwise.</li>
+ * </ul>
+ *
+ * Requests matching no route template are not guarded. State changes are passed to
+ * {@link Listener Listeners}.
+ *
+ * Install through {@link com.uber.sdk.rides.client.UberRidesApi.Builder#setCircuitBreaker} and share one
+ * instance between APIs to share breakers across sessions.
+ */
+public class CircuitBreakerInterceptor implements Interceptor {
+
+    /**
+     * The code of the {@link com.uber.sdk.rides.client.error.ClientError} of requests rejected by an open breaker.
+     */
+    public static final String ERROR_CODE = "circuit_open";
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+    private static final String REJECTED_BODY =
+            "{\"code\":\"" + ERROR_CODE + "\",\"message\":\"Circuit breaker open for this route\"}";
+
+    /**
+     * The states of a circuit breaker.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Receives the state changes of the circuit breakers.
+     */
+    public interface Listener {
+
+        /**
+         * Called after a breaker changed state, on the thread of the call that changed it.
+         *
+         * @param route the route of the breaker, such as {@code GET /v1.2/requests/{request_id}}.
+         * @param from the previous state.
+         * @param to the new state.
+         */
+        void onStateChange(@Nonnull String route, @Nonnull State from, @Nonnull State to);
+    }
+
+    /**
+     * Builder for {@link CircuitBreakerInterceptor}
+     */
+    public static class Builder {
+        static final int DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+        static final int DEFAULT_SLOW_CALL_RATE_THRESHOLD = 100;
+        static final long DEFAULT_SLOW_CALL_MILLIS = TimeUnit.SECONDS.toMillis(5);
+        static final int DEFAULT_WINDOW_SIZE = 100;
+        static final int DEFAULT_MINIMUM_CALLS = 20;
+        static final long DEFAULT_OPEN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+        static final int DEFAULT_HALF_OPEN_CALLS = 5;
+
+        final List<Class<?>> services = new ArrayList<>();
+        final List<Listener> listeners = new ArrayList<>();
+        int failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+        int slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+        long slowCallMillis = DEFAULT_SLOW_CALL_MILLIS;
+        int windowSize = DEFAULT_WINDOW_SIZE;
+        int minimumCalls = DEFAULT_MINIMUM_CALLS;
+        long openMillis = DEFAULT_OPEN_MILLIS;
+        int halfOpenCalls = DEFAULT_HALF_OPEN_CALLS;
+
+        Builder() {
+        }
+
+        /**
+         * Sets the percentage of failed calls opening a breaker, from 1 to 100.
+         * Optional and defaults to {@value #DEFAULT_FAILURE_RATE_THRESHOLD}.
+         */
+        @Nonnull
+        public Builder setFailureRateThreshold(int percentage) {
+            this.failureRateThreshold = checkPercentage(percentage);
+            return this;
+        }
+
+        /**
+         * Sets how long a call takes to count as slow, and the percentage of slow calls opening a breaker, from
+         * 1 to 100. Optional and defaults to calls of 5 seconds, with a threshold of
+         * {@value #DEFAULT_SLOW_CALL_RATE_THRESHOLD}.
+         */
+        @Nonnull
+        public Builder setSlowCall(long duration, @Nonnull TimeUnit unit, int rateThreshold) {
+            if (duration < 1) {
+                throw new IllegalArgumentException("Slow call duration must be positive: " + duration);
+            }
+            this.slowCallMillis = unit.toMillis(duration);
+            this.slowCallRateThreshold = checkPercentage(rateThreshold);
+            return this;
+        }
+
+        /**
+         * Sets how many of the last calls of a route are tracked. Optional and defaults to
+         * {@value #DEFAULT_WINDOW_SIZE}.
+         */
+        @Nonnull
+        public Builder setWindowSize(int windowSize) {
+            if (windowSize < 1) {
+                throw new IllegalArgumentException("windowSize < 1: " + windowSize);
+            }
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Sets how many calls a closed breaker tracks before it may open. Optional and defaults to
+         * {@value #DEFAULT_MINIMUM_CALLS}, capped at the window size.
+         */
+        @Nonnull
+        public Builder setMinimumCalls(int minimumCalls) {
+            if (minimumCalls < 1) {
+                throw new IllegalArgumentException("minimumCalls < 1: " + minimumCalls);
+            }
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Sets how long a breaker stays open before letting trial calls through. Optional and defaults to
+         * 30 seconds.
+         */
+        @Nonnull
+        public Builder setOpenDuration(long duration, @Nonnull TimeUnit unit) {
+            if (duration < 0) {
+                throw new IllegalArgumentException("Negative open duration: " + duration);
+            }
+            this.openMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * Sets how many trial calls a half-open breaker lets through. Optional and defaults to
+         * {@value #DEFAULT_HALF_OPEN_CALLS}.
+         */
+        @Nonnull
+        public Builder setHalfOpenCalls(int halfOpenCalls) {
+            if (halfOpenCalls < 1) {
+                throw new IllegalArgumentException("halfOpenCalls < 1: " + halfOpenCalls);
+            }
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        /**
+         * Adds a Retrofit service interface whose route templates get a breaker. Optional and defaults to
+         * {@link RidesService} when no service is added.
+         */
+        @Nonnull
+        public Builder addService(@Nonnull Class<?> service) {
+            services.add(service);
+            return this;
+        }
+
+        /**
+         * Adds a {@link Listener} of state changes. Optional and defaults to none.
+         */
+        @Nonnull
+        public Builder addListener(@Nonnull Listener listener) {
+            listeners.add(listener);
+            return this;
+        }
+
+        /**
+         * Create the {@link CircuitBreakerInterceptor} to be used.
+         */
+        @Nonnull
+        public CircuitBreakerInterceptor build() {
+            return new CircuitBreakerInterceptor(this, Clock.SYSTEM);
+        }
+
+        private static int checkPercentage(int percentage) {
+            if (percentage < 1 || percentage > 100) {
+                throw new IllegalArgumentException("Percentage must be between 1 and 100: " + percentage);
+            }
+            return percentage;
+        }
+    }
+
+    /**
+     * Starts a {@link Builder} for a {@link CircuitBreakerInterceptor}.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final RouteTemplates routes;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final List<Listener> listeners;
+    private final Clock clock;
+    private final ConcurrentMap<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    CircuitBreakerInterceptor(@Nonnull Builder builder, @Nonnull Clock clock) {
+        List<Class<?>> services = builder.services.isEmpty()
+                ? Collections.<Class<?>>singletonList(RidesService.class) : builder.services;
+        this.routes = new RouteTemplates(services);
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(builder.slowCallMillis);
+        this.windowSize = builder.windowSize;
+        this.minimumCalls = Math.min(builder.minimumCalls, builder.windowSize);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(builder.openMillis);
+        this.halfOpenCalls = builder.halfOpenCalls;
+        this.listeners = new CopyOnWriteArrayList<>(builder.listeners);
+        this.clock = clock;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String template = routes.match(request.method(), request.url().encodedPathSegments());
+        if (template == null) {
+            return chain.proceed(request);
+        }
+
+        String route = request.method() + " " + template;
+        Breaker breaker = breaker(route);
+        if (!breaker.tryAcquire(clock.nanoTime())) {
+            return reject(request);
+        }
+
+        long start = clock.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            if (CancellableCalls.isCancelled(request)) {
+                breaker.onIgnored();
+            } else {
+                breaker.onComplete(true, clock.nanoTime() - start);
+            }
+            throw e;
+        }
+
+        if (response.networkResponse() == null) {
+            breaker.onIgnored();
+        } else {
+            breaker.onComplete(response.code() >= 500, clock.nanoTime() - start);
+        }
+        return response;
+    }
+
+    /**
+     * @param route the route, such as {@code GET /v1.2/requests/{request_id}}.
+     * @return the state of the breaker of the route, {@link State#CLOSED} if no call was made to it.
+     */
+    @Nonnull
+    public State getState(@Nonnull String route) {
+        Breaker breaker = breakers.get(route);
+        return breaker != null ? breaker.getState(clock.nanoTime()) : State.CLOSED;
+    }
+
+    private Breaker breaker(String route) {
+        Breaker breaker = breakers.get(route);
+        if (breaker == null) {
+            breaker = new Breaker(route);
+            Breaker existing = breakers.putIfAbsent(route, breaker);
+            if (existing != null) {
+                breaker = existing;
+            }
+        }
+        return breaker;
+    }
+
+    private void notifyListeners(String route, State from, State to) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onStateChange(route, from, to);
+            } catch (RuntimeException e) {
+                // A failing listener must not fail the call, nor keep the others from being notified.
+            }
+        }
+    }
+
+    private static Response reject(Request request) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(503)
+                .message("Service Unavailable")
+                .body(ResponseBody.create(JSON, REJECTED_BODY))
+                .build();
+    }
+
+    /**
+     * The breaker of one route, tracking its outcomes in a ring buffer.
+     */
+    private final class Breaker {
+        private final String route;
+        private final boolean[] failed = new boolean[windowSize];
+        private final boolean[] slow = new boolean[windowSize];
+        private int next;
+        private int calls;
+        private int failedCalls;
+        private int slowCalls;
+        private State state = State.CLOSED;
+        private long openedAt;
+        private int trialsStarted;
+
+        Breaker(String route) {
+            this.route = route;
+        }
+
+        boolean tryAcquire(long now) {
+            State from;
+            State to;
+            boolean permitted;
+            synchronized (this) {
+                from = state;
+                if (state == State.OPEN && now - openedAt >= openNanos) {
+                    transition(State.HALF_OPEN);
+                }
+                to = state;
+                permitted = state == State.CLOSED || (state == State.HALF_OPEN && trialsStarted < halfOpenCalls);
+                if (permitted && state == State.HALF_OPEN) {
+                    trialsStarted++;
+                }
+            }
+            if (from != to) {
+                notifyListeners(route, from, to);
+            }
+            return permitted;
+        }
+
+        void onComplete(boolean failure, long durationNanos) {
+            State from;
+            State to;
+            synchronized (this) {
+                from = state;
+                if (state == State.OPEN) {
+                    return;
+                }
+                record(failure, durationNanos >= slowCallNanos);
+
+                int required = state == State.HALF_OPEN ? halfOpenCalls : minimumCalls;
+                if (calls >= required) {
+                    if (failedCalls * 100 >= failureRateThreshold * calls
+                            || slowCalls * 100 >= slowCallRateThreshold * calls) {
+                        transition(State.OPEN);
+                        openedAt = clock.nanoTime();
+                    } else if (state == State.HALF_OPEN) {
+                        transition(State.CLOSED);
+                    }
+                }
+                to = state;
+            }
+            if (from != to) {
+                notifyListeners(route, from, to);
+            }
+        }
+
+        /**
+         * Gives back the permit of a call answered without reaching the API.
+         */
+        synchronized void onIgnored() {
+            if (state == State.HALF_OPEN && trialsStarted > 0) {
+                trialsStarted--;
+            }
+        }
+
+        synchronized State getState(long now) {
+            return state == State.OPEN && now - openedAt >= openNanos ? State.HALF_OPEN : state;
+        }
+
+        private void record(boolean failure, boolean slowCall) {
+            if (calls == windowSize) {
+                if (failed[next]) {
+                    failedCalls--;
+                }
+                if (slow[next]) {
+                    slowCalls--;
+                }
+            } else {
+                calls++;
+            }
+            failed[next] = failure;
+            slow[next] = slowCall;
+            if (failure) {
+                failedCalls++;
+            }
+            if (slowCall) {
+                slowCalls++;
+            }
+            next = (next + 1) % windowSize;
+        }
+
+        private void transition(State to) {
+            state = to;
+            next = 0;
+            calls = 0;
+            failedCalls = 0;
+            slowCalls = 0;
+            trialsStarted = 0;
+        }
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.interceptors;
+
+import com.uber.sdk.core.client.internal.Clock;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.ByteString;
+
+/**
+ * Limits the rate of Uber API requests per client id and per user with token buckets, adapting to throttling.
+ *
+ * Every request takes a permit from the bucket of its client id and from the bucket of its user. Users are told
+ * apart by the session given to {@link #interceptor(String, Object)}, by the request tag, which a
+ * {@link com.uber.sdk.rides.client.SharedRidesApi} sets to a value equal for all services of a session, or else
+ * by a digest of their {@code Authorization} header, so that no access token is kept. A request without a
+ * permit waits for one, up to {@link Builder#setMaxWait max wait}; requests that would wait longer are shed with
+ * a local {@code 429} response carrying the {@value #ERROR_CODE} error code, which reaches callers as an
+ * {@link com.uber.sdk.rides.client.error.ApiError}.
+ *
+ * A {@code 429} from the API halves the rate of the client id, at most once per second, which then climbs back
+ * with every accepted request. A {@code Retry-After} header, or an exhausted {@code X-Rate-Limit-Remaining} with its
+ * {@code X-Rate-Limit-Reset}, pauses the user until then.
+ *
+ * Install through {@link com.uber.sdk.rides.client.UberRidesApi.Builder#setRateLimiter} and share one instance
+ * between APIs to limit across sessions.
+ */
+public class RateLimiter {
+
+    /**
+     * The code of the {@link com.uber.sdk.rides.client.error.ClientError} of requests shed by the limiter.
+     */
+    public static final String ERROR_CODE = "client_rate_limited";
+
+    static final String HEADER_AUTHORIZATION = "Authorization";
+    static final String HEADER_RETRY_AFTER = "Retry-After";
+    static final String HEADER_RATE_LIMIT_REMAINING = "X-Rate-Limit-Remaining";
+    static final String HEADER_RATE_LIMIT_RESET = "X-Rate-Limit-Reset";
+    static final int TOO_MANY_REQUESTS = 429;
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+    private static final String SHED_BODY =
+            "{\"code\":\"" + ERROR_CODE + "\",\"message\":\"Request shed by the client rate limiter\"}";
+
+    /**
+     * Builder for {@link RateLimiter}
+     */
+    public static class Builder {
+        static final double DEFAULT_CLIENT_RATE = 100;
+        static final double DEFAULT_USER_RATE = 2000 / 3600d;
+        static final int DEFAULT_USER_BURST = 20;
+        static final long DEFAULT_MAX_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+        static final int DEFAULT_MAX_USERS = 10000;
+
+        double clientRate = DEFAULT_CLIENT_RATE;
+        int clientBurst = (int) DEFAULT_CLIENT_RATE;
+        double userRate = DEFAULT_USER_RATE;
+        int userBurst = DEFAULT_USER_BURST;
+        long maxWaitMillis = DEFAULT_MAX_WAIT_MILLIS;
+        int maxUsers = DEFAULT_MAX_USERS;
+
+        Builder() {
+        }
+
+        /**
+         * Sets the requests per second and the burst allowed to each client id.
+         * Optional and defaults to 100 requests per second with bursts of 100.
+         */
+        @Nonnull
+        public Builder setClientRate(double requestsPerSecond, int burst) {
+            checkRate(requestsPerSecond, burst);
+            this.clientRate = requestsPerSecond;
+            this.clientBurst = burst;
+            return this;
+        }
+
+        /**
+         * Sets the requests per second and the burst allowed to each user.
+         * Optional and defaults to 2000 requests per hour, the documented limit per user, with bursts of
+         * {@value #DEFAULT_USER_BURST}.
+         */
+        @Nonnull
+        public Builder setUserRate(double requestsPerSecond, int burst) {
+            checkRate(requestsPerSecond, burst);
+            this.userRate = requestsPerSecond;
+            this.userBurst = burst;
+            return this;
+        }
+
+        /**
+         * Sets how long a request may wait for a permit before it is shed, 0 to shed rather than wait.
+         * Optional and defaults to 5 seconds.
+         */
+        @Nonnull
+        public Builder setMaxWait(long maxWait, @Nonnull TimeUnit unit) {
+            if (maxWait < 0) {
+                throw new IllegalArgumentException("Negative max wait: " + maxWait);
+            }
+            this.maxWaitMillis = unit.toMillis(maxWait);
+            return this;
+        }
+
+        /**
+         * Sets how many users are tracked, the least recently seen being forgotten first.
+         * Optional and defaults to {@value #DEFAULT_MAX_USERS}.
+         */
+        @Nonnull
+        public Builder setMaxUsers(int maxUsers) {
+            if (maxUsers < 1) {
+                throw new IllegalArgumentException("maxUsers < 1: " + maxUsers);
+            }
+            this.maxUsers = maxUsers;
+            return this;
+        }
+
+        /**
+         * Create the {@link RateLimiter} to be used.
+         */
+        @Nonnull
+        public RateLimiter build() {
+            return new RateLimiter(this, Clock.SYSTEM);
+        }
+
+        private static void checkRate(double requestsPerSecond, int burst) {
+            if (!(requestsPerSecond > 0) || burst < 1) {
+                throw new IllegalArgumentException("Rate and burst must be positive: " + requestsPerSecond
+                        + ", " + burst);
+            }
+        }
+    }
+
+    /**
+     * Starts a {@link Builder} for a {@link RateLimiter}.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final double clientRate;
+    private final int clientBurst;
+    private final double userRate;
+    private final int userBurst;
+    private final long maxWaitNanos;
+    private final Clock clock;
+    private final Map<String, TokenBucket> clientBuckets = new HashMap<>();
+    private final LinkedHashMap<Object, TokenBucket> userBuckets;
+
+    private final AtomicLong delayedCount = new AtomicLong();
+    private final AtomicLong shedCount = new AtomicLong();
+    private final AtomicLong throttledCount = new AtomicLong();
+
+    RateLimiter(@Nonnull Builder builder, @Nonnull Clock clock) {
+        this.clientRate = builder.clientRate;
+        this.clientBurst = builder.clientBurst;
+        this.userRate = builder.userRate;
+        this.userBurst = builder.userBurst;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(builder.maxWaitMillis);
+        this.clock = clock;
+
+        final int maxUsers = builder.maxUsers;
+        this.userBuckets = new LinkedHashMap<Object, TokenBucket>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, TokenBucket> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Creates the {@link Interceptor} limiting the requests of a client id.
+     *
+     * @param clientId the client id the requests are made with.
+     */
+    @Nonnull
+    public Interceptor interceptor(@Nullable String clientId) {
+        return interceptor(clientId, null);
+    }
+
+    /**
+     * Creates the {@link Interceptor} limiting the requests of a client id made for one user.
+     *
+     * @param clientId the client id the requests are made with.
+     * @param user a stable identity of the user, such as their {@link com.uber.sdk.core.client.Session}, which
+     * outlives token refreshes, or {@code null} to tell users apart by their requests.
+     */
+    @Nonnull
+    public Interceptor interceptor(@Nullable String clientId, @Nullable final Object user) {
+        final String client = clientId != null ? clientId : "";
+        return new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                return RateLimiter.this.intercept(client, user != null ? user : userOf(chain.request()), chain);
+            }
+        };
+    }
+
+    /**
+     * @return the number of requests that waited for a permit.
+     */
+    public long getDelayedCount() {
+        return delayedCount.get();
+    }
+
+    /**
+     * @return the number of requests shed without reaching the API.
+     */
+    public long getShedCount() {
+        return shedCount.get();
+    }
+
+    /**
+     * @return the number of {@code 429} responses received from the API.
+     */
+    public long getThrottledCount() {
+        return throttledCount.get();
+    }
+
+    /**
+     * @return the current requests per second allowed to a client id.
+     */
+    public synchronized double getClientRate(@Nullable String clientId) {
+        TokenBucket bucket = clientBuckets.get(clientId != null ? clientId : "");
+        return bucket != null ? bucket.getRate() : clientRate;
+    }
+
+    Response intercept(String clientId, @Nullable Object user, Interceptor.Chain chain) throws IOException {
+        Request request = chain.request();
+
+        long waitNanos = acquire(clientId, user);
+        if (waitNanos < 0) {
+            shedCount.incrementAndGet();
+            return shed(request);
+        }
+        if (waitNanos > 0) {
+            delayedCount.incrementAndGet();
+            try {
+                clock.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a rate limit permit");
+            }
+        }
+
+        Response response = chain.proceed(request);
+        onResponse(clientId, user, response);
+        return response;
+    }
+
+    /**
+     * Reserves a permit from the client and user buckets.
+     *
+     * @return how long to wait for the permits, in nanoseconds, or -1 when the request should be shed.
+     */
+    synchronized long acquire(String clientId, @Nullable Object user) {
+        long now = clock.nanoTime();
+        TokenBucket client = clientBucket(clientId, now);
+        TokenBucket userBucket = user != null ? userBucket(user, now) : null;
+
+        long waitNanos = client.waitNanos(now);
+        if (userBucket != null) {
+            waitNanos = Math.max(waitNanos, userBucket.waitNanos(now));
+        }
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+
+        client.reserve(now);
+        if (userBucket != null) {
+            userBucket.reserve(now);
+        }
+        return waitNanos;
+    }
+
+    synchronized void onResponse(String clientId, @Nullable Object user, Response response) {
+        long now = clock.nanoTime();
+        TokenBucket client = clientBucket(clientId, now);
+        TokenBucket paused = user != null ? userBucket(user, now) : client;
+
+        if (response.code() == TOO_MANY_REQUESTS) {
+            throttledCount.incrementAndGet();
+            client.onThrottled(now);
+            long retryAfterNanos = retryAfterNanos(response);
+            if (retryAfterNanos > 0) {
+                paused.pauseUntil(now + retryAfterNanos);
+            }
+            return;
+        }
+
+        client.onAccepted();
+        if ("0".equals(response.header(HEADER_RATE_LIMIT_REMAINING))) {
+            long resetNanos = resetNanos(response);
+            if (resetNanos > 0) {
+                paused.pauseUntil(now + resetNanos);
+            }
+        }
+    }
+
+    private TokenBucket clientBucket(String clientId, long now) {
+        TokenBucket bucket = clientBuckets.get(clientId);
+        if (bucket == null) {
+            bucket = new TokenBucket(clientRate, clientBurst, now);
+            clientBuckets.put(clientId, bucket);
+        }
+        return bucket;
+    }
+
+    private TokenBucket userBucket(Object user, long now) {
+        TokenBucket bucket = userBuckets.get(user);
+        if (bucket == null) {
+            bucket = new TokenBucket(userRate, userBurst, now);
+            userBuckets.put(user, bucket);
+        }
+        return bucket;
+    }
+
+    /**
+     * Identifies the user of a request by its tag, which {@link com.uber.sdk.rides.client.SharedRidesApi} sets to
+     * a value equal for every service of a session, or else by a digest of its {@code Authorization} header.
+     */
+    @Nullable
+    static Object userOf(Request request) {
+        Object tag = request.tag();
+        // Untagged requests are their own tag, which rebuilt requests carry over.
+        if (!(tag instanceof Request)) {
+            return tag;
+        }
+        String authorization = request.header(HEADER_AUTHORIZATION);
+        return authorization != null ? ByteString.encodeUtf8(authorization).sha256() : null;
+    }
+
+    /**
+     * Reads {@code Retry-After} as seconds or as an HTTP date.
+     */
+    private long retryAfterNanos(Response response) {
+        String retryAfter = response.header(HEADER_RETRY_AFTER);
+        if (retryAfter == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            Date date = response.headers().getDate(HEADER_RETRY_AFTER);
+            return date != null ? TimeUnit.MILLISECONDS.toNanos(date.getTime() - clock.currentTimeMillis()) : 0;
+        }
+    }
+
+    /**
+     * Reads {@code X-Rate-Limit-Reset} as epoch seconds.
+     */
+    private long resetNanos(Response response) {
+        String reset = response.header(HEADER_RATE_LIMIT_RESET);
+        if (reset == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.MILLISECONDS.toNanos(
+                    TimeUnit.SECONDS.toMillis(Long.parseLong(reset.trim())) - clock.currentTimeMillis());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static Response shed(Request request) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(TOO_MANY_REQUESTS)
+                .message("Too Many Requests")
+                .body(ResponseBody.create(JSON, SHED_BODY))
+                .build();
+    }
+}
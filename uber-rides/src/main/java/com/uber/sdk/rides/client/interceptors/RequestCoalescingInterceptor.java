@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.interceptors;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Merges concurrent identical GET requests into a single network call.
+ *
+ * Requests are identical when they share the same URL and {@code Authorization} header, so calls made on
+ * behalf of different users are never merged. The first request for a key goes to the network; requests
+ * arriving while it is in flight wait for it and receive a copy of its response.
+ *
+ * Followers never wait longer than the {@link #RequestCoalescingInterceptor(long, TimeUnit) maximum wait}, after
+ * which they make their own request. When the first request fails, for example because its caller cancelled it,
+ * the followers coalesce once more behind a new request, and only receive the failure of that one.
+ *
+ * Install through {@link com.uber.sdk.rides.client.UberRidesApi.Builder#setRequestCoalescing} and share
+ * one instance between APIs to coalesce across sessions.
+ */
+public class RequestCoalescingInterceptor implements Interceptor {
+
+    static final String HEADER_AUTHORIZATION = "Authorization";
+
+    /**
+     * The default connect, write and read timeouts of OkHttp added up: how long a single attempt of the leading
+     * request can take. The leader runs the rest of the chain, so with retries or rate limiting installed it also
+     * spends time in retry backoff and in waits for rate limit permits; a follower outwaited by those makes its own
+     * request rather than hold its caller longer than one attempt would.
+     */
+    static final long DEFAULT_MAX_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final long maxWaitNanos;
+    private final ConcurrentMap<String, InFlightCall> inFlightCalls = new ConcurrentHashMap<>();
+    private final AtomicLong networkCount = new AtomicLong();
+    private final AtomicLong mergedCount = new AtomicLong();
+
+    /**
+     * Creates an interceptor whose followers wait up to 30 seconds, the default timeouts of a request.
+     */
+    public RequestCoalescingInterceptor() {
+        this(DEFAULT_MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param maxWait how long a request waits for an identical in-flight request before making its own, which
+     * should cover the timeouts of the client. Add the retry backoff and rate limiter wait the leader may spend
+     * for followers to always share its response.
+     * @param unit the unit of {@code maxWait}.
+     */
+    public RequestCoalescingInterceptor(long maxWait, TimeUnit unit) {
+        if (maxWait <= 0) {
+            throw new IllegalArgumentException("Max wait must be positive: " + maxWait);
+        }
+        this.maxWaitNanos = unit.toNanos(maxWait);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!"GET".equals(request.method())) {
+            return chain.proceed(request);
+        }
+        return coalesce(chain, request, createKey(request), true);
+    }
+
+    private Response coalesce(Chain chain, Request request, String key, boolean mayRetry) throws IOException {
+        InFlightCall call = new InFlightCall();
+        InFlightCall existing = inFlightCalls.putIfAbsent(key, call);
+        if (existing != null) {
+            mergedCount.incrementAndGet();
+            if (!existing.await(maxWaitNanos)) {
+                networkCount.incrementAndGet();
+                return chain.proceed(request);
+            }
+            if (existing.failure != null) {
+                if (mayRetry) {
+                    return coalesce(chain, request, key, false);
+                }
+                throw new IOException("Coalesced request failed", existing.failure);
+            }
+            return existing.copy(request);
+        }
+
+        networkCount.incrementAndGet();
+        try {
+            Response response = chain.proceed(request);
+            ResponseBody body = response.body();
+            MediaType contentType = body.contentType();
+            byte[] bytes = body.bytes();
+            // Removed before completing so that followers coalescing again never join this call.
+            inFlightCalls.remove(key, call);
+            call.complete(response, contentType, bytes, null);
+            return call.copy(request);
+        } catch (IOException | RuntimeException e) {
+            inFlightCalls.remove(key, call);
+            call.complete(null, null, null, e);
+            throw e;
+        } finally {
+            if (!call.isComplete()) {
+                inFlightCalls.remove(key, call);
+                call.complete(null, null, null, new IOException("Coalesced request did not complete"));
+            }
+        }
+    }
+
+    /**
+     * @return the number of GET requests that were sent to the network.
+     */
+    public long getNetworkCount() {
+        return networkCount.get();
+    }
+
+    /**
+     * @return the number of GET requests that were served by an identical in-flight request.
+     */
+    public long getMergedCount() {
+        return mergedCount.get();
+    }
+
+    /**
+     * @return the number of requests currently in flight.
+     */
+    public int getInFlightCount() {
+        return inFlightCalls.size();
+    }
+
+    static String createKey(Request request) {
+        String authorization = request.header(HEADER_AUTHORIZATION);
+        String url = request.url().toString();
+        return authorization == null ? url : url + '\n' + authorization;
+    }
+
+    static final class InFlightCall {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private volatile Response response;
+        private volatile MediaType contentType;
+        private volatile byte[] body;
+        private volatile Exception failure;
+
+        void complete(Response response, MediaType contentType, byte[] body, Exception failure) {
+            this.response = response;
+            this.contentType = contentType;
+            this.body = body;
+            this.failure = failure;
+            latch.countDown();
+        }
+
+        boolean isComplete() {
+            return latch.getCount() == 0;
+        }
+
+        /**
+         * @return whether the call completed within {@code timeoutNanos}.
+         */
+        boolean await(long timeoutNanos) throws IOException {
+            try {
+                return latch.await(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for coalesced request");
+            }
+        }
+
+        Response copy(Request request) {
+            return response.newBuilder()
+                    .request(request)
+                    .body(ResponseBody.create(contentType, body))
+                    .build();
+        }
+    }
+}
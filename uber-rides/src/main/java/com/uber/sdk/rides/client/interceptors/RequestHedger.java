@@ -0,0 +1,540 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.interceptors;
+
+import com.uber.sdk.core.client.internal.SdkExecutors;
+import com.uber.sdk.rides.client.metrics.LatencyHistogram;
+import com.uber.sdk.rides.client.metrics.MetricsInterceptor;
+import com.uber.sdk.rides.client.services.RidesService;
+import com.uber.sdk.rides.client.services.RouteTemplates;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Hedges latency-critical reads: when a {@code GET} has no response after a delay, an identical request is sent
+ * and whichever answers first is used, the other being cancelled.
+ *
+ * Only the routes of {@link RidesService#getPickupTimeEstimate} and {@link RidesService#getRideDetails} are
+ * hedged by default. The delay of a route is a {@link Builder#setDelay percentile} of its latencies over the last
+ * {@link Builder#setWindowSize window} of requests, and an initial delay until a first window was recorded, so
+ * only the slowest requests are hedged. Hedges are capped by a {@link RequestBudget} shared by all routes and all
+ * APIs using the hedger; a hedge answering with a {@code 5xx} does not replace the original request.
+ *
+ * Only calls made through {@link #callFactory} are hedged, since cancelling one of them cancels both requests;
+ * the request cancelled by the hedger or by the caller is not counted as a failure by {@link RetryInterceptor}
+ * and {@link CircuitBreakerInterceptor}, as for any call made through {@link CancellableCalls}.
+ *
+ * Install through {@link com.uber.sdk.rides.client.UberRidesApi.Builder#setHedging}, which sends both requests
+ * through the rest of the interceptor chain, makes calls through {@link #callFactory} and reports hedges to the
+ * {@link com.uber.sdk.rides.client.UberRidesApi.Builder#setMetrics metrics} if set.
+ */
+public class RequestHedger {
+
+    /**
+     * Builder for {@link RequestHedger}
+     */
+    public static class Builder {
+        static final double DEFAULT_PERCENTILE = 95;
+        static final long DEFAULT_INITIAL_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(1);
+        static final int DEFAULT_WINDOW_SIZE = 200;
+        static final double DEFAULT_BUDGET_RATIO = 0.05;
+        static final int DEFAULT_BUDGET_BURST = 10;
+
+        final Set<String> routes = new LinkedHashSet<>();
+        double percentile = DEFAULT_PERCENTILE;
+        long initialDelayMillis = DEFAULT_INITIAL_DELAY_MILLIS;
+        int windowSize = DEFAULT_WINDOW_SIZE;
+        RequestBudget budget;
+        ScheduledExecutorService scheduler;
+
+        Builder() {
+        }
+
+        /**
+         * Adds a {@code GET} route template of {@link RidesService} to hedge, such as
+         * {@code /v1.2/requests/{request_id}}. Optional and defaults to the routes of
+         * {@link RidesService#getPickupTimeEstimate} and {@link RidesService#getRideDetails} when no route is added.
+         */
+        @Nonnull
+        public Builder addRoute(@Nonnull String template) {
+            routes.add(template);
+            return this;
+        }
+
+        /**
+         * Sets the latency percentile after which a request is hedged, and the delay used until a route has
+         * latencies. Optional and defaults to the {@value #DEFAULT_PERCENTILE}th percentile, after one second
+         * at first.
+         */
+        @Nonnull
+        public Builder setDelay(double percentile, long initialDelay, @Nonnull TimeUnit unit) {
+            if (percentile <= 0 || percentile >= 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+            }
+            if (initialDelay < 0) {
+                throw new IllegalArgumentException("Negative initial delay: " + initialDelay);
+            }
+            this.percentile = percentile;
+            this.initialDelayMillis = unit.toMillis(initialDelay);
+            return this;
+        }
+
+        /**
+         * Sets how many requests of a route the delay is computed over, before it is computed again.
+         * Optional and defaults to {@value #DEFAULT_WINDOW_SIZE}.
+         */
+        @Nonnull
+        public Builder setWindowSize(int windowSize) {
+            if (windowSize < 1) {
+                throw new IllegalArgumentException("windowSize < 1: " + windowSize);
+            }
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Sets the {@link RequestBudget} capping hedges. Optional and defaults to hedging at most 5% of the
+         * requests to hedged routes, with up to 10 hedges at once.
+         */
+        @Nonnull
+        public Builder setBudget(@Nonnull RequestBudget budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * Sets the {@link ScheduledExecutorService} sending hedges once their delay elapsed.
+         * Optional and defaults to a shared single daemon thread.
+         */
+        @Nonnull
+        public Builder setScheduler(@Nonnull ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Create the {@link RequestHedger} to be used.
+         */
+        @Nonnull
+        public RequestHedger build() {
+            if (routes.isEmpty()) {
+                routes.add("/v1.2/estimates/time");
+                routes.add("/v1.2/requests/{request_id}");
+            }
+            if (budget == null) {
+                budget = new RequestBudget(DEFAULT_BUDGET_RATIO, DEFAULT_BUDGET_BURST);
+            }
+            if (scheduler == null) {
+                scheduler = SdkExecutors.scheduler();
+            }
+            return new RequestHedger(this);
+        }
+    }
+
+    /**
+     * Starts a {@link Builder} for a {@link RequestHedger}.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final RouteTemplates templates = new RouteTemplates(
+            Collections.<Class<?>>singletonList(RidesService.class));
+    private final Set<String> routes;
+    private final double percentile;
+    private final long initialDelayNanos;
+    private final int windowSize;
+    private final RequestBudget budget;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong hedgeCount = new AtomicLong();
+    private final AtomicLong hedgeWinCount = new AtomicLong();
+    private final AtomicLong budgetExhaustedCount = new AtomicLong();
+
+    RequestHedger(@Nonnull Builder builder) {
+        this.routes = new LinkedHashSet<>(builder.routes);
+        this.percentile = builder.percentile;
+        this.initialDelayNanos = TimeUnit.MILLISECONDS.toNanos(builder.initialDelayMillis);
+        this.windowSize = builder.windowSize;
+        this.budget = builder.budget;
+        this.scheduler = builder.scheduler;
+    }
+
+    /**
+     * Creates the {@link Interceptor} hedging the requests of one client.
+     *
+     * Hedged requests skip the rest of the chain the interceptor is added to: both the original request and the
+     * hedge are made with {@code client} instead, which should hold the interceptors that would have followed.
+     * Hedges are enqueued on a {@link Dispatcher} of their own, with the limits and executor of the dispatcher of
+     * {@code client}, so that callers already running on that dispatcher cannot keep them from starting.
+     *
+     * @param client the client making hedged requests, with the dispatcher configured for the API.
+     * @param metrics the {@link MetricsInterceptor} hedges are reported to, if any.
+     * @return the {@link Interceptor} to add to the chain.
+     */
+    @Nonnull
+    public Interceptor interceptor(@Nonnull OkHttpClient client, @Nullable final MetricsInterceptor metrics) {
+        Dispatcher configured = client.dispatcher();
+        Dispatcher dispatcher = new Dispatcher(configured.executorService());
+        dispatcher.setMaxRequests(configured.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(configured.getMaxRequestsPerHost());
+        final OkHttpClient hedgingClient = client.newBuilder().dispatcher(dispatcher).build();
+
+        return new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Request request = chain.request();
+                CancellableCalls.Cancellation cancellation = CancellableCalls.current();
+                Window window = cancellation != null ? window(request) : null;
+                if (window == null) {
+                    return chain.proceed(request);
+                }
+
+                final HedgedCall call = new HedgedCall(hedgingClient, request, metrics);
+                boolean registered = cancellation.register(new Runnable() {
+                    @Override
+                    public void run() {
+                        call.cancel();
+                    }
+                });
+                if (!registered) {
+                    throw new IOException("Canceled");
+                }
+                return call.execute(window);
+            }
+        };
+    }
+
+    /**
+     * Creates the {@link Call.Factory} of calls that can be hedged, whose cancellation also cancels the original
+     * request and the hedge made for them.
+     *
+     * @param client the client holding the {@link #interceptor hedging interceptor}.
+     * @return the {@link Call.Factory} to make calls with.
+     * @see CancellableCalls#callFactory
+     */
+    @Nonnull
+    public Call.Factory callFactory(@Nonnull OkHttpClient client) {
+        return CancellableCalls.callFactory(client);
+    }
+
+    /**
+     * @return the requests for which a hedge was sent.
+     */
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    /**
+     * @return the hedged requests answered by the hedge.
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.get();
+    }
+
+    /**
+     * @return the hedges not sent because the {@link RequestBudget} was spent.
+     */
+    public long getBudgetExhaustedCount() {
+        return budgetExhaustedCount.get();
+    }
+
+    /**
+     * @return the delay after which a request to a route is hedged, in nanoseconds.
+     */
+    long getDelayNanos(String route) {
+        Window window = windows.get(route);
+        return window != null ? window.getDelayNanos() : initialDelayNanos;
+    }
+
+    @Nullable
+    private Window window(Request request) {
+        if (!"GET".equals(request.method())) {
+            return null;
+        }
+        String route = templates.match(request.method(), request.url().encodedPathSegments());
+        if (route == null || !routes.contains(route)) {
+            return null;
+        }
+
+        Window window = windows.get(route);
+        if (window == null) {
+            window = new Window();
+            Window existing = windows.putIfAbsent(route, window);
+            if (existing != null) {
+                window = existing;
+            }
+        }
+        return window;
+    }
+
+    /**
+     * The latencies of the current window of a route, and the delay computed from the previous one.
+     */
+    private final class Window {
+        private final AtomicReference<LatencyHistogram> histogram =
+                new AtomicReference<>(new LatencyHistogram());
+        private final AtomicInteger samples = new AtomicInteger();
+        private volatile long delayNanos = initialDelayNanos;
+
+        long getDelayNanos() {
+            return delayNanos;
+        }
+
+        void record(long nanos) {
+            histogram.get().record(nanos, TimeUnit.NANOSECONDS);
+            if (samples.incrementAndGet() == windowSize) {
+                LatencyHistogram full = histogram.getAndSet(new LatencyHistogram());
+                samples.set(0);
+                long micros = full.snapshot().getValueAtPercentile(percentile);
+                delayNanos = TimeUnit.MICROSECONDS.toNanos(micros);
+            }
+        }
+    }
+
+    /**
+     * One request and its hedge. The original request runs on the calling thread, the hedge on the dispatcher.
+     *
+     * A request is added to the cancelled requests before its call is cancelled, unless the call already completed,
+     * and removed once it completes, both under the lock of the hedged call.
+     */
+    private final class HedgedCall implements Runnable, Callback {
+        private final OkHttpClient client;
+        private final Request request;
+        private final Request hedgeRequest;
+        @Nullable private final MetricsInterceptor metrics;
+        private final Call primary;
+        private final AtomicReference<Response> winner = new AtomicReference<>();
+        private final CountDownLatch hedgeDone = new CountDownLatch(1);
+        private Call hedge;
+        private boolean finished;
+        private boolean cancelled;
+        private boolean primaryCompleted;
+        private boolean hedgeCompleted;
+        private boolean abandoned;
+
+        HedgedCall(OkHttpClient client, Request request, @Nullable MetricsInterceptor metrics) {
+            this.client = client;
+            this.request = request;
+            this.hedgeRequest = request.newBuilder().build();
+            this.metrics = metrics;
+            this.primary = client.newCall(request);
+        }
+
+        Response execute(Window window) throws IOException {
+            budget.deposit();
+            long start = System.nanoTime();
+            ScheduledFuture<?> timer = scheduler.schedule(this, window.getDelayNanos(), TimeUnit.NANOSECONDS);
+
+            Response response = null;
+            IOException failure = null;
+            boolean settled = false;
+            try {
+                try {
+                    response = primary.execute();
+                    // Only the original request measures the route: the latency of a winning hedge is shorter
+                    // by design, and learning from it would lower the delay until every request is hedged.
+                    window.record(System.nanoTime() - start);
+                } catch (IOException e) {
+                    failure = e;
+                } finally {
+                    timer.cancel(false);
+                    synchronized (this) {
+                        primaryCompleted = true;
+                        CancellableCalls.unmark(request);
+                    }
+                }
+
+                Call hedge = finish();
+                if (hedge != null) {
+                    if (response != null && winner.compareAndSet(null, response)) {
+                        cancelHedge();
+                        report(false);
+                    } else {
+                        if (response != null) {
+                            response.body().close();
+                        }
+                        response = awaitHedge();
+                        report(response != null);
+                    }
+                }
+                settled = true;
+            } finally {
+                if (!settled) {
+                    abandon();
+                }
+            }
+
+            if (response == null) {
+                throw failure;
+            }
+            return response;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (finished || cancelled) {
+                    return;
+                }
+                if (!budget.tryWithdraw()) {
+                    budgetExhaustedCount.incrementAndGet();
+                    return;
+                }
+                hedge = client.newCall(hedgeRequest);
+            }
+            hedgeCount.incrementAndGet();
+            hedge.enqueue(this);
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) throws IOException {
+            onHedgeCompleted();
+            boolean won;
+            synchronized (this) {
+                won = !abandoned && response.code() < 500 && winner.compareAndSet(null, response);
+            }
+            if (won) {
+                cancelPrimary();
+            } else {
+                response.body().close();
+            }
+            hedgeDone.countDown();
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            onHedgeCompleted();
+            hedgeDone.countDown();
+        }
+
+        /**
+         * Cancels both requests on behalf of the caller.
+         */
+        void cancel() {
+            synchronized (this) {
+                cancelled = true;
+            }
+            cancelPrimary();
+            cancelHedge();
+        }
+
+        private void cancelPrimary() {
+            synchronized (this) {
+                if (!primaryCompleted) {
+                    CancellableCalls.mark(request);
+                }
+            }
+            primary.cancel();
+        }
+
+        private void cancelHedge() {
+            Call hedge;
+            synchronized (this) {
+                hedge = this.hedge;
+                if (hedge == null) {
+                    return;
+                }
+                if (!hedgeCompleted) {
+                    CancellableCalls.mark(hedgeRequest);
+                }
+            }
+            hedge.cancel();
+        }
+
+        private synchronized void onHedgeCompleted() {
+            hedgeCompleted = true;
+            CancellableCalls.unmark(hedgeRequest);
+        }
+
+        /**
+         * Cancels the hedge once the original request or the wait for the hedge failed unexpectedly, closing the
+         * response that won, since it will not be returned.
+         */
+        private void abandon() {
+            Response won;
+            synchronized (this) {
+                finished = true;
+                abandoned = true;
+                won = winner.get();
+            }
+            cancelHedge();
+            if (won != null) {
+                won.body().close();
+            }
+        }
+
+        private synchronized Call finish() {
+            finished = true;
+            return hedge;
+        }
+
+        /**
+         * @return the response of the hedge if it answered first, or {@code null} once it failed.
+         */
+        @Nullable
+        private Response awaitHedge() throws IOException {
+            try {
+                hedgeDone.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for hedge");
+            }
+            return winner.get();
+        }
+
+        private void report(boolean won) {
+            if (won) {
+                hedgeWinCount.incrementAndGet();
+            }
+            if (metrics != null) {
+                metrics.recordHedge(request, won);
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.interceptors;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Retries requests that failed transiently, with exponential backoff and full jitter.
+ *
+ * Connection failures, {@code 429} and {@code 500}, {@code 502}, {@code 503} and {@code 504} responses are
+ * retried, waiting at least as long as their {@code Retry-After} header asks. Responses made up locally, such
+ * as those of the {@link RateLimiter}, are not retried, nor are calls made through {@link CancellableCalls} once
+ * their caller or a {@link RequestHedger} cancelled them.
+ *
+ * {@code GET}, {@code HEAD} and {@code OPTIONS} requests are retried on any of these failures. Other requests,
+ * such as ride requests and cancellations, could take effect twice, so they are only retried when the connection
+ * could not be made, unless an {@link Builder#setIdempotencyKeyHeader idempotency key header} lets the API
+ * recognize repeated attempts.
+ *
+ * Retries are drawn from a {@link RequestBudget}, so they cannot multiply the traffic of an outage; once the
+ * budget is spent the failure is returned as is.
+ *
+ * Install through {@link com.uber.sdk.rides.client.UberRidesApi.Builder#setRetries} and share one instance
+ * between APIs to share the budget across sessions.
+ */
+public class RetryInterceptor implements Interceptor {
+
+    static final String HEADER_RETRY_AFTER = "Retry-After";
+
+    /**
+     * Builder for {@link RetryInterceptor}
+     */
+    public static class Builder {
+        static final int DEFAULT_MAX_ATTEMPTS = 3;
+        static final long DEFAULT_BASE_DELAY_MILLIS = 100;
+        static final long DEFAULT_MAX_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(2);
+        static final double DEFAULT_BUDGET_RATIO = 0.1;
+        static final int DEFAULT_BUDGET_BURST = 10;
+
+        int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+        long baseDelayMillis = DEFAULT_BASE_DELAY_MILLIS;
+        long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+        RequestBudget budget;
+        String idempotencyKeyHeader;
+
+        Builder() {
+        }
+
+        /**
+         * Sets how many times a request is sent at most, counting the first attempt.
+         * Optional and defaults to {@value #DEFAULT_MAX_ATTEMPTS}.
+         */
+        @Nonnull
+        public Builder setMaxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts < 1: " + maxAttempts);
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the backoff before retries. The nth retry waits a random delay up to {@code baseDelay * 2^(n-1)},
+         * capped at {@code maxDelay}; responses asking to wait longer than {@code maxDelay} are not retried.
+         * Optional and defaults to a base delay of 100 milliseconds and a max delay of 2 seconds.
+         */
+        @Nonnull
+        public Builder setBackoff(long baseDelay, long maxDelay, @Nonnull TimeUnit unit) {
+            if (baseDelay < 1 || maxDelay < baseDelay) {
+                throw new IllegalArgumentException("Invalid backoff: " + baseDelay + ", " + maxDelay);
+            }
+            this.baseDelayMillis = unit.toMillis(baseDelay);
+            this.maxDelayMillis = unit.toMillis(maxDelay);
+            return this;
+        }
+
+        /**
+         * Sets the {@link RequestBudget} retries are drawn from. Optional and defaults to retries of up to
+         * 10% of the requests, with bursts of {@value #DEFAULT_BUDGET_BURST}.
+         */
+        @Nonnull
+        public Builder setBudget(@Nonnull RequestBudget budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * Sets a header carrying a key unique to each request and kept across its attempts, such as
+         * {@code Idempotency-Key}, letting non-idempotent requests be retried like {@code GET} requests.
+         * Only set it when the API deduplicates requests by that header. Optional and unset by default.
+         */
+        @Nonnull
+        public Builder setIdempotencyKeyHeader(@Nonnull String idempotencyKeyHeader) {
+            this.idempotencyKeyHeader = idempotencyKeyHeader;
+            return this;
+        }
+
+        /**
+         * Create the {@link RetryInterceptor} to be used.
+         */
+        @Nonnull
+        public RetryInterceptor build() {
+            return new RetryInterceptor(this, Sleeper.SYSTEM);
+        }
+    }
+
+    /**
+     * Waits between attempts, replaceable in tests.
+     */
+    interface Sleeper {
+        Sleeper SYSTEM = new Sleeper() {
+            @Override
+            public void sleep(long millis) throws InterruptedException {
+                Thread.sleep(millis);
+            }
+        };
+
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    /**
+     * Starts a {@link Builder} for a {@link RetryInterceptor}.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final RequestBudget budget;
+    private final String idempotencyKeyHeader;
+    private final Sleeper sleeper;
+
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong budgetExhaustedCount = new AtomicLong();
+
+    RetryInterceptor(@Nonnull Builder builder, @Nonnull Sleeper sleeper) {
+        this.maxAttempts = builder.maxAttempts;
+        this.baseDelayMillis = builder.baseDelayMillis;
+        this.maxDelayMillis = builder.maxDelayMillis;
+        this.budget = builder.budget != null
+                ? builder.budget : new RequestBudget(Builder.DEFAULT_BUDGET_RATIO, Builder.DEFAULT_BUDGET_BURST);
+        this.idempotencyKeyHeader = builder.idempotencyKeyHeader;
+        this.sleeper = sleeper;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        boolean idempotent = isIdempotent(request.method());
+        if (!idempotent && idempotencyKeyHeader != null) {
+            if (request.header(idempotencyKeyHeader) == null) {
+                request = request.newBuilder().header(idempotencyKeyHeader, UUID.randomUUID().toString()).build();
+            }
+            idempotent = true;
+        }
+
+        budget.deposit();
+        for (int attempt = 1; ; attempt++) {
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                boolean retryable = (idempotent || e instanceof ConnectException)
+                        && !CancellableCalls.isCancelled(chain.request());
+                if (!retryable || !canRetry(attempt)) {
+                    throw e;
+                }
+                backoff(attempt, 0);
+                continue;
+            }
+
+            if (!idempotent || !isRetryable(response) || CancellableCalls.isCancelled(chain.request())) {
+                return response;
+            }
+            long retryAfterMillis = retryAfterMillis(response);
+            if (retryAfterMillis > maxDelayMillis || !canRetry(attempt)) {
+                return response;
+            }
+            response.body().close();
+            backoff(attempt, retryAfterMillis);
+        }
+    }
+
+    /**
+     * @return the number of retries made.
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * @return the number of retries given up because the budget was spent.
+     */
+    public long getBudgetExhaustedCount() {
+        return budgetExhaustedCount.get();
+    }
+
+    long delayMillis(int attempt, long retryAfterMillis) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 30));
+        long jittered = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        return Math.max(retryAfterMillis, jittered);
+    }
+
+    private boolean canRetry(int attempt) {
+        if (attempt >= maxAttempts) {
+            return false;
+        }
+        if (!budget.tryWithdraw()) {
+            budgetExhaustedCount.incrementAndGet();
+            return false;
+        }
+        retryCount.incrementAndGet();
+        return true;
+    }
+
+    private void backoff(int attempt, long retryAfterMillis) throws IOException {
+        try {
+            sleeper.sleep(delayMillis(attempt, retryAfterMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off before a retry");
+        }
+    }
+
+    static boolean isIdempotent(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    static boolean isRetryable(Response response) {
+        if (response.networkResponse() == null) {
+            return false;
+        }
+        switch (response.code()) {
+            case 429:
+            case 500:
+            case 502:
+            case 503:
+            case 504:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static long retryAfterMillis(Response response) {
+        String retryAfter = response.header(HEADER_RETRY_AFTER);
+        if (retryAfter == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            Date date = response.headers().getDate(HEADER_RETRY_AFTER);
+            return date != null ? Math.max(0, date.getTime() - System.currentTimeMillis()) : 0;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.interceptors;
+
+import com.uber.sdk.core.client.internal.SdkExecutors;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.logging.HttpLoggingInterceptor;
+import okio.Buffer;
+
+/**
+ * Logs one structured line per sampled call, off the calling thread.
+ *
+ * One call in {@link Builder#setSampleRate sample rate} is logged, as is every call failing or answered with an
+ * error status. A line holds the method, URL, status, duration and text bodies truncated to
+ * {@link Builder#setMaxBodyBytes max body bytes}, for example:
+ * <pre>
+ * method=GET url=https://api.uber.com/v1.2/me status=200 tookMs=42 responseBody={"first_name":"Uber"}
+ * </pre>
+ * Response bodies are peeked rather than consumed, and headers are left out so tokens are never logged.
+ * Lines are handed to the {@link HttpLoggingInterceptor.Logger} through a bounded buffer drained on a shared
+ * daemon thread; lines arriving while the buffer is full are dropped and counted.
+ *
+ * Install through {@link com.uber.sdk.rides.client.UberRidesApi.Builder#setSampledLogging}.
+ */
+public class SampledLoggingInterceptor implements Interceptor {
+
+    /**
+     * Builder for {@link SampledLoggingInterceptor}
+     */
+    public static class Builder {
+        static final int DEFAULT_SAMPLE_RATE = 100;
+        static final long DEFAULT_MAX_BODY_BYTES = 1024;
+        static final int DEFAULT_BUFFER_SIZE = 1024;
+
+        int sampleRate = DEFAULT_SAMPLE_RATE;
+        long maxBodyBytes = DEFAULT_MAX_BODY_BYTES;
+        int bufferSize = DEFAULT_BUFFER_SIZE;
+        HttpLoggingInterceptor.Logger logger = HttpLoggingInterceptor.Logger.DEFAULT;
+        Executor executor;
+
+        Builder() {
+        }
+
+        /**
+         * Sets how many calls are made for each successful call logged, 1 to log every call.
+         * Optional and defaults to {@value #DEFAULT_SAMPLE_RATE}.
+         */
+        @Nonnull
+        public Builder setSampleRate(int sampleRate) {
+            if (sampleRate < 1) {
+                throw new IllegalArgumentException("sampleRate < 1: " + sampleRate);
+            }
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * Sets how many bytes of each request and response body are logged, 0 to leave bodies out.
+         * Optional and defaults to {@value #DEFAULT_MAX_BODY_BYTES}.
+         */
+        @Nonnull
+        public Builder setMaxBodyBytes(long maxBodyBytes) {
+            if (maxBodyBytes < 0) {
+                throw new IllegalArgumentException("maxBodyBytes < 0: " + maxBodyBytes);
+            }
+            this.maxBodyBytes = maxBodyBytes;
+            return this;
+        }
+
+        /**
+         * Sets how many lines may wait for the logger before new ones are dropped.
+         * Optional and defaults to {@value #DEFAULT_BUFFER_SIZE}.
+         */
+        @Nonnull
+        public Builder setBufferSize(int bufferSize) {
+            if (bufferSize < 1) {
+                throw new IllegalArgumentException("bufferSize < 1: " + bufferSize);
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Sets the {@link HttpLoggingInterceptor.Logger} receiving the lines.
+         * Optional and defaults to {@link HttpLoggingInterceptor.Logger#DEFAULT}.
+         */
+        @Nonnull
+        public Builder setLogger(@Nonnull HttpLoggingInterceptor.Logger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Executor} running the logger. Optional and defaults to the shared daemon threads of
+         * {@link SdkExecutors#executor()}.
+         */
+        @Nonnull
+        public Builder setExecutor(@Nonnull Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Create the {@link SampledLoggingInterceptor} to be used.
+         */
+        @Nonnull
+        public SampledLoggingInterceptor build() {
+            if (executor == null) {
+                executor = SdkExecutors.executor();
+            }
+            return new SampledLoggingInterceptor(this);
+        }
+    }
+
+    /**
+     * Starts a {@link Builder} for a {@link SampledLoggingInterceptor}.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final int sampleRate;
+    private final long maxBodyBytes;
+    private final HttpLoggingInterceptor.Logger logger;
+    private final Executor executor;
+    private final Queue<String> lines;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong loggedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    SampledLoggingInterceptor(@Nonnull Builder builder) {
+        this.sampleRate = builder.sampleRate;
+        this.maxBodyBytes = builder.maxBodyBytes;
+        this.logger = builder.logger;
+        this.executor = builder.executor;
+        this.lines = new ArrayBlockingQueue<>(builder.bufferSize);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        boolean sampled = callCount.getAndIncrement() % sampleRate == 0;
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            log(request, null, e, start);
+            throw e;
+        }
+
+        if (sampled || !response.isSuccessful()) {
+            log(request, response, null, start);
+        }
+        return response;
+    }
+
+    /**
+     * @return the number of lines handed to the logger or waiting for it.
+     */
+    public long getLoggedCount() {
+        return loggedCount.get();
+    }
+
+    /**
+     * @return the number of lines dropped because the buffer was full.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private void log(Request request, @Nullable Response response, @Nullable Exception failure, long start) {
+        StringBuilder line = new StringBuilder(128)
+                .append("method=").append(request.method())
+                .append(" url=").append(request.url());
+        if (response != null) {
+            line.append(" status=").append(response.code());
+        } else if (failure != null) {
+            line.append(" failure=").append(failure.getClass().getSimpleName());
+        }
+        line.append(" tookMs=").append(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        if (maxBodyBytes > 0) {
+            appendRequestBody(line, request.body());
+            if (response != null) {
+                appendResponseBody(line, response);
+            }
+        }
+
+        if (lines.offer(line.toString())) {
+            loggedCount.incrementAndGet();
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(drain);
+            }
+        } else {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    private void appendRequestBody(StringBuilder line, @Nullable RequestBody body) {
+        if (body == null || !isText(body.contentType())) {
+            return;
+        }
+        try {
+            Buffer buffer = new Buffer();
+            body.writeTo(buffer);
+            appendBody(line, " requestBody=", buffer);
+        } catch (IOException e) {
+            // Leave out bodies that cannot be written twice.
+        }
+    }
+
+    private void appendResponseBody(StringBuilder line, Response response) {
+        ResponseBody body = response.body();
+        if (body == null || !isText(body.contentType())) {
+            return;
+        }
+        try {
+            Buffer buffer = new Buffer();
+            buffer.writeAll(response.peekBody(maxBodyBytes + 1).source());
+            appendBody(line, " responseBody=", buffer);
+        } catch (IOException e) {
+            line.append(" responseBody=<unreadable>");
+        }
+    }
+
+    private void appendBody(StringBuilder line, String name, Buffer buffer) throws IOException {
+        line.append(name);
+        if (buffer.size() > maxBodyBytes) {
+            line.append(buffer.readUtf8(maxBodyBytes)).append("...");
+        } else {
+            line.append(buffer.readUtf8());
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            String line;
+            while ((line = lines.poll()) != null) {
+                try {
+                    logger.log(line);
+                } catch (RuntimeException e) {
+                    // A failing logger must not stop the lines after it.
+                }
+            }
+
+            draining.set(false);
+            if (lines.isEmpty() || !draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean isText(@Nullable MediaType contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String subtype = contentType.subtype();
+        return "text".equals(contentType.type()) || "json".equals(subtype) || subtype.endsWith("+json");
+    }
+}
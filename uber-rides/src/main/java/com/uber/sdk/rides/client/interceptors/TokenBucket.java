@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.interceptors;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket whose rate adapts to throttling, in the style of AIMD congestion control.
+ *
+ * Permits are reserved ahead of time: a reservation may take the bucket below zero, and the next caller waits
+ * for the debt to be refilled, so waiting callers are served in order. The bucket can also be paused until a
+ * point in time, such as the end of a {@code Retry-After} period. Throttling lowers the rate at most once per
+ * {@link #RECOVERY_WINDOW_NANOS recovery window}, since responses throttled together report the same overload.
+ * Not thread-safe; callers synchronize on it.
+ */
+final class TokenBucket {
+
+    static final double DECREASE_FACTOR = 0.5;
+    static final double INCREASE_FRACTION = 0.02;
+    static final long RECOVERY_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double maxRate;
+    private final double minRate;
+    private final double capacity;
+    private double rate;
+    private double tokens;
+    private long refilledAt;
+    private boolean decreased;
+    private long decreasedAt;
+
+    /**
+     * @param rate the permits per second.
+     * @param capacity the permits that can be taken at once after the bucket was idle.
+     * @param nowNanos the current {@link System#nanoTime()}.
+     */
+    TokenBucket(double rate, double capacity, long nowNanos) {
+        this.maxRate = rate;
+        this.minRate = rate / 100;
+        this.capacity = capacity;
+        this.rate = rate;
+        this.tokens = capacity;
+        this.refilledAt = nowNanos;
+    }
+
+    /**
+     * @return how long a permit reserved now would wait, in nanoseconds.
+     */
+    long waitNanos(long nowNanos) {
+        refill(nowNanos);
+        long paused = Math.max(0, refilledAt - nowNanos);
+        return tokens >= 1 ? paused : paused + (long) ((1 - tokens) / rate * NANOS_PER_SECOND);
+    }
+
+    /**
+     * Takes a permit, going into debt when none is available.
+     */
+    void reserve(long nowNanos) {
+        refill(nowNanos);
+        tokens -= 1;
+    }
+
+    /**
+     * Lowers the rate after the upstream throttled a request, unless it was lowered within the recovery window.
+     */
+    void onThrottled(long nowNanos) {
+        if (decreased && nowNanos - decreasedAt < RECOVERY_WINDOW_NANOS) {
+            return;
+        }
+        rate = Math.max(minRate, rate * DECREASE_FACTOR);
+        decreased = true;
+        decreasedAt = nowNanos;
+    }
+
+    /**
+     * Raises the rate back toward its maximum after a request went through.
+     */
+    void onAccepted() {
+        rate = Math.min(maxRate, rate + maxRate * INCREASE_FRACTION);
+    }
+
+    /**
+     * Hands out no permit before a point in time.
+     */
+    void pauseUntil(long untilNanos) {
+        if (untilNanos > refilledAt) {
+            tokens = Math.min(tokens, 0);
+            refilledAt = untilNanos;
+        }
+    }
+
+    double getRate() {
+        return rate;
+    }
+
+    private void refill(long nowNanos) {
+        if (nowNanos > refilledAt) {
+            tokens = Math.min(capacity, tokens + (nowNanos - refilledAt) * rate / NANOS_PER_SECOND);
+            refilledAt = nowNanos;
+        }
+    }
+}
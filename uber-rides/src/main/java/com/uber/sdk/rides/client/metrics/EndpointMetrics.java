@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.metrics;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The latencies of the requests to one route that ended with the same status class and error code.
+ */
+public final class EndpointMetrics {
+
+    /**
+     * The status class of requests that failed without a response, such as on timeouts.
+     */
+    public static final String STATUS_FAILED = "failed";
+
+    /**
+     * The route of requests matching no route template of the services.
+     */
+    public static final String ROUTE_UNMATCHED = "unmatched";
+
+    private final String method;
+    private final String route;
+    private final String statusClass;
+    private final String errorCode;
+    private final LatencyHistogram.Snapshot latency;
+
+    EndpointMetrics(@Nonnull String method,
+                    @Nonnull String route,
+                    @Nonnull String statusClass,
+                    @Nullable String errorCode,
+                    @Nonnull LatencyHistogram.Snapshot latency) {
+        this.method = method;
+        this.route = route;
+        this.statusClass = statusClass;
+        this.errorCode = errorCode;
+        this.latency = latency;
+    }
+
+    /**
+     * @return the HTTP method, such as {@code GET}.
+     */
+    @Nonnull
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the route template, such as {@code /v1.2/requests/{request_id}}, or {@link #ROUTE_UNMATCHED}.
+     */
+    @Nonnull
+    public String getRoute() {
+        return route;
+    }
+
+    /**
+     * @return the status class, such as {@code 2xx}, or {@link #STATUS_FAILED}.
+     */
+    @Nonnull
+    public String getStatusClass() {
+        return statusClass;
+    }
+
+    /**
+     * @return the code of the first {@link com.uber.sdk.rides.client.error.ClientError} of error responses, such as
+     * {@code surge}, or {@code null}.
+     */
+    @Nullable
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return the latencies of the requests, from the request to the response headers or the failure.
+     */
+    @Nonnull
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + route + " " + statusClass + (errorCode != null ? " " + errorCode : "")
+                + " count=" + latency.getCount()
+                + " p50=" + latency.getValueAtPercentile(50) + "us"
+                + " p99=" + latency.getValueAtPercentile(99) + "us"
+                + " max=" + latency.getMaxMicros() + "us";
+    }
+}
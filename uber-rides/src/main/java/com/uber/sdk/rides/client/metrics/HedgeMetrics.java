@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.metrics;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The hedged requests of one route: how many were sent a second time, and how many of those the second request
+ * answered first.
+ */
+public final class HedgeMetrics {
+
+    private final String method;
+    private final String route;
+    private final long hedgedCount;
+    private final long wonCount;
+
+    HedgeMetrics(@Nonnull String method, @Nonnull String route, long hedgedCount, long wonCount) {
+        this.method = method;
+        this.route = route;
+        this.hedgedCount = hedgedCount;
+        this.wonCount = wonCount;
+    }
+
+    /**
+     * @return the HTTP method, such as {@code GET}.
+     */
+    @Nonnull
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the route template, such as {@code /v1.2/requests/{request_id}}, or
+     * {@link EndpointMetrics#ROUTE_UNMATCHED}.
+     */
+    @Nonnull
+    public String getRoute() {
+        return route;
+    }
+
+    /**
+     * @return the requests for which a hedge was sent.
+     */
+    public long getHedgedCount() {
+        return hedgedCount;
+    }
+
+    /**
+     * @return the hedged requests answered by the hedge.
+     */
+    public long getWonCount() {
+        return wonCount;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + route + " hedged=" + hedgedCount + " won=" + wonCount;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.metrics;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Receives the metrics of a {@link MetricsInterceptor}, for example to publish them to a monitoring system.
+ *
+ * Each export carries the metrics recorded since the interceptor was created, so exporters of rates or interval
+ * histograms should keep the previous export to compute differences. Exports of an interceptor are never
+ * concurrent.
+ */
+public interface MetricsExporter {
+
+    /**
+     * @param metrics the metrics of every endpoint, status class and error code seen so far.
+     */
+    void export(@Nonnull List<EndpointMetrics> metrics);
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.metrics;
+
+import com.uber.sdk.core.client.internal.SdkExecutors;
+import com.uber.sdk.rides.client.error.ApiError;
+import com.uber.sdk.rides.client.error.ClientError;
+import com.uber.sdk.rides.client.error.ErrorParser;
+import com.uber.sdk.rides.client.services.RidesService;
+import com.uber.sdk.rides.client.services.RouteTemplates;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Records latency histograms of API requests keyed by route template, status class and error code.
+ *
+ * Requests are keyed by the route template of the service method they were made through, such as
+ * {@code /v1.2/requests/{request_id}}, rather than their URL, so ride and place ids do not create a metric each.
+ * Error responses are also keyed by the code of their first {@link com.uber.sdk.rides.client.error.ClientError}.
+ * Latencies run from the request to the response headers, including token refreshes and retries.
+ *
+ * Hedged requests, reported by {@link com.uber.sdk.rides.client.interceptors.RequestHedger}, are counted per route
+ * and read with {@link #getHedgeMetrics()}.
+ *
+ * Metrics are read with {@link #getMetrics()} or pushed to {@link MetricsExporter MetricsExporters} by
+ * {@link #export()}, every {@link Builder#setExportInterval export interval} once {@link #start() started}.
+ *
+ * Install through {@link com.uber.sdk.rides.client.UberRidesApi.Builder#setMetrics} and share one instance
+ * between APIs to aggregate across sessions.
+ */
+public class MetricsInterceptor implements Interceptor {
+
+    private static final String HEDGED = "hedged";
+
+    /**
+     * Builder for {@link MetricsInterceptor}
+     */
+    public static class Builder {
+        static final long DEFAULT_EXPORT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+        static final long MAX_ERROR_BODY_BYTES = 16 * 1024;
+
+        final List<Class<?>> services = new ArrayList<>();
+        final List<MetricsExporter> exporters = new ArrayList<>();
+        long exportIntervalMillis = DEFAULT_EXPORT_INTERVAL_MILLIS;
+        ScheduledExecutorService scheduler;
+        Executor exportExecutor;
+
+        Builder() {
+        }
+
+        /**
+         * Adds a Retrofit service interface whose route templates key requests. Optional and defaults to
+         * {@link RidesService} when no service is added.
+         */
+        @Nonnull
+        public Builder addService(@Nonnull Class<?> service) {
+            services.add(service);
+            return this;
+        }
+
+        /**
+         * Adds a {@link MetricsExporter} receiving every export. Optional and defaults to none.
+         */
+        @Nonnull
+        public Builder addExporter(@Nonnull MetricsExporter exporter) {
+            exporters.add(exporter);
+            return this;
+        }
+
+        /**
+         * Sets how often metrics are exported once {@link MetricsInterceptor#start() started}.
+         * Optional and defaults to one minute.
+         */
+        @Nonnull
+        public Builder setExportInterval(long interval, @Nonnull TimeUnit unit) {
+            if (interval <= 0) {
+                throw new IllegalArgumentException("Export interval must be positive: " + interval);
+            }
+            this.exportIntervalMillis = unit.toMillis(interval);
+            return this;
+        }
+
+        /**
+         * Sets the {@link ScheduledExecutorService} running periodic exports. Optional and defaults to
+         * {@link SdkExecutors#scheduler()}, which hands exports to {@link SdkExecutors#executor()} so a slow
+         * exporter does not delay the other timers of the SDK.
+         */
+        @Nonnull
+        public Builder setScheduler(@Nonnull ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Create the {@link MetricsInterceptor} to be used.
+         */
+        @Nonnull
+        public MetricsInterceptor build() {
+            if (services.isEmpty()) {
+                services.add(RidesService.class);
+            }
+            if (scheduler == null) {
+                scheduler = SdkExecutors.scheduler();
+                exportExecutor = SdkExecutors.executor();
+            }
+            return new MetricsInterceptor(this);
+        }
+    }
+
+    /**
+     * Starts a {@link Builder} for a {@link MetricsInterceptor}.
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final RouteTemplates routes;
+    private final List<MetricsExporter> exporters;
+    private final long exportIntervalMillis;
+    private final ScheduledExecutorService scheduler;
+    @Nullable private final Executor exportExecutor;
+    private final ConcurrentMap<Key, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Key, AtomicLong[]> hedges = new ConcurrentHashMap<>();
+    private ScheduledFuture<?> pending;
+
+    MetricsInterceptor(@Nonnull Builder builder) {
+        this.routes = new RouteTemplates(builder.services);
+        this.exporters = new ArrayList<>(builder.exporters);
+        this.exportIntervalMillis = builder.exportIntervalMillis;
+        this.scheduler = builder.scheduler;
+        this.exportExecutor = builder.exportExecutor;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            record(request, EndpointMetrics.STATUS_FAILED, null, start);
+            throw e;
+        }
+
+        int code = response.code();
+        String errorCode = code >= 400 ? errorCode(response) : null;
+        record(request, statusClass(code), errorCode, start);
+        return response;
+    }
+
+    /**
+     * @return the metrics recorded so far, one per route, status class and error code.
+     */
+    @Nonnull
+    public List<EndpointMetrics> getMetrics() {
+        List<EndpointMetrics> metrics = new ArrayList<>(histograms.size());
+        for (Map.Entry<Key, LatencyHistogram> entry : histograms.entrySet()) {
+            Key key = entry.getKey();
+            metrics.add(new EndpointMetrics(key.method, key.route, key.statusClass, key.errorCode,
+                    entry.getValue().snapshot()));
+        }
+        return Collections.unmodifiableList(metrics);
+    }
+
+    /**
+     * @return the hedged requests counted so far, one per route.
+     */
+    @Nonnull
+    public List<HedgeMetrics> getHedgeMetrics() {
+        List<HedgeMetrics> metrics = new ArrayList<>(hedges.size());
+        for (Map.Entry<Key, AtomicLong[]> entry : hedges.entrySet()) {
+            Key key = entry.getKey();
+            AtomicLong[] counts = entry.getValue();
+            metrics.add(new HedgeMetrics(key.method, key.route, counts[0].get(), counts[1].get()));
+        }
+        return Collections.unmodifiableList(metrics);
+    }
+
+    /**
+     * Counts a request for which a hedge was sent.
+     *
+     * @param request the hedged request.
+     * @param won whether the hedge answered first.
+     */
+    public void recordHedge(@Nonnull Request request, boolean won) {
+        Key key = new Key(request.method(), route(request), HEDGED, null);
+        AtomicLong[] counts = hedges.get(key);
+        if (counts == null) {
+            counts = new AtomicLong[] { new AtomicLong(), new AtomicLong() };
+            AtomicLong[] existing = hedges.putIfAbsent(key, counts);
+            if (existing != null) {
+                counts = existing;
+            }
+        }
+        counts[0].incrementAndGet();
+        if (won) {
+            counts[1].incrementAndGet();
+        }
+    }
+
+    /**
+     * Passes the metrics recorded so far to every {@link MetricsExporter}. An exporter throwing does not keep the
+     * others from being called.
+     */
+    public synchronized void export() {
+        if (exporters.isEmpty()) {
+            return;
+        }
+
+        List<EndpointMetrics> metrics = getMetrics();
+        for (MetricsExporter exporter : exporters) {
+            try {
+                exporter.export(metrics);
+            } catch (RuntimeException e) {
+                // A broken exporter must not stop the others nor periodic exports.
+            }
+        }
+    }
+
+    /**
+     * Exports metrics every {@link Builder#setExportInterval export interval} until {@link #stop()}.
+     */
+    public synchronized void start() {
+        if (pending != null) {
+            return;
+        }
+        final Runnable export = new Runnable() {
+            @Override
+            public void run() {
+                export();
+            }
+        };
+        pending = scheduler.scheduleAtFixedRate(exportExecutor == null ? export : new Runnable() {
+            @Override
+            public void run() {
+                exportExecutor.execute(export);
+            }
+        }, exportIntervalMillis, exportIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels periodic exports.
+     */
+    public synchronized void stop() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    /**
+     * Whether metrics are exported periodically.
+     */
+    public synchronized boolean isRunning() {
+        return pending != null;
+    }
+
+    private void record(Request request, String statusClass, @Nullable String errorCode, long start) {
+        Key key = new Key(request.method(), route(request), statusClass, errorCode);
+
+        LatencyHistogram histogram = histograms.get(key);
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+            LatencyHistogram existing = histograms.putIfAbsent(key, histogram);
+            if (existing != null) {
+                histogram = existing;
+            }
+        }
+        histogram.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private String route(Request request) {
+        String route = routes.match(request.method(), request.url().encodedPathSegments());
+        return route != null ? route : EndpointMetrics.ROUTE_UNMATCHED;
+    }
+
+    static String statusClass(int code) {
+        switch (code / 100) {
+            case 1:
+                return "1xx";
+            case 2:
+                return "2xx";
+            case 3:
+                return "3xx";
+            case 4:
+                return "4xx";
+            case 5:
+                return "5xx";
+            default:
+                return code + "";
+        }
+    }
+
+    @Nullable
+    private static String errorCode(Response response) {
+        try {
+            String body = response.peekBody(Builder.MAX_ERROR_BODY_BYTES).string();
+            ApiError error = ErrorParser.parseError(body, response.code(), response.message());
+            List<ClientError> clientErrors = error.getClientErrors();
+            return clientErrors == null || clientErrors.isEmpty() ? null : clientErrors.get(0).getCode();
+        } catch (IOException | RuntimeException e) {
+            // Metrics must never fail the call they measure.
+            return null;
+        }
+    }
+
+    private static final class Key {
+        final String method;
+        final String route;
+        final String statusClass;
+        @Nullable final String errorCode;
+        private final int hashCode;
+
+        Key(String method, String route, String statusClass, @Nullable String errorCode) {
+            this.method = method;
+            this.route = route;
+            this.statusClass = statusClass;
+            this.errorCode = errorCode;
+            int hash = method.hashCode();
+            hash = 31 * hash + route.hashCode();
+            hash = 31 * hash + statusClass.hashCode();
+            hash = 31 * hash + (errorCode != null ? errorCode.hashCode() : 0);
+            this.hashCode = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return method.equals(key.method)
+                    && route.equals(key.route)
+                    && statusClass.equals(key.statusClass)
+                    && (errorCode != null ? errorCode.equals(key.errorCode) : key.errorCode == null);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
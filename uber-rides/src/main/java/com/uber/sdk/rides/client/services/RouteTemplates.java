@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.services;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.HEAD;
+import retrofit2.http.HTTP;
+import retrofit2.http.PATCH;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+
+/**
+ * Matches request paths to the route templates of Retrofit service interfaces, such as
+ * {@code /v1.2/requests/{request_id}}.
+ *
+ * A path segment matches a template segment that is equal to it or a {@code {parameter}}. When several templates
+ * match, the one with the most equal segments wins, so {@code /v1.2/requests/current} is not reported as
+ * {@code /v1.2/requests/{request_id}}.
+ */
+public final class RouteTemplates {
+
+    private final Map<String, List<Route>> routesByMethod = new HashMap<>();
+
+    /**
+     * @param services the Retrofit service interfaces whose routes are matched.
+     */
+    public RouteTemplates(@Nonnull List<Class<?>> services) {
+        for (Class<?> service : services) {
+            for (Method method : service.getMethods()) {
+                for (Annotation annotation : method.getAnnotations()) {
+                    add(annotation);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param method the HTTP method of the request.
+     * @param segments the encoded path segments of the request.
+     * @return the route template matching the request, or {@code null}.
+     */
+    @Nullable
+    public String match(@Nonnull String method, @Nonnull List<String> segments) {
+        List<Route> routes = routesByMethod.get(method);
+        if (routes == null) {
+            return null;
+        }
+
+        Route best = null;
+        int bestLiterals = -1;
+        for (int i = 0, size = routes.size(); i < size; i++) {
+            Route route = routes.get(i);
+            int literals = route.match(segments);
+            if (literals > bestLiterals) {
+                best = route;
+                bestLiterals = literals;
+            }
+        }
+        return best != null ? best.template : null;
+    }
+
+    private void add(Annotation annotation) {
+        if (annotation instanceof GET) {
+            add("GET", ((GET) annotation).value());
+        } else if (annotation instanceof POST) {
+            add("POST", ((POST) annotation).value());
+        } else if (annotation instanceof PUT) {
+            add("PUT", ((PUT) annotation).value());
+        } else if (annotation instanceof PATCH) {
+            add("PATCH", ((PATCH) annotation).value());
+        } else if (annotation instanceof DELETE) {
+            add("DELETE", ((DELETE) annotation).value());
+        } else if (annotation instanceof HEAD) {
+            add("HEAD", ((HEAD) annotation).value());
+        } else if (annotation instanceof HTTP) {
+            add(((HTTP) annotation).method(), ((HTTP) annotation).path());
+        }
+    }
+
+    private void add(String method, String template) {
+        int query = template.indexOf('?');
+        if (query >= 0) {
+            template = template.substring(0, query);
+        }
+        if (!template.startsWith("/")) {
+            template = "/" + template;
+        }
+
+        List<Route> routes = routesByMethod.get(method);
+        if (routes == null) {
+            routes = new ArrayList<>();
+            routesByMethod.put(method, routes);
+        }
+        for (Route route : routes) {
+            if (route.template.equals(template)) {
+                return;
+            }
+        }
+        routes.add(new Route(template));
+    }
+
+    private static final class Route {
+        final String template;
+        final String[] segments;
+
+        Route(String template) {
+            this.template = template;
+            this.segments = template.substring(1).split("/", -1);
+        }
+
+        /**
+         * @return the number of equal segments if the path matches, otherwise -1.
+         */
+        int match(List<String> path) {
+            if (path.size() != segments.length) {
+                return -1;
+            }
+
+            int literals = 0;
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    continue;
+                }
+                if (!segment.equals(path.get(i))) {
+                    return -1;
+                }
+                literals++;
+            }
+            return literals;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2016 Uber Technologies, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.uber.sdk.rides.client.sync;
+
+import com.uber.sdk.rides.client.UserActivityHistory;
+import com.uber.sdk.rides.client.model.UserActivity;
+import com.uber.sdk.rides.client.services.RidesService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Retrieves the rides a user took since the last sync.
+ *
+ * History is returned newest first, so pages are requested only until the stored {@link Watermark} is
+ * reached and the cost of a sync scales with the number of new rides rather than the length of the
+ * history. The watermark is advanced only once a sync completes.
+ */
+public class UserActivitySync {
+
+    /**
+     * Builder for {@link UserActivitySync}
+     */
+    public static class Builder {
+        final WatermarkStore store;
+        int pageSize = UserActivityHistory.Builder.MAX_PAGE_SIZE;
+        int parallelism = 0;
+
+        Builder(@Nonnull WatermarkStore store) {
+            this.store = store;
+        }
+
+        /**
+         * Sets the number of activities per page. Optional and defaults to
+         * {@value UserActivityHistory.Builder#MAX_PAGE_SIZE}.
+         */
+        @Nonnull
+        public Builder setPageSize(int pageSize) {
+            if (pageSize < 1 || pageSize > UserActivityHistory.Builder.MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException(
+                        "pageSize must be between 1 and " + UserActivityHistory.Builder.MAX_PAGE_SIZE);
+            }
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * Sets how many pages are requested ahead, see {@link UserActivityHistory.Builder#setParallelism}.
+         * Optional and defaults to 0, since pages past the watermark are wasted.
+         */
+        @Nonnull
+        public Builder setParallelism(int parallelism) {
+            if (parallelism < 0) {
+                throw new IllegalArgumentException("parallelism < 0: " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Create the {@link UserActivitySync} to be used.
+         */
+        @Nonnull
+        public UserActivitySync build() {
+            return new UserActivitySync(this);
+        }
+    }
+
+    /**
+     * Starts a {@link Builder} for syncs tracked in a {@link WatermarkStore}.
+     *
+     * @param store the {@link WatermarkStore} holding each user's watermark.
+     */
+    @Nonnull
+    public static Builder with(@Nonnull WatermarkStore store) {
+        return new Builder(store);
+    }
+
+    private final WatermarkStore store;
+    private final int pageSize;
+    private final int parallelism;
+
+    UserActivitySync(Builder builder) {
+        this.store = builder.store;
+        this.pageSize = builder.pageSize;
+        this.parallelism = builder.parallelism;
+    }
+
+    /**
+     * Retrieves the user's rides newer than their watermark, then advances the watermark.
+     *
+     * @param userId the key of the user's watermark in the {@link WatermarkStore}.
+     * @param service the {@link RidesService} of the user's session.
+     * @return the new rides, newest first. All rides on the first sync of a user.
+     * @throws UserActivityHistory.PageException if a page could not be retrieved. The watermark is unchanged.
+     */
+    @Nonnull
+    public List<UserActivity> sync(@Nonnull String userId, @Nonnull RidesService service) {
+        Watermark watermark = store.getWatermark(userId);
+        UserActivityHistory history = UserActivityHistory.with(service)
+                .setPageSize(pageSize)
+                .setParallelism(parallelism)
+                .build();
+
+        List<UserActivity> activities = new ArrayList<>();
+        UserActivity newest = null;
+        for (UserActivity activity : history) {
+            if (watermark != null && watermark.covers(activity)) {
+                break;
+            }
+            activities.add(activity);
+            if (newest == null || activity.getRequestTime() > newest.getRequestTime()) {
+                newest = activity;
+            }
+        }
+
+        if (newest != null) {
+            store.setWatermark(userId, Watermark.of(newest));
+        }
+        return activities;
+    }
+}
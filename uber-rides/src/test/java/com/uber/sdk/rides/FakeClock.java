@@ -0,0 +1,28 @@
+package com.uber.sdk.rides;
+
+import com.uber.sdk.core.client.internal.Clock;
+
+/**
+ * A {@link Clock} that only moves when a test moves it, and records sleeps instead of sleeping.
+ */
+public class FakeClock implements Clock {
+
+    public long nanos = 1000;
+    public long millis = 1000;
+    public long slept;
+
+    @Override
+    public long nanoTime() {
+        return nanos;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return millis;
+    }
+
+    @Override
+    public void sleep(long nanos) {
+        slept += nanos;
+    }
+}
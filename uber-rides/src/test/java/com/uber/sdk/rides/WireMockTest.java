@@ -6,6 +6,18 @@ import com.github.tomakehurst.wiremock.junit.WireMockRule;
 
 import org.junit.Rule;
 
+import java.io.IOException;
+
+import javax.annotation.Nullable;
+
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 
 public class WireMockTest {
@@ -16,4 +28,56 @@ public class WireMockTest {
 
     @Rule
     public WireMockRule wireMockRule = new WireMockRule(WIRE_MOCK_CONFIG);
+
+    /**
+     * Creates a client running the interceptors in order before the network.
+     */
+    protected static OkHttpClient createClient(Interceptor... interceptors) {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        for (Interceptor interceptor : interceptors) {
+            builder.addInterceptor(interceptor);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Starts a {@code GET} of a path of the WireMock server.
+     */
+    protected Request.Builder newRequest(String path) {
+        return new Request.Builder().url("http://localhost:" + wireMockRule.port() + path);
+    }
+
+    /**
+     * Starts a request to a path of the WireMock server, a {@code POST} of a JSON body if there is one.
+     */
+    protected Request.Builder newRequest(String path, @Nullable String body) {
+        Request.Builder request = newRequest(path);
+        if (body != null) {
+            request.post(json(body));
+        }
+        return request;
+    }
+
+    /**
+     * Starts a {@code GET} of a path of the WireMock server on behalf of a user.
+     */
+    protected Request.Builder newAuthorizedRequest(String path, String authorization) {
+        return newRequest(path).header("Authorization", authorization);
+    }
+
+    protected static RequestBody json(String body) {
+        return RequestBody.create(MediaType.parse("application/json"), body);
+    }
+
+    protected static Response execute(Call.Factory client, Request.Builder request) throws IOException {
+        return client.newCall(request.build()).execute();
+    }
+
+    protected Response execute(Call.Factory client, String path) throws IOException {
+        return execute(client, newRequest(path));
+    }
+
+    protected Response execute(Call.Factory client, String path, @Nullable String body) throws IOException {
+        return execute(client, newRequest(path, body));
+    }
 }
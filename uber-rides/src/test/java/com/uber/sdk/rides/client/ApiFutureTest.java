@@ -0,0 +1,117 @@
+package com.uber.sdk.rides.client;
+
+import com.uber.sdk.core.auth.Authenticator;
+import com.uber.sdk.core.client.Session;
+import com.uber.sdk.core.client.SessionConfiguration;
+import com.uber.sdk.rides.WireMockTest;
+import com.uber.sdk.rides.client.error.ApiException;
+import com.uber.sdk.rides.client.model.ProductsResponse;
+import com.uber.sdk.rides.client.services.AsyncRidesService;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.when;
+
+public class ApiFutureTest extends WireMockTest {
+
+    @Mock
+    Session session;
+
+    @Mock
+    Authenticator authenticator;
+
+    @Mock
+    SessionConfiguration config;
+
+    private AsyncRidesService service;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(session.getAuthenticator()).thenReturn(authenticator);
+        when(authenticator.getSessionConfiguration()).thenReturn(config);
+        when(config.getLocale()).thenReturn(Locale.US);
+        when(config.getEndpointHost()).thenReturn("http://localhost:" + wireMockRule.port());
+
+        service = UberRidesApi.with(session).build().createAsyncService();
+    }
+
+    @Test
+    public void get_whenSuccessful_returnsBody() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products"))
+                .willReturn(aResponse().withBodyFile("products.json")));
+
+        ProductsResponse response = service.getProducts(37.7753f, -122.418f).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getProducts()).hasSize(9);
+    }
+
+    @Test
+    public void get_whenApiError_throwsApiException() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products/abc"))
+                .willReturn(aResponse().withStatus(404)
+                        .withBody("{\"message\":\"Unable to find product abc\",\"code\":\"not_found\"}")));
+
+        try {
+            service.getProduct("abc").get(5, TimeUnit.SECONDS);
+            fail("Expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(ApiException.class);
+            ApiException apiException = (ApiException) e.getCause();
+            assertThat(apiException.getStatusCode()).isEqualTo(404);
+            assertThat(apiException.getApiError().getClientErrors().get(0).getCode()).isEqualTo("not_found");
+        }
+    }
+
+    @Test
+    public void addCallback_whenSuccessful_notifiesOnSuccess() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products"))
+                .willReturn(aResponse().withBodyFile("products.json")));
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<ProductsResponse> result = new AtomicReference<>();
+        service.getProducts(37.7753f, -122.418f).addCallback(new ApiFuture.Callback<ProductsResponse>() {
+            @Override
+            public void onSuccess(ProductsResponse response) {
+                result.set(response);
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                latch.countDown();
+            }
+        });
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(result.get().getProducts()).hasSize(9);
+    }
+
+    @Test
+    public void cancel_whenInFlight_isCancelled() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products"))
+                .willReturn(aResponse().withFixedDelay(2000).withBodyFile("products.json")));
+
+        ApiFuture<ProductsResponse> future = service.getProducts(37.7753f, -122.418f);
+
+        assertThat(future.cancel(true)).isTrue();
+        assertThat(future.isCancelled()).isTrue();
+        assertThat(future.isDone()).isTrue();
+        assertThat(future.cancel(true)).isFalse();
+    }
+}
@@ -0,0 +1,154 @@
+package com.uber.sdk.rides.client;
+
+import com.uber.sdk.core.auth.Authenticator;
+import com.uber.sdk.core.client.Session;
+import com.uber.sdk.core.client.SessionConfiguration;
+import com.uber.sdk.rides.WireMockTest;
+import com.uber.sdk.rides.client.error.ApiException;
+import com.uber.sdk.rides.client.model.ProductsResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.http.GET;
+import retrofit2.http.Path;
+import retrofit2.http.Query;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class CallPublisherTest extends WireMockTest {
+
+    interface ReactiveService {
+        @GET("/v1.2/products")
+        Publisher<ProductsResponse> getProducts(@Query("latitude") float latitude,
+                                                @Query("longitude") float longitude);
+
+        @GET("/v1.2/products/{product_id}")
+        Publisher<ProductsResponse> getProduct(@Path("product_id") String productId);
+    }
+
+    @Mock
+    Session session;
+
+    @Mock
+    Authenticator authenticator;
+
+    @Mock
+    SessionConfiguration config;
+
+    private ReactiveService service;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(session.getAuthenticator()).thenReturn(authenticator);
+        when(authenticator.getSessionConfiguration()).thenReturn(config);
+        when(config.getLocale()).thenReturn(Locale.US);
+        when(config.getEndpointHost()).thenReturn("http://localhost:" + wireMockRule.port());
+
+        service = UberRidesApi.with(session).build().createService(ReactiveService.class);
+    }
+
+    @Test
+    public void subscribe_withoutDemand_doesNotExecuteCall() throws Exception {
+        RecordingSubscriber<ProductsResponse> subscriber = new RecordingSubscriber<>();
+        service.getProducts(37.7753f, -122.418f).subscribe(subscriber);
+
+        assertThat(subscriber.subscription).isNotNull();
+        assertThat(subscriber.latch.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        verify(0, getRequestedFor(urlPathEqualTo("/v1.2/products")));
+    }
+
+    @Test
+    public void request_whenSuccessful_emitsBodyAndCompletes() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products"))
+                .willReturn(aResponse().withBodyFile("products.json")));
+
+        RecordingSubscriber<ProductsResponse> subscriber = new RecordingSubscriber<>();
+        service.getProducts(37.7753f, -122.418f).subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        assertThat(subscriber.latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.values).hasSize(1);
+        assertThat(subscriber.values.get(0).getProducts()).hasSize(9);
+        assertThat(subscriber.completed).isTrue();
+        assertThat(subscriber.error).isNull();
+    }
+
+    @Test
+    public void request_whenApiError_emitsApiException() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products/abc"))
+                .willReturn(aResponse().withStatus(404)
+                        .withBody("{\"message\":\"Unable to find product abc\",\"code\":\"not_found\"}")));
+
+        RecordingSubscriber<ProductsResponse> subscriber = new RecordingSubscriber<>();
+        service.getProduct("abc").subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        assertThat(subscriber.latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.values).isEmpty();
+        assertThat(subscriber.error).isInstanceOf(ApiException.class);
+    }
+
+    @Test
+    public void cancel_beforeResponse_signalsNothing() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products"))
+                .willReturn(aResponse().withFixedDelay(500).withBodyFile("products.json")));
+
+        RecordingSubscriber<ProductsResponse> subscriber = new RecordingSubscriber<>();
+        service.getProducts(37.7753f, -122.418f).subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+
+        assertThat(subscriber.latch.await(1, TimeUnit.SECONDS)).isFalse();
+        assertThat(subscriber.values).isEmpty();
+    }
+
+    static class RecordingSubscriber<T> implements Subscriber<T> {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final List<T> values = new ArrayList<>();
+        volatile Subscription subscription;
+        volatile Throwable error;
+        volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            latch.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            latch.countDown();
+        }
+    }
+}
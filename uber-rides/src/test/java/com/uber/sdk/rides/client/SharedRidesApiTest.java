@@ -0,0 +1,113 @@
+package com.uber.sdk.rides.client;
+
+import com.uber.sdk.core.client.ServerTokenSession;
+import com.uber.sdk.core.client.SessionConfiguration;
+import com.uber.sdk.rides.WireMockTest;
+import com.uber.sdk.rides.client.interceptors.RateLimiter;
+import com.uber.sdk.rides.client.services.AsyncRidesService;
+import com.uber.sdk.rides.client.services.RidesService;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SharedRidesApiTest extends WireMockTest {
+
+    private SessionConfiguration configuration;
+    private SharedRidesApi api;
+
+    @Before
+    public void setUp() {
+        configuration = createConfiguration("http://localhost:" + wireMockRule.port(), "shared");
+        api = UberRidesApi.shared(configuration).buildShared();
+
+        stubFor(get(urlPathEqualTo("/v1.2/products"))
+                .willReturn(aResponse().withBodyFile("products.json")));
+    }
+
+    @Test
+    public void createService_withDifferentSessions_signsWithEachSession() throws Exception {
+        RidesService alice = api.createService(createSession("alice"));
+        RidesService bob = api.createService(createSession("bob"));
+
+        assertThat(alice.getProducts(37.7753f, -122.418f).execute().body().getProducts()).hasSize(9);
+        assertThat(bob.getProducts(37.7753f, -122.418f).execute().body().getProducts()).hasSize(9);
+
+        verify(1, getRequestedFor(urlPathEqualTo("/v1.2/products"))
+                .withHeader("Authorization", equalTo("Token alice")));
+        verify(1, getRequestedFor(urlPathEqualTo("/v1.2/products"))
+                .withHeader("Authorization", equalTo("Token bob")));
+    }
+
+    @Test
+    public void createAsyncService_whenEnqueued_signsWithSession() throws Exception {
+        AsyncRidesService service = api.createAsyncService(createSession("alice"));
+
+        assertThat(service.getProducts(37.7753f, -122.418f).get(5, TimeUnit.SECONDS).getProducts()).hasSize(9);
+
+        verify(1, getRequestedFor(urlPathEqualTo("/v1.2/products"))
+                .withHeader("Authorization", equalTo("Token alice")));
+    }
+
+    @Test
+    public void createService_whenCallCloned_keepsSession() throws Exception {
+        RidesService service = api.createService(createSession("alice"));
+
+        service.getProducts(37.7753f, -122.418f).clone().execute();
+
+        verify(1, getRequestedFor(urlPathEqualTo("/v1.2/products"))
+                .withHeader("Authorization", equalTo("Token alice")));
+    }
+
+    @Test
+    public void createService_twiceForSameSession_sharesRateLimitPause() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/me"))
+                .willReturn(aResponse().withStatus(429).withHeader("Retry-After", "30").withBody("{}")));
+        RateLimiter limiter = RateLimiter.builder().setMaxWait(0, TimeUnit.SECONDS).build();
+        SharedRidesApi limited = UberRidesApi.shared(configuration).setRateLimiter(limiter).buildShared();
+        ServerTokenSession session = createSession("alice");
+
+        assertThat(limited.createService(session).getUserProfile().execute().code()).isEqualTo(429);
+        assertThat(limited.createService(session).getUserProfile().execute().code()).isEqualTo(429);
+
+        verify(1, getRequestedFor(urlPathEqualTo("/v1.2/me")));
+        assertThat(limiter.getShedCount()).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createService_whenEndpointDiffers_throws() {
+        SessionConfiguration other = createConfiguration("https://sandbox-api.uber.com", "alice");
+
+        api.createService(new ServerTokenSession(other));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void buildShared_withSessionBuilder_throws() {
+        UberRidesApi.with(createSession("alice")).buildShared();
+    }
+
+    private ServerTokenSession createSession(String serverToken) {
+        return new ServerTokenSession(createConfiguration(configuration.getEndpointHost(), serverToken));
+    }
+
+    private static SessionConfiguration createConfiguration(String endpointHost, String serverToken) {
+        SessionConfiguration configuration = mock(SessionConfiguration.class);
+        when(configuration.getEndpointHost()).thenReturn(endpointHost);
+        when(configuration.getServerToken()).thenReturn(serverToken);
+        when(configuration.getLocale()).thenReturn(Locale.US);
+        return configuration;
+    }
+}
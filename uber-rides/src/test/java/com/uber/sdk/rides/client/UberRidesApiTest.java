@@ -28,6 +28,9 @@ import com.uber.sdk.core.client.SessionConfiguration;
 import com.uber.sdk.core.client.internal.ApiInterceptor;
 import com.uber.sdk.core.client.internal.RefreshAuthenticator;
 import com.uber.sdk.rides.client.UberRidesApi;
+import com.uber.sdk.rides.client.interceptors.RequestHedger;
+import com.uber.sdk.rides.client.interceptors.RetryInterceptor;
+import com.uber.sdk.rides.client.interceptors.SampledLoggingInterceptor;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -36,12 +39,14 @@ import org.mockito.MockitoAnnotations;
 
 import java.util.Locale;
 
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -148,4 +153,80 @@ public class UberRidesApiTest {
     public void build_withOnlySession_completesSuccesfully() throws Exception {
         assertNotNull(UberRidesApi.with(session).build());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void createClient_withMaxRequestsAndHedging_appliesLimitsBeforeHedging() {
+        OkHttpClient client = UberRidesApi.with(session)
+                .setMaxRequests(128)
+                .setHedging(RequestHedger.builder().build())
+                .createClient(new OkHttpClient(), session, null);
+
+        assertEquals(128, client.dispatcher().getMaxRequests());
+        assertEquals(128, client.dispatcher().getMaxRequestsPerHost());
+    }
+
+    @Test
+    public void createDispatcher_byDefault_keepsClientDispatcher() {
+        assertNull(UberRidesApi.with(session).createDispatcher());
+    }
+
+    @Test
+    public void createDispatcher_withMaxRequests_setsLimits() {
+        Dispatcher dispatcher = UberRidesApi.with(session).setMaxRequests(128).createDispatcher();
+
+        assertEquals(128, dispatcher.getMaxRequests());
+        assertEquals(128, dispatcher.getMaxRequestsPerHost());
+    }
+
+    @Test
+    public void createDispatcher_withVirtualThreads_usesVirtualThreadsWhenSupported() {
+        Dispatcher dispatcher = UberRidesApi.with(session).setVirtualThreadsEnabled(true).createDispatcher();
+
+        if (VirtualThreads.isSupported()) {
+            assertEquals(UberRidesApi.Builder.DEFAULT_VIRTUAL_THREAD_MAX_REQUESTS, dispatcher.getMaxRequests());
+            assertEquals(UberRidesApi.Builder.DEFAULT_VIRTUAL_THREAD_MAX_REQUESTS,
+                    dispatcher.getMaxRequestsPerHost());
+        } else {
+            assertNull(dispatcher);
+        }
+    }
+
+    @Test
+    public void buildClient_atLevelNone_addsNoLoggingInterceptor() {
+        OkHttpClient client = UberRidesApi.with(session)
+                .buildClient(new RefreshAuthenticator(authenticator), new ApiInterceptor(authenticator));
+
+        for (Interceptor interceptor : client.interceptors()) {
+            if (interceptor instanceof HttpLoggingInterceptor) {
+                fail("No logging interceptor expected at Level.NONE");
+            }
+        }
+    }
+
+    @Test
+    public void buildClient_withLevelAndSampledLogging_addsBothLoggingInterceptors() {
+        SampledLoggingInterceptor sampledLogging = SampledLoggingInterceptor.builder().build();
+        OkHttpClient client = UberRidesApi.with(session)
+                .setLogLevel(HttpLoggingInterceptor.Level.BASIC)
+                .setSampledLogging(sampledLogging)
+                .buildClient(new RefreshAuthenticator(authenticator), new ApiInterceptor(authenticator));
+
+        int size = client.interceptors().size();
+        assertEquals(sampledLogging, client.interceptors().get(size - 2));
+        assertEquals(HttpLoggingInterceptor.Level.BASIC,
+                ((HttpLoggingInterceptor) client.interceptors().get(size - 1)).getLevel());
+    }
+
+    @Test
+    public void buildClient_withHedging_addsHedgingBeforeRetries() {
+        RetryInterceptor retries = RetryInterceptor.builder().build();
+        OkHttpClient client = UberRidesApi.with(session)
+                .setHedging(RequestHedger.builder().build())
+                .setRetries(retries)
+                .buildClient(new RefreshAuthenticator(authenticator), new ApiInterceptor(authenticator));
+
+        int size = client.interceptors().size();
+        assertEquals(retries, client.interceptors().get(size - 1));
+        assertEquals(RequestHedger.class, client.interceptors().get(size - 2).getClass().getEnclosingClass());
+    }
+}
@@ -0,0 +1,141 @@
+package com.uber.sdk.rides.client;
+
+import com.uber.sdk.core.auth.Authenticator;
+import com.uber.sdk.core.client.Session;
+import com.uber.sdk.core.client.SessionConfiguration;
+import com.uber.sdk.rides.WireMockTest;
+import com.uber.sdk.rides.client.error.ApiException;
+import com.uber.sdk.rides.client.model.UserActivity;
+import com.uber.sdk.rides.client.services.RidesService;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.when;
+
+public class UserActivityHistoryTest extends WireMockTest {
+
+    @Mock
+    Session session;
+
+    @Mock
+    Authenticator authenticator;
+
+    @Mock
+    SessionConfiguration config;
+
+    private RidesService service;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(session.getAuthenticator()).thenReturn(authenticator);
+        when(authenticator.getSessionConfiguration()).thenReturn(config);
+        when(config.getLocale()).thenReturn(Locale.US);
+        when(config.getEndpointHost()).thenReturn("http://localhost:" + wireMockRule.port());
+
+        service = UberRidesApi.with(session).build().createService();
+
+        stubPage(0, "a", "b");
+        stubPage(2, "c", "d");
+        stubPage(4, "e");
+    }
+
+    @Test
+    public void iterator_whenMultiplePages_returnsAllActivitiesInOrder() {
+        List<String> rideIds = collect(UserActivityHistory.with(service).setPageSize(2).build());
+
+        assertThat(rideIds).containsExactly("a", "b", "c", "d", "e");
+        verify(3, getRequestedFor(urlPathEqualTo("/v1.2/history")));
+    }
+
+    @Test
+    public void iterator_withParallelism_returnsAllActivitiesInOrder() {
+        List<String> rideIds = collect(UserActivityHistory.with(service)
+                .setPageSize(2)
+                .setParallelism(4)
+                .build());
+
+        assertThat(rideIds).containsExactly("a", "b", "c", "d", "e");
+        verify(3, getRequestedFor(urlPathEqualTo("/v1.2/history")));
+    }
+
+    @Test
+    public void iterator_withoutParallelism_requestsPagesWhenReached() {
+        Iterator<UserActivity> iterator = UserActivityHistory.with(service)
+                .setPageSize(2)
+                .setParallelism(0)
+                .build()
+                .iterator();
+
+        assertThat(iterator.next().getRideId()).isEqualTo("a");
+        verify(0, getRequestedFor(urlPathEqualTo("/v1.2/history")).withQueryParam("offset", equalTo("2")));
+        iterator.next();
+        assertThat(iterator.next().getRideId()).isEqualTo("c");
+        verify(2, getRequestedFor(urlPathEqualTo("/v1.2/history")));
+    }
+
+    @Test
+    public void iterator_whenNotConsumed_doesNotRequest() {
+        UserActivityHistory.with(service).build().iterator();
+
+        verify(0, getRequestedFor(urlPathEqualTo("/v1.2/history")));
+    }
+
+    @Test
+    public void hasNext_whenPageFails_throwsPageException() {
+        stubFor(get(urlPathEqualTo("/v1.2/history"))
+                .withQueryParam("offset", equalTo("2"))
+                .willReturn(aResponse().withStatus(500)
+                        .withBody("{\"message\":\"Internal error\",\"code\":\"internal_server_error\"}")));
+
+        Iterator<UserActivity> iterator = UserActivityHistory.with(service).setPageSize(2).build().iterator();
+        assertThat(iterator.next().getRideId()).isEqualTo("a");
+        assertThat(iterator.next().getRideId()).isEqualTo("b");
+        try {
+            iterator.hasNext();
+            fail("Expected PageException");
+        } catch (UserActivityHistory.PageException e) {
+            assertThat(e.getOffset()).isEqualTo(2);
+            assertThat(e.getCause()).isInstanceOf(ApiException.class);
+        }
+    }
+
+    private static void stubPage(int offset, String... rideIds) {
+        StringBuilder history = new StringBuilder();
+        for (String rideId : rideIds) {
+            if (history.length() > 0) {
+                history.append(',');
+            }
+            history.append("{\"request_id\":\"").append(rideId).append("\",\"status\":\"completed\"}");
+        }
+        stubFor(get(urlPathEqualTo("/v1.2/history"))
+                .withQueryParam("offset", equalTo(String.valueOf(offset)))
+                .willReturn(aResponse().withBody("{\"offset\":" + offset + ",\"limit\":2,\"count\":5,"
+                        + "\"history\":[" + history + "]}")));
+    }
+
+    private static List<String> collect(Iterable<UserActivity> activities) {
+        List<String> rideIds = new ArrayList<>();
+        for (UserActivity activity : activities) {
+            rideIds.add(activity.getRideId());
+        }
+        return rideIds;
+    }
+}
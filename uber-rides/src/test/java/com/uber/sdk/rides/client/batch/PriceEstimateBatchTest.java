@@ -0,0 +1,133 @@
+package com.uber.sdk.rides.client.batch;
+
+import com.uber.sdk.core.auth.Authenticator;
+import com.uber.sdk.core.client.Session;
+import com.uber.sdk.core.client.SessionConfiguration;
+import com.uber.sdk.rides.WireMockTest;
+import com.uber.sdk.rides.client.UberRidesApi;
+import com.uber.sdk.rides.client.error.ApiException;
+import com.uber.sdk.rides.client.services.RidesService;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+public class PriceEstimateBatchTest extends WireMockTest {
+
+    private static final String PRICES = "{\"prices\":["
+            + "{\"product_id\":\"a1111c8c\",\"display_name\":\"uberX\",\"currency_code\":\"USD\","
+            + "\"low_estimate\":11.5,\"high_estimate\":14,\"surge_multiplier\":1.0,"
+            + "\"duration\":640,\"distance\":5.34},"
+            + "{\"product_id\":\"d4abaae7\",\"display_name\":\"UberBLACK\",\"currency_code\":\"USD\","
+            + "\"low_estimate\":23,\"high_estimate\":29,\"surge_multiplier\":1.5,"
+            + "\"duration\":640,\"distance\":5.34}]}";
+
+    private static final Route OK = new Route(37.7753f, -122.418f, 37.7876f, -122.4027f);
+    private static final Route NOT_FOUND = new Route(1.5f, -122.418f, 37.7876f, -122.4027f);
+    private static final Route SLOW = new Route(2.5f, -122.418f, 37.7876f, -122.4027f);
+
+    @Mock
+    Session session;
+
+    @Mock
+    Authenticator authenticator;
+
+    @Mock
+    SessionConfiguration config;
+
+    private RidesService service;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(session.getAuthenticator()).thenReturn(authenticator);
+        when(authenticator.getSessionConfiguration()).thenReturn(config);
+        when(config.getLocale()).thenReturn(Locale.US);
+        when(config.getEndpointHost()).thenReturn("http://localhost:" + wireMockRule.port());
+
+        service = UberRidesApi.with(session).build().createService();
+
+        stubFor(get(urlPathEqualTo("/v1.2/estimates/price"))
+                .withQueryParam("start_latitude", equalTo("37.7753"))
+                .willReturn(aResponse().withBody(PRICES)));
+        stubFor(get(urlPathEqualTo("/v1.2/estimates/price"))
+                .withQueryParam("start_latitude", equalTo("1.5"))
+                .willReturn(aResponse().withStatus(404)
+                        .withBody("{\"message\":\"Unable to find route\",\"code\":\"not_found\"}")));
+        stubFor(get(urlPathEqualTo("/v1.2/estimates/price"))
+                .withQueryParam("start_latitude", equalTo("2.5"))
+                .willReturn(aResponse().withFixedDelay(2000).withBody(PRICES)));
+    }
+
+    @Test
+    public void execute_withDuplicateRoutes_requestsOnce() throws Exception {
+        PriceEstimateMatrix matrix = PriceEstimateBatch.with(service).build()
+                .execute(Arrays.asList(OK, OK, OK));
+
+        verify(1, getRequestedFor(urlPathEqualTo("/v1.2/estimates/price")));
+        assertThat(matrix.getRoutes()).hasSize(3);
+        assertThat(matrix.getProductIds()).containsExactly("a1111c8c", "d4abaae7");
+
+        int black = matrix.indexOfProduct("d4abaae7");
+        for (int route = 0; route < 3; route++) {
+            assertThat(matrix.getStatus(route)).isEqualTo(PriceEstimateMatrix.Status.SUCCESS);
+            assertThat(matrix.getCurrencyCode(route)).isEqualTo("USD");
+            assertThat(matrix.getLowEstimate(route, black)).isEqualTo(new BigDecimal("23"));
+            assertThat(matrix.getHighEstimate(route, black)).isEqualTo(new BigDecimal("29"));
+            assertThat(matrix.getSurgeMultiplier(route, black)).isEqualTo(1.5f);
+            assertThat(matrix.getDuration(route, black)).isEqualTo(640);
+        }
+        assertThat(matrix.getDisplayName(black)).isEqualTo("UberBLACK");
+    }
+
+    @Test
+    public void execute_withFailingRoute_reportsPartialResults() throws Exception {
+        PriceEstimateMatrix matrix = PriceEstimateBatch.with(service)
+                .setMaxConcurrency(1)
+                .build()
+                .execute(Arrays.asList(NOT_FOUND, OK));
+
+        assertThat(matrix.getStatus(0)).isEqualTo(PriceEstimateMatrix.Status.FAILED);
+        assertThat(matrix.isSuccessful(0)).isFalse();
+        assertThat(matrix.hasEstimate(0, 0)).isFalse();
+        assertThat(matrix.getLowEstimate(0, 0)).isNull();
+        assertThat(matrix.getFailure(0)).isInstanceOf(ApiException.class);
+        assertThat(((ApiException) matrix.getFailure(0)).getStatusCode()).isEqualTo(404);
+
+        assertThat(matrix.isSuccessful(1)).isTrue();
+        assertThat(matrix.hasEstimate(1, 0)).isTrue();
+        assertThat(matrix.getFailure(1)).isNull();
+    }
+
+    @Test
+    public void execute_withSlowRoute_timesOut() throws Exception {
+        PriceEstimateMatrix matrix = PriceEstimateBatch.with(service)
+                .setItemTimeout(200, TimeUnit.MILLISECONDS)
+                .build()
+                .execute(Arrays.asList(SLOW, OK));
+
+        assertThat(matrix.getStatus(0)).isEqualTo(PriceEstimateMatrix.Status.TIMED_OUT);
+        assertThat(matrix.getStatus(1)).isEqualTo(PriceEstimateMatrix.Status.SUCCESS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setMaxConcurrency_whenLessThanOne_throws() {
+        PriceEstimateBatch.with(service).setMaxConcurrency(0);
+    }
+}
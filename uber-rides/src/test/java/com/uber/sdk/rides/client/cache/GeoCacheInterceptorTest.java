@@ -0,0 +1,123 @@
+package com.uber.sdk.rides.client.cache;
+
+import com.uber.sdk.rides.FakeClock;
+import com.uber.sdk.rides.WireMockTest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GeoCacheInterceptorTest extends WireMockTest {
+
+    private FakeClock clock;
+
+    @Before
+    public void setUp() {
+        clock = new FakeClock();
+        stubFor(get(urlPathEqualTo("/v1.2/products"))
+                .willReturn(aResponse().withBody("{\"products\":[]}")));
+        stubFor(get(urlPathEqualTo("/v1.2/estimates/price"))
+                .willReturn(aResponse().withBody("{\"prices\":[]}")));
+        stubFor(get(urlPathEqualTo("/v1.2/estimates/time"))
+                .willReturn(aResponse().withStatus(500).withBody("{}")));
+    }
+
+    @Test
+    public void intercept_withNearbyCoordinates_servesFromCache() throws Exception {
+        GeoCacheInterceptor cache = new GeoCacheInterceptor(GeoCacheInterceptor.builder(), clock);
+        OkHttpClient client = createClient(cache);
+
+        assertThat(execute(client, newAuthorizedRequest("/v1.2/products?latitude=37.77530&longitude=-122.41800",
+                "Bearer a")).body().string())
+                .isEqualTo("{\"products\":[]}");
+        assertThat(execute(client, newAuthorizedRequest("/v1.2/products?latitude=37.77535&longitude=-122.41805",
+                "Bearer a")).body().string())
+                .isEqualTo("{\"products\":[]}");
+
+        verify(1, getRequestedFor(urlPathEqualTo("/v1.2/products")));
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void intercept_withDifferentEndCell_missesCache() throws Exception {
+        GeoCacheInterceptor cache = new GeoCacheInterceptor(GeoCacheInterceptor.builder(), clock);
+        OkHttpClient client = createClient(cache);
+
+        execute(client, newAuthorizedRequest("/v1.2/estimates/price?start_latitude=37.7753&start_longitude=-122.418"
+                + "&end_latitude=37.7876&end_longitude=-122.4027", "Bearer a"));
+        execute(client, newAuthorizedRequest("/v1.2/estimates/price?start_latitude=37.7753&start_longitude=-122.418"
+                + "&end_latitude=37.8044&end_longitude=-122.2711", "Bearer a"));
+
+        verify(2, getRequestedFor(urlPathEqualTo("/v1.2/estimates/price")));
+        assertThat(cache.getHitCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void intercept_withDifferentUsers_missesCacheUnlessShared() throws Exception {
+        GeoCacheInterceptor cache = new GeoCacheInterceptor(GeoCacheInterceptor.builder(), clock);
+        OkHttpClient client = createClient(cache);
+        execute(client, newAuthorizedRequest("/v1.2/products?latitude=37.7753&longitude=-122.418", "Bearer a"));
+        execute(client, newAuthorizedRequest("/v1.2/products?latitude=37.7753&longitude=-122.418", "Bearer b"));
+        assertThat(cache.getHitCount()).isEqualTo(0);
+
+        GeoCacheInterceptor sharedCache = new GeoCacheInterceptor(
+                GeoCacheInterceptor.builder().setSharedAcrossUsers(true), clock);
+        OkHttpClient sharedClient = createClient(sharedCache);
+        execute(sharedClient, newAuthorizedRequest("/v1.2/products?latitude=37.7753&longitude=-122.418", "Bearer a"));
+        execute(sharedClient, newAuthorizedRequest("/v1.2/products?latitude=37.7753&longitude=-122.418", "Bearer b"));
+        assertThat(sharedCache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void intercept_afterTimeToLive_missesCache() throws Exception {
+        GeoCacheInterceptor cache = new GeoCacheInterceptor(GeoCacheInterceptor.builder()
+                .setTimeToLive(GeoCacheInterceptor.Endpoint.PRODUCTS, 10, TimeUnit.SECONDS), clock);
+        OkHttpClient client = createClient(cache);
+
+        execute(client, newAuthorizedRequest("/v1.2/products?latitude=37.7753&longitude=-122.418", "Bearer a"));
+        clock.millis += TimeUnit.SECONDS.toMillis(10);
+        execute(client, newAuthorizedRequest("/v1.2/products?latitude=37.7753&longitude=-122.418", "Bearer a"));
+
+        verify(2, getRequestedFor(urlPathEqualTo("/v1.2/products")));
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void intercept_whenFull_evictsLeastRecentlyUsed() throws Exception {
+        GeoCacheInterceptor cache = new GeoCacheInterceptor(GeoCacheInterceptor.builder().setMaxEntries(1), clock);
+        OkHttpClient client = createClient(cache);
+
+        execute(client, newAuthorizedRequest("/v1.2/products?latitude=37.7753&longitude=-122.418", "Bearer a"));
+        execute(client, newAuthorizedRequest("/v1.2/products?latitude=40.7128&longitude=-74.0060", "Bearer a"));
+        execute(client, newAuthorizedRequest("/v1.2/products?latitude=37.7753&longitude=-122.418", "Bearer a"));
+
+        verify(3, getRequestedFor(urlPathEqualTo("/v1.2/products")));
+        assertThat(cache.getEvictionCount()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void intercept_whenUnsuccessful_doesNotCache() throws Exception {
+        GeoCacheInterceptor cache = new GeoCacheInterceptor(GeoCacheInterceptor.builder(), clock);
+        OkHttpClient client = createClient(cache);
+
+        String path = "/v1.2/estimates/time?start_latitude=37.7753&start_longitude=-122.418";
+        execute(client, newAuthorizedRequest(path, "Bearer a"));
+        execute(client, newAuthorizedRequest(path, "Bearer a"));
+
+        verify(2, getRequestedFor(urlPathEqualTo("/v1.2/estimates/time")));
+        assertThat(cache.size()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,29 @@
+package com.uber.sdk.rides.client.cache;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GeoHashTest {
+
+    @Test
+    public void encode_withKnownCoordinate_returnsGeohash() {
+        assertThat(GeoHash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(GeoHash.encode(37.7753, -122.418, 7)).isEqualTo("9q8yykc");
+    }
+
+    @Test
+    public void encode_withLowerPrecision_returnsPrefix() {
+        assertThat(GeoHash.encode(57.64911, 10.40744, 5)).isEqualTo("u4pru");
+    }
+
+    @Test
+    public void encode_withNearbyCoordinates_returnsSameCell() {
+        assertThat(GeoHash.encode(37.77530, -122.41800, 7)).isEqualTo(GeoHash.encode(37.77535, -122.41805, 7));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encode_withInvalidPrecision_throws() {
+        GeoHash.encode(37.7753, -122.418, 13);
+    }
+}
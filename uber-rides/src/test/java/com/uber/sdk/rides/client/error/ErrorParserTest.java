@@ -26,6 +26,10 @@ import org.junit.Test;
 
 import java.util.List;
 
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
@@ -56,6 +60,15 @@ public class ErrorParserTest {
         assertError(apiError.getClientErrors(), "unknown_place_id", 404, "Only \"home\" and \"work\" are allowed.");
     }
 
+    @Test
+    public void parseError_whenMetaWithoutErrors_shouldReturnEmptyClientErrors() {
+        ApiError apiError = ErrorParser.parseError("{\"meta\":{}}", 409, "Conflict");
+
+        assertThat(apiError.getMeta()).isNotNull();
+        assertThat(apiError.getClientErrors()).isEmpty();
+        assertThat(new ApiException(apiError, 409).getMessage()).isEqualTo("HTTP 409");
+    }
+
     @Test
     public void parseError_whenErrorWithSurge_shouldReturnFullError() {
         String body = "{\"meta\":{\"surge_confirmation\":{\"href\":\"https:\\/\\/api.uber.com\\/v1\\/surge-confirmations\\/a9ca7bf4-315c-4a8d-86a4-1697b7b94de4\",\"expires_at\":1464118311,\"multiplier\":2.1,\"surge_confirmation_id\":\"a9ca7bf4-315c-4a8d-86a4-1697b7b94de4\"}},\"errors\":[{\"status\":409,\"code\":\"surge\",\"title\":\"Surge pricing is currently in effect for this product.\"}]}";
@@ -78,6 +91,41 @@ public class ErrorParserTest {
         assertError(apiError.getClientErrors(), null, 416, "Unknown Error");
     }
 
+    @Test
+    public void parseError_whenBothErrorShapes_shouldReturnUnknownError() {
+        String body = "{\"code\":\"surge\",\"errors\":[{\"status\":409,\"code\":\"surge\",\"title\":\"Surge\"}]}";
+        ApiError apiError = ErrorParser.parseError(body, 409, "Conflict");
+
+        assertThat(apiError.getMeta()).isNull();
+        assertError(apiError.getClientErrors(), null, 409, "Unknown Error");
+    }
+
+    @Test
+    public void parseError_whenUnknownNestedField_shouldReturnUnknownError() {
+        String body = "{\"meta\":{\"random\":true},\"errors\":[]}";
+        ApiError apiError = ErrorParser.parseError(body, 400, "Bad Request");
+
+        assertError(apiError.getClientErrors(), null, 400, "Unknown Error");
+    }
+
+    @Test
+    public void parseError_whenMalformedBody_shouldReturnUnknownError() {
+        ApiError apiError = ErrorParser.parseError("<html>Bad Gateway</html>", 502, "Bad Gateway");
+
+        assertError(apiError.getClientErrors(), null, 502, "Unknown Error");
+    }
+
+    @Test
+    public void parseError_whenErrorResponse_shouldReadBodySource() {
+        String body = "{\"message\":\"Unable to find product thisIsNotAProductId\",\"code\":\"not_found\"}";
+        Response<?> response = Response.error(404, ResponseBody.create(MediaType.parse("application/json"), body));
+
+        ApiError apiError = ErrorParser.parseError(response);
+
+        assertThat(apiError.getMeta()).isNull();
+        assertError(apiError.getClientErrors(), "not_found", 404, "Unable to find product thisIsNotAProductId");
+    }
+
     private void assertError(List<ClientError> clientErrors, String code, int status, String title) {
         assertThat(clientErrors).hasSize(1);
         ClientError clientError =  clientErrors.get(0);
@@ -0,0 +1,206 @@
+package com.uber.sdk.rides.client.interceptors;
+
+import com.github.tomakehurst.wiremock.http.Fault;
+import com.uber.sdk.rides.FakeClock;
+import com.uber.sdk.rides.WireMockTest;
+import com.uber.sdk.rides.client.interceptors.CircuitBreakerInterceptor.State;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerInterceptorTest extends WireMockTest {
+
+    private static final String PRODUCTS = "GET /v1.2/products";
+
+    private final FakeClock clock = new FakeClock();
+    private final RecordingListener listener = new RecordingListener();
+
+    @Test
+    public void intercept_whenFailureRateReachesThreshold_opens() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products")).willReturn(aResponse().withStatus(500)));
+        CircuitBreakerInterceptor interceptor = create(CircuitBreakerInterceptor.builder().setMinimumCalls(4));
+        OkHttpClient client = createClient(interceptor);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(execute(client, "/v1.2/products").code()).isEqualTo(500);
+        }
+        Response rejected = execute(client, "/v1.2/products");
+
+        assertThat(rejected.code()).isEqualTo(503);
+        assertThat(rejected.body().string()).contains(CircuitBreakerInterceptor.ERROR_CODE);
+        verify(4, getRequestedFor(urlPathEqualTo("/v1.2/products")));
+        assertThat(interceptor.getState(PRODUCTS)).isEqualTo(State.OPEN);
+        assertThat(listener.changes).containsExactly(PRODUCTS + " CLOSED->OPEN");
+    }
+
+    @Test
+    public void intercept_belowMinimumCalls_staysClosed() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products")).willReturn(aResponse().withStatus(500)));
+        CircuitBreakerInterceptor interceptor = create(CircuitBreakerInterceptor.builder().setMinimumCalls(4));
+        OkHttpClient client = createClient(interceptor);
+
+        for (int i = 0; i < 3; i++) {
+            execute(client, "/v1.2/products");
+        }
+
+        assertThat(interceptor.getState(PRODUCTS)).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    public void intercept_withConnectionFailures_opens() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products")).willReturn(aResponse().withFault(Fault.EMPTY_RESPONSE)));
+        CircuitBreakerInterceptor interceptor = create(CircuitBreakerInterceptor.builder().setMinimumCalls(2));
+        OkHttpClient client = createClient(interceptor);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                execute(client, "/v1.2/products");
+                fail("Expected an IOException");
+            } catch (IOException expected) {
+            }
+        }
+
+        assertThat(interceptor.getState(PRODUCTS)).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    public void intercept_withSlowCalls_opens() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products")).willReturn(aResponse().withBody("{}")));
+        CircuitBreakerInterceptor interceptor = create(CircuitBreakerInterceptor.builder()
+                .setMinimumCalls(2)
+                .setSlowCall(1, TimeUnit.SECONDS, 50));
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(interceptor)
+                .addInterceptor(advancingInterceptor(TimeUnit.SECONDS.toNanos(2)))
+                .build();
+
+        execute(client, "/v1.2/products");
+        execute(client, "/v1.2/products");
+
+        assertThat(interceptor.getState(PRODUCTS)).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    public void intercept_afterOpenDuration_closesOnSuccessfulTrials() throws Exception {
+        CircuitBreakerInterceptor interceptor = create(CircuitBreakerInterceptor.builder()
+                .setMinimumCalls(2)
+                .setHalfOpenCalls(2)
+                .setOpenDuration(10, TimeUnit.SECONDS));
+        OkHttpClient client = createClient(interceptor);
+        open(client);
+
+        clock.nanos += TimeUnit.SECONDS.toNanos(10);
+        assertThat(interceptor.getState(PRODUCTS)).isEqualTo(State.HALF_OPEN);
+        stubFor(get(urlPathEqualTo("/v1.2/products")).willReturn(aResponse().withBody("{}")));
+        assertThat(execute(client, "/v1.2/products").code()).isEqualTo(200);
+        assertThat(execute(client, "/v1.2/products").code()).isEqualTo(200);
+
+        assertThat(interceptor.getState(PRODUCTS)).isEqualTo(State.CLOSED);
+        assertThat(listener.changes).containsExactly(
+                PRODUCTS + " CLOSED->OPEN", PRODUCTS + " OPEN->HALF_OPEN", PRODUCTS + " HALF_OPEN->CLOSED");
+    }
+
+    @Test
+    public void intercept_whenTrialFails_opensAgain() throws Exception {
+        CircuitBreakerInterceptor interceptor = create(CircuitBreakerInterceptor.builder()
+                .setMinimumCalls(2)
+                .setHalfOpenCalls(1)
+                .setOpenDuration(10, TimeUnit.SECONDS));
+        OkHttpClient client = createClient(interceptor);
+        open(client);
+
+        clock.nanos += TimeUnit.SECONDS.toNanos(10);
+        assertThat(execute(client, "/v1.2/products").code()).isEqualTo(500);
+
+        assertThat(interceptor.getState(PRODUCTS)).isEqualTo(State.OPEN);
+        assertThat(execute(client, "/v1.2/products").code()).isEqualTo(503);
+        verify(3, getRequestedFor(urlPathEqualTo("/v1.2/products")));
+    }
+
+    @Test
+    public void intercept_whenRouteOpen_doesNotAffectOtherRoutes() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products/a")).willReturn(aResponse().withBody("{}")));
+        CircuitBreakerInterceptor interceptor = create(CircuitBreakerInterceptor.builder().setMinimumCalls(2));
+        OkHttpClient client = createClient(interceptor);
+        open(client);
+
+        assertThat(execute(client, "/v1.2/products/a").code()).isEqualTo(200);
+        assertThat(interceptor.getState("GET /v1.2/products/{product_id}")).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    public void intercept_withUnmatchedRoute_isNotGuarded() throws Exception {
+        stubFor(get(urlPathEqualTo("/unknown")).willReturn(aResponse().withStatus(500)));
+        CircuitBreakerInterceptor interceptor = create(CircuitBreakerInterceptor.builder().setMinimumCalls(1));
+        OkHttpClient client = createClient(interceptor);
+
+        execute(client, "/unknown");
+        execute(client, "/unknown");
+
+        verify(2, getRequestedFor(urlPathEqualTo("/unknown")));
+        assertThat(listener.changes).isEmpty();
+    }
+
+    @Test
+    public void intercept_withClientErrors_staysClosed() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products")).willReturn(aResponse().withStatus(429)));
+        CircuitBreakerInterceptor interceptor = create(CircuitBreakerInterceptor.builder().setMinimumCalls(2));
+        OkHttpClient client = createClient(interceptor);
+
+        execute(client, "/v1.2/products");
+        execute(client, "/v1.2/products");
+
+        assertThat(interceptor.getState(PRODUCTS)).isEqualTo(State.CLOSED);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setFailureRateThreshold_aboveHundred_throws() {
+        CircuitBreakerInterceptor.builder().setFailureRateThreshold(101);
+    }
+
+    private CircuitBreakerInterceptor create(CircuitBreakerInterceptor.Builder builder) {
+        return new CircuitBreakerInterceptor(builder.addListener(listener), clock);
+    }
+
+    private void open(OkHttpClient client) throws IOException {
+        stubFor(get(urlPathEqualTo("/v1.2/products")).willReturn(aResponse().withStatus(500)));
+        execute(client, "/v1.2/products");
+        execute(client, "/v1.2/products");
+    }
+
+    private Interceptor advancingInterceptor(final long delta) {
+        return new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                clock.nanos += delta;
+                return chain.proceed(chain.request());
+            }
+        };
+    }
+
+    static class RecordingListener implements CircuitBreakerInterceptor.Listener {
+        final List<String> changes = new ArrayList<>();
+
+        @Override
+        public void onStateChange(String route, State from, State to) {
+            changes.add(route + " " + from + "->" + to);
+        }
+    }
+}
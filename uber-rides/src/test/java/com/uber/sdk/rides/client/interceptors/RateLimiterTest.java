@@ -0,0 +1,164 @@
+package com.uber.sdk.rides.client.interceptors;
+
+import com.uber.sdk.rides.FakeClock;
+import com.uber.sdk.rides.WireMockTest;
+import com.uber.sdk.rides.client.error.ApiError;
+import com.uber.sdk.rides.client.error.ErrorParser;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimiterTest extends WireMockTest {
+
+    private FakeClock clock;
+
+    @Before
+    public void setUp() {
+        clock = new FakeClock();
+        stubFor(get(urlPathEqualTo("/v1.2/me"))
+                .willReturn(aResponse().withBody("{}")));
+        stubFor(get(urlPathEqualTo("/v1.2/history"))
+                .willReturn(aResponse().withStatus(429).withHeader("Retry-After", "30").withBody("{}")));
+        stubFor(get(urlPathEqualTo("/v1.2/payment-methods"))
+                .willReturn(aResponse()
+                        .withHeader("X-Rate-Limit-Remaining", "0")
+                        .withHeader("X-Rate-Limit-Reset", "60")
+                        .withBody("{}")));
+    }
+
+    @Test
+    public void intercept_withinBurst_proceeds() throws Exception {
+        RateLimiter limiter = new RateLimiter(RateLimiter.builder().setUserRate(1, 2), clock);
+        OkHttpClient client = createClient(limiter.interceptor("client"));
+
+        assertThat(execute(client, newAuthorizedRequest("/v1.2/me", "Bearer a")).code()).isEqualTo(200);
+        assertThat(execute(client, newAuthorizedRequest("/v1.2/me", "Bearer a")).code()).isEqualTo(200);
+
+        verify(2, getRequestedFor(urlPathEqualTo("/v1.2/me")));
+        assertThat(limiter.getDelayedCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void intercept_beyondBurst_waitsForPermit() throws Exception {
+        RateLimiter limiter = new RateLimiter(RateLimiter.builder().setUserRate(2, 1), clock);
+        OkHttpClient client = createClient(limiter.interceptor("client"));
+
+        execute(client, newAuthorizedRequest("/v1.2/me", "Bearer a"));
+        execute(client, newAuthorizedRequest("/v1.2/me", "Bearer a"));
+
+        verify(2, getRequestedFor(urlPathEqualTo("/v1.2/me")));
+        assertThat(limiter.getDelayedCount()).isEqualTo(1);
+        assertThat(clock.slept).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    public void intercept_beyondMaxWait_shedsWithDistinctError() throws Exception {
+        RateLimiter limiter = new RateLimiter(RateLimiter.builder()
+                .setUserRate(1, 1)
+                .setMaxWait(0, TimeUnit.SECONDS), clock);
+        OkHttpClient client = createClient(limiter.interceptor("client"));
+
+        execute(client, newAuthorizedRequest("/v1.2/me", "Bearer a"));
+        Response shed = execute(client, newAuthorizedRequest("/v1.2/me", "Bearer a"));
+        Response otherUser = execute(client, newAuthorizedRequest("/v1.2/me", "Bearer b"));
+
+        assertThat(shed.code()).isEqualTo(429);
+        ApiError error = ErrorParser.parseError(shed.body().string(), shed.code(), shed.message());
+        assertThat(error.getClientErrors().get(0).getCode()).isEqualTo(RateLimiter.ERROR_CODE);
+        assertThat(otherUser.code()).isEqualTo(200);
+        verify(2, getRequestedFor(urlPathEqualTo("/v1.2/me")));
+        assertThat(limiter.getShedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void intercept_whenThrottled_lowersClientRateAndHonorsRetryAfter() throws Exception {
+        RateLimiter limiter = new RateLimiter(RateLimiter.builder()
+                .setClientRate(100, 100)
+                .setMaxWait(10, TimeUnit.SECONDS), clock);
+        OkHttpClient client = createClient(limiter.interceptor("client"));
+
+        assertThat(execute(client, newAuthorizedRequest("/v1.2/history", "Bearer a")).code()).isEqualTo(429);
+        assertThat(limiter.getThrottledCount()).isEqualTo(1);
+        assertThat(limiter.getClientRate("client")).isEqualTo(50.0);
+
+        assertThat(execute(client, newAuthorizedRequest("/v1.2/me", "Bearer a")).code()).isEqualTo(429);
+        assertThat(execute(client, newAuthorizedRequest("/v1.2/me", "Bearer b")).code()).isEqualTo(200);
+        verify(1, getRequestedFor(urlPathEqualTo("/v1.2/me")));
+    }
+
+    @Test
+    public void intercept_whenThrottledRepeatedly_lowersClientRateOncePerWindow() throws Exception {
+        RateLimiter limiter = new RateLimiter(RateLimiter.builder()
+                .setClientRate(100, 100)
+                .setMaxWait(60, TimeUnit.SECONDS), clock);
+        OkHttpClient client = createClient(limiter.interceptor("client"));
+
+        execute(client, newAuthorizedRequest("/v1.2/history", "Bearer a"));
+        execute(client, newAuthorizedRequest("/v1.2/history", "Bearer b"));
+        execute(client, newAuthorizedRequest("/v1.2/history", "Bearer c"));
+        assertThat(limiter.getThrottledCount()).isEqualTo(3);
+        assertThat(limiter.getClientRate("client")).isEqualTo(50.0);
+
+        clock.nanos += TimeUnit.SECONDS.toNanos(1);
+        execute(client, newAuthorizedRequest("/v1.2/history", "Bearer d"));
+        assertThat(limiter.getClientRate("client")).isEqualTo(25.0);
+    }
+
+    @Test
+    public void intercept_whenTokenChangesForSameSession_keepsRetryAfterPause() throws Exception {
+        RateLimiter limiter = new RateLimiter(RateLimiter.builder().setMaxWait(10, TimeUnit.SECONDS), clock);
+        OkHttpClient client = createClient(limiter.interceptor("client"));
+        Object session = new Object();
+
+        assertThat(execute(client, newAuthorizedRequest("/v1.2/history", "Bearer old").tag(session)).code())
+                .isEqualTo(429);
+        Response refreshed = execute(client, newAuthorizedRequest("/v1.2/me", "Bearer new").tag(session));
+
+        assertThat(refreshed.code()).isEqualTo(429);
+        assertThat(limiter.getShedCount()).isEqualTo(1);
+        verify(0, getRequestedFor(urlPathEqualTo("/v1.2/me")));
+    }
+
+    @Test
+    public void userOf_withoutTag_doesNotKeepAuthorization() {
+        Request request = new Request.Builder()
+                .url("http://localhost/v1.2/me")
+                .header("Authorization", "Bearer secret")
+                .build();
+        Request sameToken = request.newBuilder().build();
+
+        assertThat(RateLimiter.userOf(request)).isEqualTo(RateLimiter.userOf(sameToken));
+        assertThat(RateLimiter.userOf(request).toString()).doesNotContain("secret");
+    }
+
+    @Test
+    public void intercept_whenRemainingExhausted_pausesUserUntilReset() throws Exception {
+        RateLimiter limiter = new RateLimiter(RateLimiter.builder().setMaxWait(120, TimeUnit.SECONDS), clock);
+        OkHttpClient client = createClient(limiter.interceptor("client"));
+
+        execute(client, newAuthorizedRequest("/v1.2/payment-methods", "Bearer a"));
+        execute(client, newAuthorizedRequest("/v1.2/me", "Bearer a"));
+
+        assertThat(limiter.getDelayedCount()).isEqualTo(1);
+        assertThat(clock.slept).isGreaterThanOrEqualTo(TimeUnit.SECONDS.toNanos(59));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setUserRate_whenNotPositive_throws() {
+        RateLimiter.builder().setUserRate(0, 1);
+    }
+}
@@ -0,0 +1,47 @@
+package com.uber.sdk.rides.client.interceptors;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestBudgetTest {
+
+    @Test
+    public void tryWithdraw_startsWithBurst() {
+        RequestBudget budget = new RequestBudget(0.1, 2);
+
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    public void deposit_fundsRatioOfRequests() {
+        RequestBudget budget = new RequestBudget(0.1, 2);
+        budget.tryWithdraw();
+        budget.tryWithdraw();
+
+        for (int i = 0; i < 9; i++) {
+            budget.deposit();
+        }
+        assertThat(budget.tryWithdraw()).isFalse();
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isTrue();
+    }
+
+    @Test
+    public void deposit_isCappedAtBurst() {
+        RequestBudget budget = new RequestBudget(0.5, 2);
+
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+
+        assertThat(budget.getAvailable()).isEqualTo(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_whenRatioAboveOne_throws() {
+        new RequestBudget(1.5, 1);
+    }
+}
@@ -0,0 +1,178 @@
+package com.uber.sdk.rides.client.interceptors;
+
+import com.uber.sdk.rides.WireMockTest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Interceptor;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestCoalescingInterceptorTest extends WireMockTest {
+
+    private static final int CONCURRENT_CALLS = 8;
+
+    private RequestCoalescingInterceptor interceptor;
+    private OkHttpClient client;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        interceptor = new RequestCoalescingInterceptor();
+        client = new OkHttpClient.Builder().addInterceptor(interceptor).build();
+        executor = Executors.newFixedThreadPool(CONCURRENT_CALLS);
+
+        stubFor(get(urlPathEqualTo("/v1.2/products"))
+                .willReturn(aResponse().withFixedDelay(500).withBody("{\"products\":[]}")));
+        stubFor(post(urlPathEqualTo("/v1.2/requests"))
+                .willReturn(aResponse().withFixedDelay(200).withBody("{}")));
+    }
+
+    @Test
+    public void intercept_whenIdenticalGetsInFlight_sendsSingleRequest() throws Exception {
+        List<String> bodies = executeConcurrently("GET", "Bearer token");
+
+        verify(1, getRequestedFor(urlPathEqualTo("/v1.2/products")));
+        assertThat(interceptor.getNetworkCount()).isEqualTo(1);
+        assertThat(interceptor.getMergedCount()).isEqualTo(CONCURRENT_CALLS - 1);
+        assertThat(interceptor.getInFlightCount()).isEqualTo(0);
+        for (String body : bodies) {
+            assertThat(body).isEqualTo("{\"products\":[]}");
+        }
+    }
+
+    @Test
+    public void intercept_whenDifferentAuthorization_doesNotMerge() throws Exception {
+        executeConcurrently("GET", null);
+
+        assertThat(interceptor.getNetworkCount() + interceptor.getMergedCount()).isEqualTo(CONCURRENT_CALLS);
+        assertThat(interceptor.getNetworkCount()).isEqualTo(CONCURRENT_CALLS);
+    }
+
+    @Test
+    public void intercept_whenNotGet_doesNotMerge() throws Exception {
+        executeConcurrently("POST", "Bearer token");
+
+        verify(CONCURRENT_CALLS, postRequestedFor(urlPathEqualTo("/v1.2/requests")));
+        assertThat(interceptor.getMergedCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void intercept_whenLeaderFails_followersCoalesceAgain() throws Exception {
+        client = createClientFailingFirstCall(new IOException("Canceled"));
+
+        List<String> bodies = executeConcurrently("GET", "Bearer token");
+
+        assertThat(interceptor.getNetworkCount()).isEqualTo(2);
+        assertThat(bodies).containsOnly("{\"products\":[]}", null);
+        assertThat(bodies).containsOnlyOnce((String) null);
+    }
+
+    @Test
+    public void intercept_whenLeaderThrowsError_releasesFollowers() throws Exception {
+        client = createClientFailingFirstCall(new AssertionError("leader"));
+
+        List<String> bodies = executeConcurrently("GET", "Bearer token");
+
+        assertThat(bodies).containsOnlyOnce((String) null);
+        assertThat(interceptor.getInFlightCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void intercept_whenLeaderSlowerThanMaxWait_followersMakeOwnRequests() throws Exception {
+        interceptor = new RequestCoalescingInterceptor(100, TimeUnit.MILLISECONDS);
+        client = new OkHttpClient.Builder().addInterceptor(interceptor).build();
+
+        List<String> bodies = executeConcurrently("GET", "Bearer token");
+
+        verify(CONCURRENT_CALLS, getRequestedFor(urlPathEqualTo("/v1.2/products")));
+        assertThat(bodies).containsOnly("{\"products\":[]}");
+    }
+
+    private List<String> executeConcurrently(final String method, final String authorization) throws Exception {
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_CALLS; i++) {
+            final int index = i;
+            futures.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    Request.Builder builder = new Request.Builder()
+                            .header("Authorization", authorization != null ? authorization : "Bearer " + index);
+                    if ("GET".equals(method)) {
+                        builder.url("http://localhost:" + wireMockRule.port() + "/v1.2/products?latitude=1.0");
+                    } else {
+                        builder.url("http://localhost:" + wireMockRule.port() + "/v1.2/requests")
+                                .post(RequestBody.create(null, "{}"));
+                    }
+                    try {
+                        Response response = client.newCall(builder.build()).execute();
+                        return response.body().string();
+                    } catch (IOException | AssertionError e) {
+                        return null;
+                    }
+                }
+            }));
+        }
+
+        List<String> bodies = new ArrayList<>();
+        for (Future<String> future : futures) {
+            bodies.add(future.get());
+        }
+        return bodies;
+    }
+
+    /**
+     * Creates a client whose first call fails after a delay, once followers joined it.
+     */
+    private OkHttpClient createClientFailingFirstCall(final Throwable failure) {
+        final AtomicBoolean failed = new AtomicBoolean();
+        return new OkHttpClient.Builder()
+                .addInterceptor(interceptor)
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public Response intercept(Chain chain) throws IOException {
+                        if (failed.compareAndSet(false, true)) {
+                            sleep(300);
+                            if (failure instanceof IOException) {
+                                throw (IOException) failure;
+                            }
+                            throw (Error) failure;
+                        }
+                        return chain.proceed(chain.request());
+                    }
+                })
+                .build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
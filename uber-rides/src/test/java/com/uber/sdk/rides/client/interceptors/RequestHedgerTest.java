@@ -0,0 +1,273 @@
+package com.uber.sdk.rides.client.interceptors;
+
+import com.uber.sdk.rides.WireMockTest;
+import com.uber.sdk.rides.client.metrics.HedgeMetrics;
+import com.uber.sdk.rides.client.metrics.MetricsInterceptor;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class RequestHedgerTest extends WireMockTest {
+
+    private static final String RIDE = "/v1.2/requests/ride";
+
+    @Test
+    public void intercept_whenSlow_returnsHedgeResponse() throws Exception {
+        stubFor(get(urlPathEqualTo(RIDE)).inScenario("hedge").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withFixedDelay(5000).withBody("{\"status\":\"slow\"}"))
+                .willSetStateTo("hedged"));
+        stubFor(get(urlPathEqualTo(RIDE)).inScenario("hedge").whenScenarioStateIs("hedged")
+                .willReturn(aResponse().withBody("{\"status\":\"hedge\"}")));
+        RequestHedger hedger = createHedger().build();
+        MetricsInterceptor metrics = MetricsInterceptor.builder().build();
+
+        long start = System.nanoTime();
+        Response response = execute(createClient(hedger, metrics), RIDE, null);
+
+        assertThat(response.body().string()).isEqualTo("{\"status\":\"hedge\"}");
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(4));
+        assertThat(hedger.getHedgeCount()).isEqualTo(1);
+        assertThat(hedger.getHedgeWinCount()).isEqualTo(1);
+
+        List<HedgeMetrics> hedges = metrics.getHedgeMetrics();
+        assertThat(hedges).hasSize(1);
+        assertThat(hedges.get(0).getRoute()).isEqualTo("/v1.2/requests/{request_id}");
+        assertThat(hedges.get(0).getHedgedCount()).isEqualTo(1);
+        assertThat(hedges.get(0).getWonCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void intercept_whenFast_doesNotHedge() throws Exception {
+        stubFor(get(urlPathEqualTo(RIDE)).willReturn(aResponse().withBody("{}")));
+        RequestHedger hedger = RequestHedger.builder().build();
+
+        assertThat(execute(createClient(hedger, null), RIDE, null).code()).isEqualTo(200);
+
+        verify(1, getRequestedFor(urlPathEqualTo(RIDE)));
+        assertThat(hedger.getHedgeCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void intercept_whenHedgeLoses_returnsOriginalResponse() throws Exception {
+        stubFor(get(urlPathEqualTo(RIDE)).inScenario("hedge").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withFixedDelay(300).withBody("{\"status\":\"original\"}"))
+                .willSetStateTo("hedged"));
+        stubFor(get(urlPathEqualTo(RIDE)).inScenario("hedge").whenScenarioStateIs("hedged")
+                .willReturn(aResponse().withFixedDelay(5000).withBody("{\"status\":\"hedge\"}")));
+        RequestHedger hedger = createHedger().build();
+        MetricsInterceptor metrics = MetricsInterceptor.builder().build();
+
+        Response response = execute(createClient(hedger, metrics), RIDE, null);
+
+        assertThat(response.body().string()).isEqualTo("{\"status\":\"original\"}");
+        assertThat(hedger.getHedgeCount()).isEqualTo(1);
+        assertThat(hedger.getHedgeWinCount()).isEqualTo(0);
+        assertThat(metrics.getHedgeMetrics().get(0).getWonCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void intercept_whenHedgeFailsWithServerError_returnsOriginalResponse() throws Exception {
+        stubFor(get(urlPathEqualTo(RIDE)).inScenario("hedge").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withFixedDelay(500).withBody("{\"status\":\"original\"}"))
+                .willSetStateTo("hedged"));
+        stubFor(get(urlPathEqualTo(RIDE)).inScenario("hedge").whenScenarioStateIs("hedged")
+                .willReturn(aResponse().withStatus(503)));
+        RequestHedger hedger = createHedger().build();
+
+        Response response = execute(createClient(hedger, null), RIDE, null);
+
+        assertThat(response.body().string()).isEqualTo("{\"status\":\"original\"}");
+        assertThat(hedger.getHedgeWinCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void intercept_whenBudgetSpent_doesNotHedge() throws Exception {
+        stubFor(get(urlPathEqualTo(RIDE)).willReturn(aResponse().withFixedDelay(200).withBody("{}")));
+        RequestHedger hedger = createHedger().setBudget(new RequestBudget(0, 1)).build();
+        Call.Factory client = createClient(hedger, null);
+
+        execute(client, RIDE, null);
+        execute(client, RIDE, null);
+
+        assertThat(hedger.getHedgeCount()).isEqualTo(1);
+        assertThat(hedger.getBudgetExhaustedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void intercept_withOtherRoutes_doesNotHedge() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products")).willReturn(aResponse().withFixedDelay(200).withBody("{}")));
+        stubFor(post(urlPathEqualTo("/v1.2/requests")).willReturn(aResponse().withFixedDelay(200).withBody("{}")));
+        RequestHedger hedger = createHedger().build();
+        Call.Factory client = createClient(hedger, null);
+
+        execute(client, "/v1.2/products", null);
+        execute(client, "/v1.2/requests", "{}");
+
+        verify(1, getRequestedFor(urlPathEqualTo("/v1.2/products")));
+        verify(1, postRequestedFor(urlPathEqualTo("/v1.2/requests")));
+        assertThat(hedger.getHedgeCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void intercept_withoutCallFactory_doesNotHedge() throws Exception {
+        stubFor(get(urlPathEqualTo(RIDE)).willReturn(aResponse().withFixedDelay(200).withBody("{}")));
+        RequestHedger hedger = createHedger().build();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(hedger.interceptor(new OkHttpClient(), null))
+                .build();
+
+        execute(client, RIDE, null);
+
+        verify(1, getRequestedFor(urlPathEqualTo(RIDE)));
+        assertThat(hedger.getHedgeCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void cancel_cancelsOriginalAndHedge() throws Exception {
+        stubFor(get(urlPathEqualTo(RIDE)).willReturn(aResponse().withFixedDelay(3000).withBody("{}")));
+        RequestHedger hedger = createHedger().build();
+        final Call call = createClient(hedger, null).newCall(newRequest(RIDE).build());
+        Executors.newSingleThreadScheduledExecutor().schedule(new Runnable() {
+            @Override
+            public void run() {
+                call.cancel();
+            }
+        }, 200, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        try {
+            call.execute();
+            fail("Expected IOException");
+        } catch (IOException expected) {
+        }
+
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(2));
+        assertThat(call.isCanceled()).isTrue();
+        assertThat(hedger.getHedgeCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void intercept_whenHedgeWins_doesNotRetryOrCountCancelledOriginal() throws Exception {
+        stubFor(get(urlPathEqualTo(RIDE)).inScenario("hedge").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withFixedDelay(5000).withBody("{\"status\":\"slow\"}"))
+                .willSetStateTo("hedged"));
+        stubFor(get(urlPathEqualTo(RIDE)).inScenario("hedge").whenScenarioStateIs("hedged")
+                .willReturn(aResponse().withBody("{\"status\":\"hedge\"}")));
+        RequestHedger hedger = createHedger().build();
+        RetryInterceptor retries = RetryInterceptor.builder().build();
+        CircuitBreakerInterceptor breaker = CircuitBreakerInterceptor.builder().setMinimumCalls(1).build();
+        OkHttpClient downstream = new OkHttpClient.Builder()
+                .addInterceptor(retries)
+                .addInterceptor(breaker)
+                .build();
+
+        long start = System.nanoTime();
+        Response response = execute(createClient(hedger, null, downstream), RIDE, null);
+
+        assertThat(response.body().string()).isEqualTo("{\"status\":\"hedge\"}");
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(2));
+        assertThat(retries.getRetryCount()).isEqualTo(0);
+        assertThat(breaker.getState("GET /v1.2/requests/{request_id}"))
+                .isEqualTo(CircuitBreakerInterceptor.State.CLOSED);
+    }
+
+    @Test
+    public void intercept_whenHedgeWins_doesNotLearnDelayFromHedge() throws Exception {
+        stubFor(get(urlPathEqualTo(RIDE)).inScenario("hedge").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withFixedDelay(3000).withBody("{\"status\":\"slow\"}"))
+                .willSetStateTo("hedged"));
+        stubFor(get(urlPathEqualTo(RIDE)).inScenario("hedge").whenScenarioStateIs("hedged")
+                .willReturn(aResponse().withBody("{\"status\":\"hedge\"}")));
+        RequestHedger hedger = createHedger().setWindowSize(1).build();
+
+        execute(createClient(hedger, null), RIDE, null);
+
+        assertThat(hedger.getHedgeWinCount()).isEqualTo(1);
+        assertThat(hedger.getDelayNanos("/v1.2/requests/{request_id}"))
+                .isEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void intercept_whenOriginalThrowsRuntimeException_cancelsHedge() throws Exception {
+        stubFor(get(urlPathEqualTo(RIDE)).willReturn(aResponse().withFixedDelay(3000).withBody("{}")));
+        RequestHedger hedger = createHedger().build();
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch hedgeFailed = new CountDownLatch(1);
+        OkHttpClient downstream = new OkHttpClient.Builder()
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public Response intercept(Chain chain) throws IOException {
+                        if (calls.incrementAndGet() == 1) {
+                            sleep(200);
+                            throw new IllegalStateException("original");
+                        }
+                        try {
+                            return chain.proceed(chain.request());
+                        } catch (IOException e) {
+                            hedgeFailed.countDown();
+                            throw e;
+                        }
+                    }
+                })
+                .build();
+
+        try {
+            execute(createClient(hedger, null, downstream), RIDE, null);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+
+        assertThat(hedger.getHedgeCount()).isEqualTo(1);
+        assertThat(hedgeFailed.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setDelay_withPercentileOfHundred_throws() {
+        RequestHedger.builder().setDelay(100, 1, TimeUnit.SECONDS);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private RequestHedger.Builder createHedger() {
+        return RequestHedger.builder().setDelay(95, 50, TimeUnit.MILLISECONDS);
+    }
+
+    private Call.Factory createClient(RequestHedger hedger, MetricsInterceptor metrics) {
+        return createClient(hedger, metrics, new OkHttpClient());
+    }
+
+    private Call.Factory createClient(RequestHedger hedger, MetricsInterceptor metrics, OkHttpClient downstream) {
+        return hedger.callFactory(new OkHttpClient.Builder()
+                .addInterceptor(hedger.interceptor(downstream, metrics))
+                .build());
+    }
+}
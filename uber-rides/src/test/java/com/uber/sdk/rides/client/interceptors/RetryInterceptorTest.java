@@ -0,0 +1,190 @@
+package com.uber.sdk.rides.client.interceptors;
+
+import com.uber.sdk.rides.WireMockTest;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
+import static com.github.tomakehurst.wiremock.client.WireMock.request;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class RetryInterceptorTest extends WireMockTest {
+
+    private final FakeSleeper sleeper = new FakeSleeper();
+
+    @Test
+    public void intercept_withTransientFailure_retriesGet() throws Exception {
+        stubFailingOnce("GET", "/v1.2/products", 503);
+        RetryInterceptor interceptor = new RetryInterceptor(RetryInterceptor.builder(), sleeper);
+
+        Response response = execute(createClient(interceptor), "/v1.2/products", null);
+
+        assertThat(response.code()).isEqualTo(200);
+        verify(2, getRequestedFor(urlPathEqualTo("/v1.2/products")));
+        assertThat(interceptor.getRetryCount()).isEqualTo(1);
+        assertThat(sleeper.delays).hasSize(1);
+        assertThat(sleeper.delays.get(0)).isBetween(0L, 100L);
+    }
+
+    @Test
+    public void intercept_withPersistentFailure_stopsAtMaxAttempts() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products")).willReturn(aResponse().withStatus(500)));
+        RetryInterceptor interceptor = new RetryInterceptor(RetryInterceptor.builder().setMaxAttempts(4), sleeper);
+
+        Response response = execute(createClient(interceptor), "/v1.2/products", null);
+
+        assertThat(response.code()).isEqualTo(500);
+        verify(4, getRequestedFor(urlPathEqualTo("/v1.2/products")));
+        assertThat(sleeper.delays.get(2)).isBetween(0L, 400L);
+    }
+
+    @Test
+    public void intercept_withRetryAfter_waitsAtLeastThatLong() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products")).inScenario("retry").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withStatus(429).withHeader("Retry-After", "1"))
+                .willSetStateTo("throttled"));
+        stubFor(get(urlPathEqualTo("/v1.2/products")).inScenario("retry").whenScenarioStateIs("throttled")
+                .willReturn(aResponse().withBody("{}")));
+        RetryInterceptor interceptor = new RetryInterceptor(RetryInterceptor.builder(), sleeper);
+
+        assertThat(execute(createClient(interceptor), "/v1.2/products", null).code()).isEqualTo(200);
+        assertThat(sleeper.delays).containsExactly(1000L);
+    }
+
+    @Test
+    public void intercept_withRetryAfterBeyondMaxDelay_returnsResponse() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products"))
+                .willReturn(aResponse().withStatus(429).withHeader("Retry-After", "60")));
+        RetryInterceptor interceptor = new RetryInterceptor(RetryInterceptor.builder(), sleeper);
+
+        assertThat(execute(createClient(interceptor), "/v1.2/products", null).code()).isEqualTo(429);
+        verify(1, getRequestedFor(urlPathEqualTo("/v1.2/products")));
+    }
+
+    @Test
+    public void intercept_withNonIdempotentRequest_doesNotRetry() throws Exception {
+        stubFailingOnce("POST", "/v1.2/requests", 503);
+        RetryInterceptor interceptor = new RetryInterceptor(RetryInterceptor.builder(), sleeper);
+
+        Response response = execute(createClient(interceptor), "/v1.2/requests", "{}");
+
+        assertThat(response.code()).isEqualTo(503);
+        verify(1, postRequestedFor(urlPathEqualTo("/v1.2/requests")));
+    }
+
+    @Test
+    public void intercept_withIdempotencyKeyHeader_retriesWithSameKey() throws Exception {
+        stubFailingOnce("POST", "/v1.2/requests", 503);
+        RetryInterceptor interceptor = new RetryInterceptor(RetryInterceptor.builder()
+                .setIdempotencyKeyHeader("Idempotency-Key"), sleeper);
+
+        Response response = execute(createClient(interceptor), "/v1.2/requests", "{}");
+
+        assertThat(response.code()).isEqualTo(200);
+        verify(2, postRequestedFor(urlPathEqualTo("/v1.2/requests"))
+                .withHeader("Idempotency-Key", matching("[0-9a-f-]{36}")));
+        assertThat(wireMockRule.findAll(postRequestedFor(urlPathEqualTo("/v1.2/requests"))).get(0)
+                .getHeader("Idempotency-Key"))
+                .isEqualTo(wireMockRule.findAll(postRequestedFor(urlPathEqualTo("/v1.2/requests"))).get(1)
+                        .getHeader("Idempotency-Key"));
+    }
+
+    @Test
+    public void intercept_whenBudgetSpent_returnsFailure() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products")).willReturn(aResponse().withStatus(502)));
+        RetryInterceptor interceptor = new RetryInterceptor(RetryInterceptor.builder()
+                .setMaxAttempts(5)
+                .setBudget(new RequestBudget(0, 2)), sleeper);
+
+        Response response = execute(createClient(interceptor), "/v1.2/products", null);
+
+        assertThat(response.code()).isEqualTo(502);
+        verify(3, getRequestedFor(urlPathEqualTo("/v1.2/products")));
+        assertThat(interceptor.getBudgetExhaustedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void intercept_withLocalResponse_doesNotRetry() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products")).willReturn(aResponse().withBody("{}")));
+        RateLimiter limiter = RateLimiter.builder().setUserRate(1, 1).setMaxWait(0, TimeUnit.SECONDS).build();
+        RetryInterceptor interceptor = new RetryInterceptor(RetryInterceptor.builder(), sleeper);
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(interceptor)
+                .addInterceptor(limiter.interceptor("client"))
+                .build();
+
+        execute(client, newAuthorizedRequest("/v1.2/products", "Bearer a"));
+        Response shed = execute(client, newAuthorizedRequest("/v1.2/products", "Bearer a"));
+
+        assertThat(shed.code()).isEqualTo(429);
+        assertThat(interceptor.getRetryCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void intercept_whenCallCancelled_doesNotRetry() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1.2/products")).willReturn(aResponse().withFixedDelay(2000).withBody("{}")));
+        RetryInterceptor interceptor = new RetryInterceptor(RetryInterceptor.builder(), sleeper);
+        Call.Factory callFactory = CancellableCalls.callFactory(createClient(interceptor));
+        final Call call = callFactory.newCall(newRequest("/v1.2/products").build());
+        ScheduledExecutorService canceller = Executors.newSingleThreadScheduledExecutor();
+        canceller.schedule(new Runnable() {
+            @Override
+            public void run() {
+                call.cancel();
+            }
+        }, 200, TimeUnit.MILLISECONDS);
+
+        try {
+            call.execute();
+            fail("Expected IOException");
+        } catch (IOException expected) {
+        } finally {
+            canceller.shutdown();
+        }
+
+        assertThat(interceptor.getRetryCount()).isEqualTo(0);
+        assertThat(sleeper.delays).isEmpty();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setBackoff_whenMaxBelowBase_throws() {
+        RetryInterceptor.builder().setBackoff(10, 5, TimeUnit.MILLISECONDS);
+    }
+
+    private void stubFailingOnce(String method, String path, int status) {
+        stubFor(request(method, urlPathEqualTo(path)).inScenario("transient").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withStatus(status))
+                .willSetStateTo("recovered"));
+        stubFor(request(method, urlPathEqualTo(path)).inScenario("transient").whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withBody("{}")));
+    }
+
+    static class FakeSleeper implements RetryInterceptor.Sleeper {
+        final List<Long> delays = new ArrayList<>();
+
+        @Override
+        public void sleep(long millis) {
+            delays.add(millis);
+        }
+    }
+}
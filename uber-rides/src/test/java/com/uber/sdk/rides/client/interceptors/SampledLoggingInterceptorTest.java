@@ -0,0 +1,142 @@
+package com.uber.sdk.rides.client.interceptors;
+
+import com.uber.sdk.rides.WireMockTest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import okhttp3.OkHttpClient;
+import okhttp3.logging.HttpLoggingInterceptor;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SampledLoggingInterceptorTest extends WireMockTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private RecordingLogger logger;
+
+    @Before
+    public void setUp() {
+        logger = new RecordingLogger();
+        stubFor(get(urlPathEqualTo("/v1.2/me"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"first_name\":\"Uber\",\"last_name\":\"Developer\"}")));
+        stubFor(get(urlPathEqualTo("/v1.2/requests/current"))
+                .willReturn(aResponse()
+                        .withStatus(404)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"code\":\"no_current_trip\"}")));
+        stubFor(post(urlPathEqualTo("/v1.2/requests"))
+                .willReturn(aResponse().withHeader("Content-Type", "application/json").withBody("{}")));
+    }
+
+    @Test
+    public void intercept_logsOneInSampleRateAndEveryError() throws Exception {
+        SampledLoggingInterceptor interceptor = SampledLoggingInterceptor.builder()
+                .setSampleRate(3)
+                .setLogger(logger)
+                .setExecutor(DIRECT)
+                .build();
+        OkHttpClient client = createClient(interceptor);
+
+        for (int i = 0; i < 6; i++) {
+            execute(client, "/v1.2/me");
+        }
+        execute(client, "/v1.2/requests/current");
+
+        assertThat(logger.lines).hasSize(3);
+        assertThat(logger.lines.get(0)).startsWith("method=GET url=http://localhost:" + wireMockRule.port()
+                + "/v1.2/me status=200 tookMs=");
+        assertThat(logger.lines.get(2)).contains("status=404").endsWith("responseBody={\"code\":\"no_current_trip\"}");
+        assertThat(interceptor.getLoggedCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void intercept_truncatesBodiesAndKeepsResponseReadable() throws Exception {
+        SampledLoggingInterceptor interceptor = SampledLoggingInterceptor.builder()
+                .setSampleRate(1)
+                .setMaxBodyBytes(10)
+                .setLogger(logger)
+                .setExecutor(DIRECT)
+                .build();
+        OkHttpClient client = createClient(interceptor);
+
+        String body = execute(client, "/v1.2/me").body().string();
+        execute(client, "/v1.2/requests", "{\"product_id\":\"a1111c8c\"}");
+
+        assertThat(body).isEqualTo("{\"first_name\":\"Uber\",\"last_name\":\"Developer\"}");
+        assertThat(logger.lines.get(0)).endsWith("responseBody={\"first_na...");
+        assertThat(logger.lines.get(1)).contains("requestBody={\"product_...").endsWith("responseBody={}");
+    }
+
+    @Test
+    public void intercept_withoutBodies_logsRequestLineOnly() throws Exception {
+        SampledLoggingInterceptor interceptor = SampledLoggingInterceptor.builder()
+                .setSampleRate(1)
+                .setMaxBodyBytes(0)
+                .setLogger(logger)
+                .setExecutor(DIRECT)
+                .build();
+
+        execute(createClient(interceptor), "/v1.2/me");
+
+        assertThat(logger.lines.get(0)).doesNotContain("Body");
+    }
+
+    @Test
+    public void intercept_whenBufferFull_dropsLines() throws Exception {
+        final List<Runnable> pending = new ArrayList<>();
+        SampledLoggingInterceptor interceptor = SampledLoggingInterceptor.builder()
+                .setSampleRate(1)
+                .setBufferSize(2)
+                .setLogger(logger)
+                .setExecutor(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        pending.add(command);
+                    }
+                })
+                .build();
+        OkHttpClient client = createClient(interceptor);
+
+        for (int i = 0; i < 5; i++) {
+            execute(client, "/v1.2/me");
+        }
+        assertThat(pending).hasSize(1);
+        pending.get(0).run();
+
+        assertThat(logger.lines).hasSize(2);
+        assertThat(interceptor.getLoggedCount()).isEqualTo(2);
+        assertThat(interceptor.getDroppedCount()).isEqualTo(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setSampleRate_whenNotPositive_throws() {
+        SampledLoggingInterceptor.builder().setSampleRate(0);
+    }
+
+    static class RecordingLogger implements HttpLoggingInterceptor.Logger {
+        final List<String> lines = new ArrayList<>();
+
+        @Override
+        public synchronized void log(String message) {
+            lines.add(message);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.uber.sdk.rides.client.interceptors;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void reserve_beyondCapacity_queuesCallersInOrder() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+
+        bucket.reserve(0);
+        bucket.reserve(0);
+        assertThat(bucket.waitNanos(0)).isEqualTo(SECOND / 10);
+        bucket.reserve(0);
+        assertThat(bucket.waitNanos(0)).isEqualTo(2 * SECOND / 10);
+    }
+
+    @Test
+    public void waitNanos_afterIdle_refillsUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+        bucket.reserve(0);
+        bucket.reserve(0);
+
+        assertThat(bucket.waitNanos(10 * SECOND)).isEqualTo(0);
+        bucket.reserve(10 * SECOND);
+        bucket.reserve(10 * SECOND);
+        assertThat(bucket.waitNanos(10 * SECOND)).isGreaterThan(0);
+    }
+
+    @Test
+    public void pauseUntil_holdsPermitsUntilThen() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        bucket.pauseUntil(3 * SECOND);
+
+        assertThat(bucket.waitNanos(SECOND)).isEqualTo(2 * SECOND + SECOND / 10);
+        assertThat(bucket.waitNanos(4 * SECOND)).isEqualTo(0);
+    }
+
+    @Test
+    public void onThrottled_halvesRateAndOnAccepted_restoresIt() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+
+        bucket.onThrottled(0);
+        assertThat(bucket.getRate()).isEqualTo(5.0);
+
+        for (int i = 0; i < 100; i++) {
+            bucket.onAccepted();
+        }
+        assertThat(bucket.getRate()).isEqualTo(10.0);
+    }
+
+    @Test
+    public void onThrottled_keepsMinimumRate() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+
+        for (int i = 0; i < 100; i++) {
+            bucket.onThrottled(i * SECOND);
+        }
+
+        assertThat(bucket.getRate()).isEqualTo(0.1);
+    }
+
+    @Test
+    public void onThrottled_withinRecoveryWindow_lowersRateOnce() {
+        TokenBucket bucket = new TokenBucket(100, 1, 0);
+
+        for (int i = 0; i < 7; i++) {
+            bucket.onThrottled(i * SECOND / 10);
+        }
+        assertThat(bucket.getRate()).isEqualTo(50.0);
+
+        bucket.onThrottled(SECOND);
+        assertThat(bucket.getRate()).isEqualTo(25.0);
+    }
+}
@@ -0,0 +1,89 @@
+package com.uber.sdk.rides.client.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketIndex_isContinuousAndMonotonic() {
+        int previous = LatencyHistogram.bucketIndex(0);
+        for (long value = 1; value < 100000; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertThat(index - previous).isBetween(0, 1);
+            assertThat(LatencyHistogram.highestEquivalentValue(index)).isGreaterThanOrEqualTo(value);
+            previous = index;
+        }
+    }
+
+    @Test
+    public void highestEquivalentValue_isWithinPrecision() {
+        for (long value = 1; value < LatencyHistogram.MAX_VALUE_MICROS; value = value * 3 + 1) {
+            long highest = LatencyHistogram.highestEquivalentValue(LatencyHistogram.bucketIndex(value));
+            assertThat((double) (highest - value) / value).isLessThan(1.0 / 32);
+        }
+    }
+
+    @Test
+    public void snapshot_reportsPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i, TimeUnit.MILLISECONDS);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(1000);
+        assertThat(snapshot.getMaxMicros()).isEqualTo(1000000);
+        assertThat(snapshot.getMeanMicros()).isEqualTo(500500.0);
+        assertThat(snapshot.getValueAtPercentile(50)).isBetween(500000L, 500000L * 33 / 32);
+        assertThat(snapshot.getValueAtPercentile(99)).isBetween(990000L, 990000L * 33 / 32);
+        assertThat(snapshot.getValueAtPercentile(100)).isEqualTo(1000000);
+    }
+
+    @Test
+    public void getValueAtPercentile_overstatesByLessThanOneThirtySecond() {
+        for (long value = 1; value < LatencyHistogram.MAX_VALUE_MICROS / 2; value = value * 3 + 1) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value, TimeUnit.MICROSECONDS);
+            histogram.record(LatencyHistogram.MAX_VALUE_MICROS, TimeUnit.MICROSECONDS);
+
+            long reported = histogram.snapshot().getValueAtPercentile(50);
+            assertThat(reported).isGreaterThanOrEqualTo(value);
+            assertThat((double) (reported - value) / value).isLessThan(1.0 / 32);
+        }
+    }
+
+    @Test
+    public void getValueAtPercentile_atStartOfOctave_reportsBucketEnd() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1024, TimeUnit.MICROSECONDS);
+        histogram.record(2048, TimeUnit.MICROSECONDS);
+
+        assertThat(histogram.snapshot().getValueAtPercentile(50)).isEqualTo(1055);
+    }
+
+    @Test
+    public void snapshot_whenEmpty_reportsZero() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(0);
+        assertThat(snapshot.getMeanMicros()).isEqualTo(0.0);
+        assertThat(snapshot.getValueAtPercentile(99)).isEqualTo(0);
+    }
+
+    @Test
+    public void record_whenAboveMax_clamps() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE, TimeUnit.DAYS);
+
+        assertThat(histogram.snapshot().getMaxMicros()).isEqualTo(LatencyHistogram.MAX_VALUE_MICROS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getValueAtPercentile_whenOutOfRange_throws() {
+        new LatencyHistogram().snapshot().getValueAtPercentile(101);
+    }
+}
@@ -0,0 +1,179 @@
+package com.uber.sdk.rides.client.metrics;
+
+import com.github.tomakehurst.wiremock.http.Fault;
+import com.uber.sdk.rides.WireMockTest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import okhttp3.OkHttpClient;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.patch;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class MetricsInterceptorTest extends WireMockTest {
+
+    @Before
+    public void setUp() {
+        stubFor(get(urlPathMatching("/v1.2/requests/.*"))
+                .willReturn(aResponse().withBody("{}")));
+        stubFor(patch(urlPathMatching("/v1.2/requests/.*"))
+                .willReturn(aResponse().withStatus(204)));
+        stubFor(post(urlPathEqualTo("/v1.2/requests"))
+                .willReturn(aResponse().withStatus(409).withBody(
+                        "{\"meta\":{},\"errors\":[{\"status\":409,\"code\":\"surge\",\"title\":\"Surge\"}]}")));
+        stubFor(get(urlPathEqualTo("/v1.2/unknown"))
+                .willReturn(aResponse().withStatus(404).withBody("{\"code\":\"not_found\",\"message\":\"x\"}")));
+    }
+
+    @Test
+    public void intercept_keysByRouteTemplate() throws Exception {
+        MetricsInterceptor metrics = MetricsInterceptor.builder().build();
+        OkHttpClient client = createClient(metrics);
+
+        execute(client, "/v1.2/requests/a1");
+        execute(client, "/v1.2/requests/b2");
+        execute(client, "/v1.2/requests/current");
+        execute(client, "/v1.2/requests/a1/receipt");
+        execute(client, newRequest("/v1.2/requests/a1").patch(json("{}")));
+
+        assertThat(find(metrics, "GET", "/v1.2/requests/{request_id}", "2xx", null).getLatency().getCount())
+                .isEqualTo(2);
+        assertThat(find(metrics, "GET", "/v1.2/requests/current", "2xx", null).getLatency().getCount())
+                .isEqualTo(1);
+        assertThat(find(metrics, "GET", "/v1.2/requests/{request_id}/receipt", "2xx", null).getLatency().getCount())
+                .isEqualTo(1);
+        assertThat(find(metrics, "PATCH", "/v1.2/requests/{request_id}", "2xx", null).getLatency().getCount())
+                .isEqualTo(1);
+        assertThat(metrics.getMetrics()).hasSize(4);
+    }
+
+    @Test
+    public void intercept_withErrorResponse_keysByClientErrorCode() throws Exception {
+        MetricsInterceptor metrics = MetricsInterceptor.builder().build();
+        OkHttpClient client = createClient(metrics);
+
+        String body = execute(client, "/v1.2/requests", "{}").body().string();
+        execute(client, "/v1.2/unknown");
+
+        assertThat(body).contains("surge");
+        assertThat(find(metrics, "POST", "/v1.2/requests", "4xx", "surge").getLatency().getCount()).isEqualTo(1);
+        assertThat(find(metrics, "GET", EndpointMetrics.ROUTE_UNMATCHED, "4xx", "not_found").getLatency().getCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void intercept_withMetaOnlyErrorBody_recordsWithoutErrorCode() throws Exception {
+        MetricsInterceptor metrics = MetricsInterceptor.builder().build();
+        OkHttpClient client = createClient(metrics);
+        stubFor(get(urlPathEqualTo("/v1.2/me"))
+                .willReturn(aResponse().withStatus(409).withBody("{\"meta\":{}}")));
+
+        String body = execute(client, "/v1.2/me").body().string();
+
+        assertThat(body).isEqualTo("{\"meta\":{}}");
+        assertThat(find(metrics, "GET", "/v1.2/me", "4xx", null).getLatency().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void intercept_whenRequestFails_recordsFailure() throws Exception {
+        MetricsInterceptor metrics = MetricsInterceptor.builder().build();
+        OkHttpClient client = createClient(metrics);
+        stubFor(get(urlPathEqualTo("/v1.2/me"))
+                .willReturn(aResponse().withFault(Fault.EMPTY_RESPONSE)));
+
+        try {
+            execute(client, "/v1.2/me");
+            fail("Expected IOException");
+        } catch (IOException expected) {
+        }
+
+        assertThat(find(metrics, "GET", "/v1.2/me", EndpointMetrics.STATUS_FAILED, null).getLatency().getCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void export_callsEveryExporter() throws Exception {
+        RecordingExporter failing = new RecordingExporter() {
+            @Override
+            public void export(@Nonnull List<EndpointMetrics> metrics) {
+                super.export(metrics);
+                throw new IllegalStateException("broken");
+            }
+        };
+        RecordingExporter exporter = new RecordingExporter();
+        MetricsInterceptor metrics = MetricsInterceptor.builder()
+                .addExporter(failing)
+                .addExporter(exporter)
+                .build();
+        execute(createClient(metrics), "/v1.2/requests/current");
+
+        metrics.export();
+
+        assertThat(failing.exports).hasSize(1);
+        assertThat(exporter.exports).hasSize(1);
+        assertThat(exporter.exports.get(0)).hasSize(1);
+    }
+
+    @Test
+    public void start_exportsPeriodicallyUntilStopped() throws Exception {
+        RecordingExporter exporter = new RecordingExporter();
+        MetricsInterceptor metrics = MetricsInterceptor.builder()
+                .addExporter(exporter)
+                .setExportInterval(10, TimeUnit.MILLISECONDS)
+                .build();
+
+        metrics.start();
+        assertThat(metrics.isRunning()).isTrue();
+        Thread.sleep(100);
+        metrics.stop();
+
+        assertThat(metrics.isRunning()).isFalse();
+        assertThat(exporter.exports.size()).isGreaterThan(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setExportInterval_whenNotPositive_throws() {
+        MetricsInterceptor.builder().setExportInterval(0, TimeUnit.SECONDS);
+    }
+
+    private static EndpointMetrics find(MetricsInterceptor interceptor,
+                                        String method,
+                                        String route,
+                                        String statusClass,
+                                        String errorCode) {
+        for (EndpointMetrics metrics : interceptor.getMetrics()) {
+            if (metrics.getMethod().equals(method)
+                    && metrics.getRoute().equals(route)
+                    && metrics.getStatusClass().equals(statusClass)
+                    && (errorCode == null ? metrics.getErrorCode() == null : errorCode.equals(metrics.getErrorCode()))) {
+                return metrics;
+            }
+        }
+        throw new AssertionError("No metrics for " + method + " " + route + " " + statusClass + " " + errorCode
+                + " in " + interceptor.getMetrics());
+    }
+
+    static class RecordingExporter implements MetricsExporter {
+        final List<List<EndpointMetrics>> exports = new ArrayList<>();
+
+        @Override
+        public synchronized void export(@Nonnull List<EndpointMetrics> metrics) {
+            exports.add(metrics);
+        }
+    }
+}
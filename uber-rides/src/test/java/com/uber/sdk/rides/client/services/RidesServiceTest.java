@@ -148,9 +148,9 @@ public class RidesServiceTest extends WireMockTest {
         assertThat(rideEstimate.getEstimate().getFareId()).isEqualTo(FARE_ID);
         assertThat(rideEstimate.getPickupEstimate()).isEqualTo(4);
         assertThat(rideEstimate.getEstimate().getHighEstimate()).isEqualTo(
-                new BigDecimal(Float.valueOf(5f).toString()));
+                new BigDecimal("5"));
         assertThat(rideEstimate.getEstimate().getLowEstimate()).isEqualTo(
-                new BigDecimal(Float.valueOf(4f).toString()));
+                new BigDecimal("4"));
         assertThat(rideEstimate.getEstimate().getDisplay()).isEqualTo("$4.87");
 
         assertThat(rideEstimate.getTrip()).isNotNull();
@@ -169,9 +169,9 @@ public class RidesServiceTest extends WireMockTest {
                 createRideRequestV1Estimate()).execute().body();
         assertThat(rideEstimate.getEstimate().getFareId()).isNull();
         assertThat(rideEstimate.getEstimate().getHighEstimate()).isEqualTo(
-                new BigDecimal(Float.valueOf(10f).toString()));
+                new BigDecimal("10"));
         assertThat(rideEstimate.getEstimate().getLowEstimate()).isEqualTo(
-                new BigDecimal(Float.valueOf(7f).toString()));
+                new BigDecimal("7"));
         assertThat(rideEstimate.getEstimate().getDisplay()).isEqualTo("$7-10");
 
         assertThat(rideEstimate.getTrip()).isNotNull();
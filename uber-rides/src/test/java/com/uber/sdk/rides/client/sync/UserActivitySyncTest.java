@@ -0,0 +1,133 @@
+package com.uber.sdk.rides.client.sync;
+
+import com.uber.sdk.core.auth.Authenticator;
+import com.uber.sdk.core.client.Session;
+import com.uber.sdk.core.client.SessionConfiguration;
+import com.uber.sdk.rides.WireMockTest;
+import com.uber.sdk.rides.client.UberRidesApi;
+import com.uber.sdk.rides.client.UserActivityHistory;
+import com.uber.sdk.rides.client.model.UserActivity;
+import com.uber.sdk.rides.client.services.RidesService;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.when;
+
+public class UserActivitySyncTest extends WireMockTest {
+
+    @Mock
+    Session session;
+
+    @Mock
+    Authenticator authenticator;
+
+    @Mock
+    SessionConfiguration config;
+
+    private RidesService service;
+    private InMemoryWatermarkStore store;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(session.getAuthenticator()).thenReturn(authenticator);
+        when(authenticator.getSessionConfiguration()).thenReturn(config);
+        when(config.getLocale()).thenReturn(Locale.US);
+        when(config.getEndpointHost()).thenReturn("http://localhost:" + wireMockRule.port());
+
+        service = UberRidesApi.with(session).build().createService();
+        store = new InMemoryWatermarkStore();
+
+        stubPage(0, "{\"request_id\":\"e\",\"request_time\":500},{\"request_id\":\"d\",\"request_time\":400}");
+        stubPage(2, "{\"request_id\":\"c\",\"request_time\":300},{\"request_id\":\"b\",\"request_time\":200}");
+        stubPage(4, "{\"request_id\":\"a\",\"request_time\":100}");
+    }
+
+    @Test
+    public void sync_withoutWatermark_returnsFullHistory() {
+        List<UserActivity> activities = createSync().sync("user", service);
+
+        assertThat(rideIds(activities)).containsExactly("e", "d", "c", "b", "a");
+        assertThat(store.getWatermark("user")).isEqualTo(new Watermark(500, "e"));
+    }
+
+    @Test
+    public void sync_withWatermark_stopsAtWatermark() {
+        store.setWatermark("user", new Watermark(400, "d"));
+
+        List<UserActivity> activities = createSync().sync("user", service);
+
+        assertThat(rideIds(activities)).containsExactly("e");
+        assertThat(store.getWatermark("user")).isEqualTo(new Watermark(500, "e"));
+        verify(0, getRequestedFor(urlPathEqualTo("/v1.2/history")).withQueryParam("offset", equalTo("2")));
+        verify(0, getRequestedFor(urlPathEqualTo("/v1.2/history")).withQueryParam("offset", equalTo("4")));
+    }
+
+    @Test
+    public void sync_whenUpToDate_keepsWatermark() {
+        store.setWatermark("user", new Watermark(500, "e"));
+
+        assertThat(createSync().sync("user", service)).isEmpty();
+        assertThat(store.getWatermark("user")).isEqualTo(new Watermark(500, "e"));
+    }
+
+    @Test
+    public void sync_whenPageFails_keepsWatermark() {
+        store.setWatermark("user", new Watermark(100, "a"));
+        stubFor(get(urlPathEqualTo("/v1.2/history"))
+                .withQueryParam("offset", equalTo("2"))
+                .willReturn(aResponse().withStatus(500).withBody("{}")));
+
+        try {
+            createSync().sync("user", service);
+            fail("Expected PageException");
+        } catch (UserActivityHistory.PageException e) {
+            assertThat(store.getWatermark("user")).isEqualTo(new Watermark(100, "a"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setPageSize_aboveMax_throws() {
+        UserActivitySync.with(store).setPageSize(UserActivityHistory.Builder.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setParallelism_whenNegative_throws() {
+        UserActivitySync.with(store).setParallelism(-1);
+    }
+
+    private UserActivitySync createSync() {
+        return UserActivitySync.with(store).setPageSize(2).build();
+    }
+
+    private static void stubPage(int offset, String history) {
+        stubFor(get(urlPathEqualTo("/v1.2/history"))
+                .withQueryParam("offset", equalTo(String.valueOf(offset)))
+                .willReturn(aResponse().withBody("{\"offset\":" + offset + ",\"limit\":2,\"count\":5,"
+                        + "\"history\":[" + history + "]}")));
+    }
+
+    private static List<String> rideIds(List<UserActivity> activities) {
+        List<String> rideIds = new ArrayList<>();
+        for (UserActivity activity : activities) {
+            rideIds.add(activity.getRideId());
+        }
+        return rideIds;
+    }
+}